@@ -0,0 +1,33 @@
+package ru.terralink.kanban.http;
+
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/* Чем сервер обрабатывает запросы:
+* DISPATCHER - единственным потоком-диспетчером HttpServer, как раньше;
+* FIXED - фиксированным пулом потоков;
+* WORK_STEALING - ForkJoin-пулом с перехватом задач;
+* VIRTUAL - отдельным виртуальным потоком на каждый запрос */
+
+public enum ExecutorType {
+    DISPATCHER,
+    FIXED,
+    WORK_STEALING,
+    VIRTUAL;
+
+    public static Optional<ExecutorType> parseExecutorType(String type) {
+        return Arrays.stream(values()).filter(executorType -> type.equalsIgnoreCase(executorType.toString())).findAny();
+    }
+
+    //null означает, что запросы остаются на потоке-диспетчере
+    public ExecutorService createExecutor(int threads) {
+        return switch (this) {
+            case DISPATCHER -> null;
+            case FIXED -> Executors.newFixedThreadPool(threads);
+            case WORK_STEALING -> Executors.newWorkStealingPool(threads);
+            case VIRTUAL -> Executors.newVirtualThreadPerTaskExecutor();
+        };
+    }
+}
@@ -7,35 +7,76 @@ import ru.terralink.kanban.service.TaskManager;
 
 import java.io.IOException;
 import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
 
 public class HttpTaskServer {
     private static HttpServer httpServer;
     private static TaskManager taskManager;
+    private static ExecutorService executor;
 
-    public static void main(String[] args) {
-        start(Managers.getDefault());
+    public static void main(String[] args) throws IOException {
+        HttpTaskServerConfig config = HttpTaskServerConfig.fromArgs(args);
+        /*как только запросы обрабатываются в несколько потоков, менеджер тоже должен быть потокобезопасным,
+        * а чтобы читатели не толкались на истории, ее можно писать асинхронно*/
+        TaskManager manager;
+        if (config.getExecutorType() == ExecutorType.DISPATCHER) {
+            manager = Managers.getDefault();
+        } else if (config.getHistoryStalenessMillis() > 0) {
+            manager = Managers.getConcurrentTaskManager(Duration.ofMillis(config.getHistoryStalenessMillis()));
+        } else {
+            manager = Managers.getConcurrentTaskManager();
+        }
+        start(manager, config);
     }
 
     public static void start(TaskManager manager) {
+        start(manager, new HttpTaskServerConfig());
+    }
+
+    public static void start(TaskManager manager, HttpTaskServerConfig config) {
         try {
-            httpServer = HttpServer.create(new InetSocketAddress(8080), 0);
+            httpServer = HttpServer.create(new InetSocketAddress(config.getPort()), config.getBacklog());
         } catch (IOException e) {
             throw new RuntimeException(e);
         }
 
         taskManager = manager;
+        executor = config.getExecutorType().createExecutor(config.getThreads());
+        httpServer.setExecutor(executor);
         httpServer.createContext("/tasks", new TaskHttpHandler(taskManager));
         httpServer.createContext("/subtasks", new SubtaskHttpHandler(taskManager));
         httpServer.createContext("/epics", new EpicHttpHandler(taskManager));
         httpServer.createContext("/history", new HistoryHttpHandler(taskManager));
         httpServer.createContext("/prioritized", new PrioritizedHttpHandler(taskManager));
+        httpServer.createContext("/batch", new BatchHttpHandler(taskManager));
+        httpServer.createContext("/slots", new SlotsHttpHandler(taskManager));
         httpServer.start();
     }
 
+    //Сервер владеет своим менеджером: закрываемый менеджер закрываем вместе с ним, чтобы не оставить его фоновые потоки
     public static void stop() {
         if (httpServer != null) {
             httpServer.stop(1);
         }
+        if (executor != null) {
+            executor.shutdown();
+            try {
+                executor.awaitTermination(1, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            executor = null;
+        }
+        if (taskManager instanceof AutoCloseable closeable) {
+            try {
+                closeable.close();
+            } catch (Exception e) {
+                throw new IllegalStateException("Не удалось закрыть менеджер задач", e);
+            }
+        }
+        taskManager = null;
     }
 
 }
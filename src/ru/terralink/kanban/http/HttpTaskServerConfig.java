@@ -0,0 +1,128 @@
+package ru.terralink.kanban.http;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Optional;
+import java.util.Properties;
+
+/* Настройки HTTP-сервера. Берутся из аргументов main вида --port=8080 --backlog=128
+* --executor=virtual --threads=8 --historyStaleness=100 или из properties-файла, переданного через
+* --config=server.properties (ключи port, backlog, executor, threads, historyStaleness).
+* Аргументы командной строки главнее файла */
+
+public class HttpTaskServerConfig {
+    public static final int DEFAULT_PORT = 8080;
+
+    private int port = DEFAULT_PORT;
+    private int backlog = 0; //0 - размер очереди соединений по умолчанию системы
+    private ExecutorType executorType = ExecutorType.DISPATCHER;
+    private int threads = Runtime.getRuntime().availableProcessors();
+    private int historyStalenessMillis = 0; //0 - история пишется синхронно при каждом чтении
+
+    public static HttpTaskServerConfig fromArgs(String[] args) throws IOException {
+        HttpTaskServerConfig config = new HttpTaskServerConfig();
+        for (String arg : args) {
+            if (arg.startsWith("--config=")) {
+                Properties properties = new Properties();
+                try (Reader reader = Files.newBufferedReader(Path.of(arg.substring("--config=".length())), StandardCharsets.UTF_8)) {
+                    properties.load(reader);
+                }
+                properties.stringPropertyNames()
+                        .forEach(key -> config.apply(key, properties.getProperty(key)));
+            }
+        }
+
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Неверный формат аргумента: " + arg);
+            }
+            String key = arg.substring(2, arg.indexOf('='));
+            if (!key.equals("config")) {
+                config.apply(key, arg.substring(arg.indexOf('=') + 1));
+            }
+        }
+        //с одним потоком-диспетчером читатели не толкаются на истории, и асинхронная история ему не нужна
+        if (config.getExecutorType() == ExecutorType.DISPATCHER && config.getHistoryStalenessMillis() > 0) {
+            throw new IllegalArgumentException("Настройка historyStaleness работает только с многопоточным исполнителем");
+        }
+        return config;
+    }
+
+    private void apply(String key, String value) {
+        switch (key) {
+            case "port" -> setPort(parseNonNegative(key, value));
+            case "backlog" -> setBacklog(parseNonNegative(key, value));
+            case "threads" -> {
+                int threadCount = parseNonNegative(key, value);
+                if (threadCount == 0) {
+                    throw new IllegalArgumentException("Количество потоков должно быть положительным");
+                }
+                setThreads(threadCount);
+            }
+            case "historyStaleness" -> setHistoryStalenessMillis(parseNonNegative(key, value));
+            case "executor" -> {
+                Optional<ExecutorType> type = ExecutorType.parseExecutorType(value.trim());
+                if (!type.isPresent()) {
+                    throw new IllegalArgumentException("Неизвестный тип исполнителя: " + value);
+                }
+                setExecutorType(type.get());
+            }
+            default -> throw new IllegalArgumentException("Неизвестная настройка сервера: " + key);
+        }
+    }
+
+    private int parseNonNegative(String key, String value) {
+        try {
+            int result = Integer.parseInt(value.trim());
+            if (result < 0) {
+                throw new IllegalArgumentException("Настройка " + key + " не может быть отрицательной");
+            }
+            return result;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Не удалось прочитать настройку " + key + ": " + value);
+        }
+    }
+
+    public int getPort() {
+        return port;
+    }
+
+    public void setPort(int port) {
+        this.port = port;
+    }
+
+    public int getBacklog() {
+        return backlog;
+    }
+
+    public void setBacklog(int backlog) {
+        this.backlog = backlog;
+    }
+
+    public ExecutorType getExecutorType() {
+        return executorType;
+    }
+
+    public void setExecutorType(ExecutorType executorType) {
+        this.executorType = executorType;
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+
+    public void setThreads(int threads) {
+        this.threads = threads;
+    }
+
+    public int getHistoryStalenessMillis() {
+        return historyStalenessMillis;
+    }
+
+    public void setHistoryStalenessMillis(int historyStalenessMillis) {
+        this.historyStalenessMillis = historyStalenessMillis;
+    }
+}
@@ -1,14 +1,25 @@
 package ru.terralink.kanban.http.handler;
 
+import com.google.gson.Gson;
+import com.google.gson.stream.JsonWriter;
 import com.sun.net.httpserver.HttpExchange;
 import com.sun.net.httpserver.HttpHandler;
+import ru.terralink.kanban.http.json.adapter.TaskGson;
+import ru.terralink.kanban.model.TaskStatus;
 import ru.terralink.kanban.service.TaskManager;
+import ru.terralink.kanban.util.TaskUtils;
 
+import java.io.BufferedWriter;
 import java.io.IOException;
 import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.net.URLDecoder;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 public abstract class BaseHttpHandler implements HttpHandler {
@@ -30,6 +41,24 @@ public abstract class BaseHttpHandler implements HttpHandler {
         sendResponse(exchange, responseString,200);
     }
 
+    /*Список пишем в ответ поэлементно через JsonWriter поверх потока ответа:
+    * строку со всем JSON не собираем, поэтому буфер на запрос не зависит от длины списка.
+    * Каждый элемент сериализуем по его настоящему классу - так же, как это делает toJson для списка.
+    * Пишем уже без блокировок менеджера, поэтому многопоточный менеджер отдает сюда копии задач, а не хранимые*/
+    protected void sendJSONListResponse(HttpExchange exchange, Iterable<?> items) throws IOException {
+        exchange.getResponseHeaders().add("Content-Type", "application/json;charset=utf-8");
+        exchange.sendResponseHeaders(200, 0);
+        Gson gson = TaskGson.getGson();
+        try (JsonWriter writer = gson.newJsonWriter(new BufferedWriter(new OutputStreamWriter(exchange.getResponseBody(), DEFAULT_CHARSET)))) {
+            writer.beginArray();
+            for (Object item : items) {
+                gson.toJson(item, item.getClass(), writer);
+            }
+            writer.endArray();
+        }
+        exchange.close();
+    }
+
     protected void sendSuccessResponse(HttpExchange exchange, String responseString) throws IOException {
         sendResponse(exchange, responseString,200);
     }
@@ -51,6 +80,50 @@ public abstract class BaseHttpHandler implements HttpHandler {
         exchange.close();
     }
 
+    protected void sendBadRequest(HttpExchange exchange, String responseString) throws IOException {
+        sendResponse(exchange, responseString, 400);
+    }
+
+    /*Параметры строки запроса вида after=10&limit=50. Повторный параметр перекрывает предыдущий*/
+    protected static Map<String, String> parseQuery(HttpExchange exchange) {
+        String query = exchange.getRequestURI().getRawQuery();
+        Map<String, String> parameters = new HashMap<>();
+        if (query == null || query.isEmpty()) {
+            return parameters;
+        }
+        for (String parameter : query.split("&")) {
+            int separator = parameter.indexOf('=');
+            String name = separator < 0 ? parameter : parameter.substring(0, separator);
+            String value = separator < 0 ? "" : parameter.substring(separator + 1);
+            parameters.put(URLDecoder.decode(name, DEFAULT_CHARSET), URLDecoder.decode(value, DEFAULT_CHARSET));
+        }
+        return parameters;
+    }
+
+    //Целый параметр не меньше minValue: у limit это единица, у курсора по id ограничения нет
+    protected static int intParameter(Map<String, String> parameters, String name, int defaultValue, int minValue) {
+        String value = parameters.get(name);
+        if (value == null) {
+            return defaultValue;
+        }
+        int result = Integer.parseInt(value);
+        if (result < minValue) {
+            throw new IllegalArgumentException("Параметр " + name + " должен быть не меньше " + minValue);
+        }
+        return result;
+    }
+
+    protected static TaskStatus statusParameter(Map<String, String> parameters) {
+        String value = parameters.get("status");
+        return value == null ? null : TaskStatus.valueOf(value);
+    }
+
+    //даты в параметрах - в том же формате dd-MM-yyyy HH:mm, что и в JSON
+    protected static LocalDateTime dateParameter(Map<String, String> parameters, String name) {
+        String value = parameters.get(name);
+        return value == null ? null : LocalDateTime.parse(value, TaskUtils.DATE_TIME_FORMATTER);
+    }
+
     protected void sendServerFailed(HttpExchange exchange) throws IOException {
         sendResponse(exchange, "Произошла внутренняя ошибка сервера",500);
     }
@@ -0,0 +1,136 @@
+package ru.terralink.kanban.http.handler;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonIOException;
+import com.google.gson.JsonParser;
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+import com.google.gson.stream.MalformedJsonException;
+import com.sun.net.httpserver.HttpExchange;
+import ru.terralink.kanban.http.json.adapter.TaskGson;
+import ru.terralink.kanban.model.Epic;
+import ru.terralink.kanban.model.Subtask;
+import ru.terralink.kanban.model.Task;
+import ru.terralink.kanban.model.TaskType;
+import ru.terralink.kanban.service.TaskManager;
+import ru.terralink.kanban.service.TaskOperation;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/* Пакет операций одним запросом. Тело - массив вида
+* [{"operation":"CREATE","type":"SUBTASK","task":{...}}, {"operation":"UPDATE","type":"TASK","id":1,"task":{...}},
+*  {"operation":"DELETE","id":2}]
+* В ответ - массив кодов по одному на операцию: id созданной задачи, 0 при успехе или код ошибки.
+* Тело разбирается потоком, без промежуточной строки и дерева всего запроса, но целиком до применения:
+* сломанный пакет отклоняется с 400 без изменений на доске. Поэтому разобранные операции держатся в памяти,
+* и чтобы память не росла вместе с телом, пакет ограничен MAX_BATCH_SIZE операциями - больший пакет
+* дочитывается без разбора и тоже отклоняется с 400. Затем весь пакет уходит в менеджер одним вызовом
+* applyBatch - проверки пересечений и пересчет эпиков делаются за один проход, а сохраняется пакет один раз.
+* Каждая операция применяется или отклоняется сама по себе со своим кодом, как одиночный запрос.
+* Коды пишутся в ответ потоком */
+
+public class BatchHttpHandler extends BaseHttpHandler {
+    public static final int MAX_BATCH_SIZE = 5000;
+
+    public BatchHttpHandler(TaskManager taskManager) {
+        super(taskManager);
+        this.allowedMethods = List.of("POST");
+    }
+
+    @Override
+    public void handle(HttpExchange exchange) throws IOException {
+        if (!exchange.getRequestMethod().equals("POST")) {
+            sendMethodNotAllowed(exchange, this.allowedMethods);
+            return;
+        }
+
+        List<TaskOperation> operations = new ArrayList<>();
+        boolean tooLarge = false;
+        try (JsonReader reader = new JsonReader(new BufferedReader(
+                new InputStreamReader(exchange.getRequestBody(), StandardCharsets.UTF_8)))) {
+            reader.beginArray();
+            while (reader.hasNext()) {
+                if (operations.size() == MAX_BATCH_SIZE) {
+                    tooLarge = true;
+                    reader.skipValue();
+                } else {
+                    operations.add(readOperation(reader));
+                }
+            }
+            reader.endArray();
+        } catch (IllegalArgumentException | IllegalStateException | MalformedJsonException | EOFException
+                 | JsonSyntaxException | JsonIOException e) {
+            sendBadRequest(exchange, "Неверный пакет операций: " + e.getMessage());
+            return;
+        } catch (IOException e) {
+            sendServerFailed(exchange);
+            return;
+        }
+        if (tooLarge) {
+            sendBadRequest(exchange, "В пакете больше " + MAX_BATCH_SIZE + " операций, разбейте его на части");
+            return;
+        }
+
+        int[] results = taskManager.applyBatch(operations);
+        exchange.getResponseHeaders().add("Content-Type", "application/json;charset=utf-8");
+        exchange.sendResponseHeaders(200, 0);
+        try (JsonWriter writer = new JsonWriter(new BufferedWriter(
+                new OutputStreamWriter(exchange.getResponseBody(), StandardCharsets.UTF_8)))) {
+            writer.beginArray();
+            for (int result : results) {
+                writer.value(result);
+            }
+            writer.endArray();
+        }
+        exchange.close();
+    }
+
+    /*Операция читается по полям в любом порядке. Тело задачи держим деревом до конца объекта:
+    * класс задачи зависит от поля type, которое может прийти после нее*/
+    private static TaskOperation readOperation(JsonReader reader) throws IOException {
+        TaskOperation.Kind kind = null;
+        TaskType type = null;
+        Integer id = null;
+        JsonElement taskJson = null;
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case "operation" -> kind = TaskOperation.Kind.valueOf(reader.nextString());
+                case "type" -> type = TaskType.valueOf(reader.nextString());
+                case "id" -> id = reader.nextInt();
+                case "task" -> taskJson = JsonParser.parseReader(reader);
+                default -> reader.skipValue();
+            }
+        }
+        reader.endObject();
+
+        if (kind == TaskOperation.Kind.DELETE && id != null) {
+            return TaskOperation.delete(id);
+        }
+        if ((kind == TaskOperation.Kind.CREATE || kind == TaskOperation.Kind.UPDATE) && type != null && taskJson != null) {
+            Task task = TaskGson.getGson().fromJson(taskJson, switch (type) {
+                case TASK -> Task.class;
+                case EPIC -> Epic.class;
+                case SUBTASK -> Subtask.class;
+            });
+            if (kind == TaskOperation.Kind.CREATE) {
+                return TaskOperation.create(task);
+            }
+            if (id == null) {
+                throw new IllegalArgumentException("Не указан id обновляемой задачи");
+            }
+            task.setId(id);
+            return TaskOperation.update(task);
+        }
+        throw new IllegalArgumentException("Неверная операция пакета: " + kind);
+    }
+}
@@ -5,8 +5,8 @@ import com.google.gson.JsonSyntaxException;
 import com.sun.net.httpserver.HttpExchange;
 import ru.terralink.kanban.http.json.adapter.TaskGson;
 import ru.terralink.kanban.model.Epic;
-import ru.terralink.kanban.model.Subtask;
 import ru.terralink.kanban.model.Task;
+import ru.terralink.kanban.model.TaskSnapshot;
 import ru.terralink.kanban.model.TaskType;
 import ru.terralink.kanban.service.TaskManager;
 
@@ -76,8 +76,8 @@ public class EpicHttpHandler extends TaskHttpHandler {
 
     private void processSubtasks(HttpExchange exchange, Integer taskId) throws IOException {
         if (taskId != null) {
-            List<Subtask> subTasks = this.taskManager.getSubtasksByEpic(taskId);
-            sendJSONSuccessResponse(exchange, TaskGson.getGson().toJson(subTasks));
+            List<TaskSnapshot> subTasks = this.taskManager.getSubtaskSnapshotsByEpic(taskId);
+            sendJSONListResponse(exchange, subTasks);
         } else {
             sendNotFound(exchange, "Неверный формат ID");
         }
@@ -3,11 +3,12 @@ package ru.terralink.kanban.http.handler;
 import com.google.gson.JsonIOException;
 import com.google.gson.JsonSyntaxException;
 import com.sun.net.httpserver.HttpExchange;
-import ru.terralink.kanban.http.json.adapter.TaskGson;
+import ru.terralink.kanban.model.TaskSnapshot;
 import ru.terralink.kanban.service.TaskManager;
 
 import java.io.IOException;
 import java.util.List;
+import java.util.Map;
 
 public class HistoryHttpHandler extends BaseHttpHandler {
 
@@ -20,8 +21,23 @@ public class HistoryHttpHandler extends BaseHttpHandler {
     public void handle(HttpExchange exchange) throws IOException {
         try {
             if (exchange.getRequestMethod().equals("GET")) {
-                List history = this.taskManager.getHistory();
-                sendJSONSuccessResponse(exchange, TaskGson.getGson().toJson(history));
+                //без параметров отдаем всю историю, с параметрами - страницу ?offset=&limit=.
+                //Курсор по id здесь не подходит: история упорядочена по времени просмотра, а не по id,
+                //поэтому страница - отрезок истории, и менеджер обходит только его
+                Map<String, String> parameters = parseQuery(exchange);
+                List<TaskSnapshot> history;
+                if (parameters.isEmpty()) {
+                    history = this.taskManager.getHistorySnapshots(0, Integer.MAX_VALUE);
+                } else {
+                    try {
+                        history = this.taskManager.getHistorySnapshots(intParameter(parameters, "offset", 0, 0),
+                                intParameter(parameters, "limit", Integer.MAX_VALUE, 1));
+                    } catch (IllegalArgumentException e) {
+                        sendBadRequest(exchange, "Неверные параметры запроса: " + e.getMessage());
+                        return;
+                    }
+                }
+                sendJSONListResponse(exchange, history);
             } else {
                 sendMethodNotAllowed(exchange, this.allowedMethods);
             }
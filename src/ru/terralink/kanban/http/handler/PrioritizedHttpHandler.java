@@ -3,11 +3,13 @@ package ru.terralink.kanban.http.handler;
 import com.google.gson.JsonIOException;
 import com.google.gson.JsonSyntaxException;
 import com.sun.net.httpserver.HttpExchange;
-import ru.terralink.kanban.http.json.adapter.TaskGson;
+import ru.terralink.kanban.model.TaskSnapshot;
 import ru.terralink.kanban.service.TaskManager;
 
 import java.io.IOException;
+import java.time.format.DateTimeParseException;
 import java.util.List;
+import java.util.Map;
 
 public class PrioritizedHttpHandler extends BaseHttpHandler {
 
@@ -20,8 +22,22 @@ public class PrioritizedHttpHandler extends BaseHttpHandler {
     public void handle(HttpExchange exchange) throws IOException {
         try {
             if (exchange.getRequestMethod().equals("GET")) {
-                List prioritizedTasks = this.taskManager.getPrioritizedTasks();
-                sendJSONSuccessResponse(exchange, TaskGson.getGson().toJson(prioritizedTasks));
+                //без параметров отдаем весь список, с параметрами - окно ?from=&to=&status=&limit=
+                Map<String, String> parameters = parseQuery(exchange);
+                List<TaskSnapshot> prioritizedTasks;
+                if (parameters.isEmpty()) {
+                    prioritizedTasks = this.taskManager.getPrioritizedTaskSnapshots(null, null, null, Integer.MAX_VALUE);
+                } else {
+                    try {
+                        prioritizedTasks = this.taskManager.getPrioritizedTaskSnapshots(dateParameter(parameters, "from"),
+                                dateParameter(parameters, "to"), statusParameter(parameters),
+                                intParameter(parameters, "limit", Integer.MAX_VALUE, 1));
+                    } catch (IllegalArgumentException | DateTimeParseException e) {
+                        sendBadRequest(exchange, "Неверные параметры запроса: " + e.getMessage());
+                        return;
+                    }
+                }
+                sendJSONListResponse(exchange, prioritizedTasks);
             } else {
                 sendMethodNotAllowed(exchange, this.allowedMethods);
             }
@@ -0,0 +1,57 @@
+package ru.terralink.kanban.http.handler;
+
+import com.google.gson.JsonIOException;
+import com.google.gson.JsonSyntaxException;
+import com.sun.net.httpserver.HttpExchange;
+import ru.terralink.kanban.service.TaskManager;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Map;
+
+/* Свободные окна расписания: GET /slots?duration=<минуты>&notBefore=&notAfter=&count=
+* Отдает массив начал: самое раннее свободное окно и начала следующих промежутков, всего не больше count.
+* Без notBefore ищем от текущей минуты, без notAfter - без предела, count по умолчанию 1 */
+
+public class SlotsHttpHandler extends BaseHttpHandler {
+    private static final int MAX_SLOTS = 100;
+
+    public SlotsHttpHandler(TaskManager taskManager) {
+        super(taskManager);
+        this.allowedMethods = List.of("GET");
+    }
+
+    @Override
+    public void handle(HttpExchange exchange) throws IOException {
+        try {
+            if (exchange.getRequestMethod().equals("GET")) {
+                Map<String, String> parameters = parseQuery(exchange);
+                List<LocalDateTime> slots;
+                try {
+                    if (!parameters.containsKey("duration")) {
+                        throw new IllegalArgumentException("не указана длительность duration");
+                    }
+                    Duration duration = Duration.ofMinutes(intParameter(parameters, "duration", 0, 0));
+                    LocalDateTime notBefore = dateParameter(parameters, "notBefore");
+                    if (notBefore == null) {
+                        notBefore = LocalDateTime.now().truncatedTo(ChronoUnit.MINUTES);
+                    }
+                    int count = Math.min(intParameter(parameters, "count", 1, 1), MAX_SLOTS);
+                    slots = this.taskManager.findFreeSlots(duration, notBefore, dateParameter(parameters, "notAfter"), count);
+                } catch (IllegalArgumentException | DateTimeParseException e) {
+                    sendBadRequest(exchange, "Неверные параметры запроса: " + e.getMessage());
+                    return;
+                }
+                sendJSONListResponse(exchange, slots);
+            } else {
+                sendMethodNotAllowed(exchange, this.allowedMethods);
+            }
+        } catch (IllegalArgumentException | IOException | JsonSyntaxException | JsonIOException e) {
+            sendServerFailed(exchange);
+        }
+    }
+}
@@ -1,10 +1,13 @@
 package ru.terralink.kanban.http.handler;
 
+import com.google.gson.JsonArray;
 import com.google.gson.JsonIOException;
+import com.google.gson.JsonObject;
 import com.google.gson.JsonSyntaxException;
 import com.sun.net.httpserver.HttpExchange;
 import ru.terralink.kanban.http.json.adapter.TaskGson;
 import ru.terralink.kanban.model.Task;
+import ru.terralink.kanban.model.TaskSnapshot;
 import ru.terralink.kanban.model.TaskType;
 import ru.terralink.kanban.service.TaskManager;
 import ru.terralink.kanban.util.TaskError;
@@ -18,6 +21,8 @@ import java.util.Objects;
 import java.util.Optional;
 
 public class TaskHttpHandler extends BaseHttpHandler {
+    private static final int MAX_CONFLICTS = 10;
+
     TaskType entityType;
     String entityName;
     String locationPath;
@@ -80,6 +85,10 @@ public class TaskHttpHandler extends BaseHttpHandler {
     }
 
     protected void processError(HttpExchange exchange, int errCode) throws IOException {
+        processError(exchange, errCode, null);
+    }
+
+    protected void processError(HttpExchange exchange, int errCode, Task task) throws IOException {
         Optional<TaskError> error = TaskUtils.ERROR_CODES.entrySet().stream()
                 .filter(entry -> Objects.equals(entry.getValue(), errCode))
                 .map(Map.Entry::getKey)
@@ -87,7 +96,7 @@ public class TaskHttpHandler extends BaseHttpHandler {
 
         if (error.isPresent()) {
             switch (error.get()) {
-                case TaskError.INTERSECT -> sendIntersectError(exchange);
+                case TaskError.INTERSECT -> sendIntersectError(exchange, task);
                 case TaskError.ABSENT_EPIC -> sendAbsentEpicError(exchange);
                 case TaskError.UNKNOWN -> sendServerFailed(exchange);
             }
@@ -98,7 +107,7 @@ public class TaskHttpHandler extends BaseHttpHandler {
 
     protected void processPost(HttpExchange exchange, Integer taskId, Task task) throws IOException {
         if (taskId != null) {
-            Task originalTask = this.taskManager.getTaskByIdAndType(taskId, entityType);
+            TaskSnapshot originalTask = this.taskManager.getTaskSnapshotByIdAndType(taskId, entityType);
             if (originalTask == null) {
                 sendNotFound(exchange, entityName + " с таким ID отсутствует");
             } else {
@@ -106,7 +115,9 @@ public class TaskHttpHandler extends BaseHttpHandler {
                 if (errCode == 0) {
                     sendSuccessResponse(exchange,  "Обновление прошло успешно");
                 } else {
-                    processError(exchange, errCode);
+                    //обновляемая задача не пересекается сама с собой
+                    task.setId(taskId);
+                    processError(exchange, errCode, task);
                 }
             }
         } else {
@@ -114,22 +125,36 @@ public class TaskHttpHandler extends BaseHttpHandler {
             if (createdTaskId > -1) {
                 sendSuccessCreateResponse(exchange, createdTaskId);
             } else {
-                processError(exchange, createdTaskId);
+                processError(exchange, createdTaskId, task);
             }
         }
     }
 
     protected void processGet(HttpExchange exchange, Integer taskId) throws IOException {
         if (taskId != null) {
-            Task task = this.taskManager.getTaskByIdAndType(taskId, this.entityType);
+            TaskSnapshot task = this.taskManager.getTaskSnapshotByIdAndType(taskId, this.entityType);
             if (task == null) {
                 sendNotFound(exchange, entityName + " с таким ID отсутствует");
             } else {
                 sendJSONSuccessResponse(exchange, TaskGson.getGson().toJson(task));
             }
         } else {
-            List<Task> tasks = this.taskManager.getTasksByType(this.entityType);
-            sendJSONSuccessResponse(exchange, TaskGson.getGson().toJson(tasks));
+            //без параметров отдаем весь список, с параметрами - страницу ?after=&limit=&status=.
+            //id бывают и отрицательными, поэтому курсор по умолчанию - самый маленький int
+            Map<String, String> parameters = parseQuery(exchange);
+            List<TaskSnapshot> tasks;
+            if (parameters.isEmpty()) {
+                tasks = this.taskManager.getTaskSnapshotsByType(this.entityType);
+            } else {
+                try {
+                    tasks = this.taskManager.getTaskSnapshotsByType(this.entityType, statusParameter(parameters),
+                            intParameter(parameters, "after", Integer.MIN_VALUE, Integer.MIN_VALUE), intParameter(parameters, "limit", Integer.MAX_VALUE, 1));
+                } catch (IllegalArgumentException e) {
+                    sendBadRequest(exchange, "Неверные параметры запроса: " + e.getMessage());
+                    return;
+                }
+            }
+            sendJSONListResponse(exchange, tasks);
         }
     }
 
@@ -138,8 +163,17 @@ public class TaskHttpHandler extends BaseHttpHandler {
         sendResponse(exchange, entityName + " успешно создана",201);
     }
 
-    protected void sendIntersectError(HttpExchange exchange) throws IOException {
-        sendResponse(exchange, entityName + " пересекается по срокам с существующими", 406);
+    /*Вместе с отказом отдаем, с чем именно задача пересеклась: до MAX_CONFLICTS задач в порядке начала.
+    * Клиенту не нужно тянуть весь /prioritized, чтобы найти помеху*/
+    protected void sendIntersectError(HttpExchange exchange, Task task) throws IOException {
+        JsonObject response = new JsonObject();
+        response.addProperty("message", entityName + " пересекается по срокам с существующими");
+        List<Task> conflicts = task == null ? List.of() : this.taskManager.getConflictingTasks(task, MAX_CONFLICTS);
+        JsonArray conflictsJson = new JsonArray(conflicts.size());
+        conflicts.forEach(conflict -> conflictsJson.add(TaskGson.getGson().toJsonTree(conflict, conflict.getClass())));
+        response.add("conflicts", conflictsJson);
+        exchange.getResponseHeaders().add("Content-Type", "application/json;charset=utf-8");
+        sendResponse(exchange, TaskGson.getGson().toJson(response), 406);
     }
 
     protected void sendAbsentEpicError(HttpExchange exchange) throws IOException {
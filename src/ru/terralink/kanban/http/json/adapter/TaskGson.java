@@ -7,19 +7,17 @@ import java.time.Duration;
 import java.time.LocalDateTime;
 
 public class TaskGson {
-    private static Gson gson;
+    //Gson потокобезопасен, поэтому создаем его сразу и делим между всеми потоками сервера
+    private static final Gson gson = new GsonBuilder()
+            .registerTypeAdapter(Duration.class, new DurationTypeAdapter())
+            .registerTypeAdapter(LocalDateTime.class, new LocalDateTimeTypeAdapter())
+            .create();
 
     private TaskGson() {
 
     }
 
     public static Gson getGson() {
-        if (gson == null) {
-            gson = new GsonBuilder()
-                    .registerTypeAdapter(Duration.class, new DurationTypeAdapter())
-                    .registerTypeAdapter(LocalDateTime.class, new LocalDateTimeTypeAdapter())
-                    .create();
-        }
         return gson;
     }
 }
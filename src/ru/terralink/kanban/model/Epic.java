@@ -1,11 +1,14 @@
 package ru.terralink.kanban.model;
 
+import ru.terralink.kanban.util.IntHashMap;
+
 import java.time.Duration;
 import java.time.LocalDateTime;
-import java.util.Comparator;
-import java.util.HashMap;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.Map;
-import java.util.Optional;
+import java.util.TreeMap;
 
 /* Добавляем эпику ссылку на список его подзадач. Сохраним их в хэш-мапе,
 * аналагично тому, как все задачи хранит TaskManager для того, чтобы унифицировать то,
@@ -13,115 +16,212 @@ import java.util.Optional;
  */
 
 public class Epic extends Task {
-    private final Map<Integer, Subtask> subtasks;
+    private final IntHashMap<Subtask> subtasks;
     private LocalDateTime endTime;
 
+    /* Агрегаты по подзадачам обновляются инкрементально при каждом добавлении и удалении,
+    * а не пересчитываются проходом по всем подзадачам. Вклад подзадачи запоминаем отдельно,
+    * потому что снаружи могут изменить тот же объект и передобавить его.
+    * Поля transient: в JSON они не нужны, а у эпика, собранного Gson, они поднимутся лениво */
+    private transient IntHashMap<Contribution> contributions;
+    private transient int[] statusCounts;
+    private transient TreeMap<LocalDateTime, Integer> startTimes;
+    private transient TreeMap<LocalDateTime, Integer> endTimes;
+    private transient Duration totalDuration;
+
     public Epic(String name, String description) {
         super(name, description);
-        subtasks = new HashMap<>();
+        subtasks = new IntHashMap<>();
+        resetAggregates();
     }
 
     public Epic(int id, String name, String description) {
         super(id, name, description);
-        subtasks = new HashMap<>();
+        subtasks = new IntHashMap<>();
+        resetAggregates();
     }
 
     public Map<Integer, Subtask> getSubtasks() {
-        return subtasks;
+        return Collections.unmodifiableMap(subtasks);
     }
 
     public void addSubtask(Subtask subtask) {
+        ensureAggregates();
+        Contribution contribution = new Contribution(subtask);
+        Contribution previous = contributions.put(subtask.getId(), contribution);
+        if (previous != null) {
+            uncount(previous);
+        }
+        count(contribution);
         subtasks.put(subtask.getId(), subtask);
-        calculateStatus();
-        calculateDates();
+        refreshAggregates();
+    }
+
+    /*Массовое добавление, например при загрузке: вклады считаем по каждой подзадаче,
+    * а статус и даты эпика пересчитываем один раз в конце*/
+    public void addSubtasks(Collection<Subtask> newSubtasks) {
+        changeSubtasks(Collections.emptyList(), newSubtasks);
+    }
+
+    /*Пачка изменений: сначала убираем подзадачи removedIds, затем добавляем addedSubtasks.
+    * Пересчет статуса и дат - один на всю пачку*/
+    public void changeSubtasks(Collection<Integer> removedIds, Collection<Subtask> addedSubtasks) {
+        ensureAggregates();
+        for (int id : removedIds) {
+            subtasks.remove(id);
+            Contribution previous = contributions.remove(id);
+            if (previous != null) {
+                uncount(previous);
+            }
+        }
+        for (Subtask subtask : addedSubtasks) {
+            Contribution contribution = new Contribution(subtask);
+            Contribution previous = contributions.put(subtask.getId(), contribution);
+            if (previous != null) {
+                uncount(previous);
+            }
+            count(contribution);
+            subtasks.put(subtask.getId(), subtask);
+        }
+        refreshAggregates();
     }
 
     public void removeSubtask(int id) {
+        ensureAggregates();
         subtasks.remove(id);
-        calculateStatus();
-        calculateDates();
+        Contribution previous = contributions.remove(id);
+        if (previous != null) {
+            uncount(previous);
+        }
+        refreshAggregates();
     }
 
     public void clearSubtasks() {
         subtasks.clear();
-        calculateStatus();
-        calculateDates();
+        resetAggregates();
+        refreshAggregates();
     }
 
-    private void calculateStatus() {
-        int subtaskCount = subtasks.keySet().size();
-        if (subtaskCount == 0) {
-            this.status = TaskStatus.NEW;
-            return;
-        }
+    private void resetAggregates() {
+        contributions = new IntHashMap<>();
+        statusCounts = new int[TaskStatus.values().length];
+        startTimes = new TreeMap<>();
+        endTimes = new TreeMap<>();
+        totalDuration = Duration.ZERO;
+    }
 
-        if (subtasks.values().stream().anyMatch(subtask -> subtask.getStatus() == TaskStatus.IN_PROGRESS)) {
-            this.status = TaskStatus.IN_PROGRESS;
+    private void ensureAggregates() {
+        if (contributions != null) {
             return;
         }
+        resetAggregates();
+        if (subtasks != null) {
+            subtasks.values().forEach(subtask -> {
+                Contribution contribution = new Contribution(subtask);
+                contributions.put(subtask.getId(), contribution);
+                count(contribution);
+            });
+        }
+    }
 
-        long newCount = subtasks.values().stream()
-                .filter(subtask -> subtask.getStatus() == TaskStatus.NEW).count();
+    private void count(Contribution contribution) {
+        if (contribution.status != null) {
+            statusCounts[contribution.status.ordinal()]++;
+        }
+        if (contribution.startTime != null) {
+            startTimes.merge(contribution.startTime, 1, Integer::sum);
+        }
+        if (contribution.endTime != null) {
+            endTimes.merge(contribution.endTime, 1, Integer::sum);
+        }
+        if (contribution.duration != null) {
+            totalDuration = totalDuration.plus(contribution.duration);
+        }
+    }
 
-        long doneCount = subtasks.values().stream()
-                .filter(subtask -> subtask.getStatus() == TaskStatus.DONE).count();
+    private void uncount(Contribution contribution) {
+        if (contribution.status != null) {
+            statusCounts[contribution.status.ordinal()]--;
+        }
+        if (contribution.startTime != null) {
+            startTimes.computeIfPresent(contribution.startTime, (time, count) -> count == 1 ? null : count - 1);
+        }
+        if (contribution.endTime != null) {
+            endTimes.computeIfPresent(contribution.endTime, (time, count) -> count == 1 ? null : count - 1);
+        }
+        if (contribution.duration != null) {
+            totalDuration = totalDuration.minus(contribution.duration);
+        }
+    }
 
-        if (newCount == subtaskCount) {
+    //Правила те же, что и раньше: есть IN_PROGRESS или смесь статусов - IN_PROGRESS,
+    //все NEW (или подзадач нет) - NEW, все DONE - DONE
+    private void refreshAggregates() {
+        int subtaskCount = contributions.size();
+        if (subtaskCount == 0 || statusCounts[TaskStatus.NEW.ordinal()] == subtaskCount) {
             this.status = TaskStatus.NEW;
-        } else if (doneCount == subtaskCount) {
+        } else if (statusCounts[TaskStatus.IN_PROGRESS.ordinal()] == 0
+                && statusCounts[TaskStatus.DONE.ordinal()] == subtaskCount) {
             this.status = TaskStatus.DONE;
         } else {
             this.status = TaskStatus.IN_PROGRESS;
         }
-    }
-
-    private void calculateDates() {
-        Optional<LocalDateTime> opStartTime = subtasks.values().stream()
-                .filter(subtask -> subtask.getStartTime() != null)
-                .map(subtask -> subtask.getStartTime())
-                .min(Comparator.naturalOrder());
 
-        this.startTime = opStartTime.isPresent() ? opStartTime.get() : null;
-
-        Optional<LocalDateTime> opEndTime = subtasks.values().stream()
-                .filter(subtask -> subtask.getEndTime() != null)
-                .map(subtask -> subtask.getEndTime())
-                .max(Comparator.naturalOrder());
-
-        this.endTime = opEndTime.isPresent() ? opEndTime.get() : null;
-
-        Duration calcDuration = subtasks.values().stream()
-                .filter(subtask -> subtask.getDuration() != null)
-                .map(subtask -> subtask.getDuration())
-                .reduce(Duration.ZERO, Duration::plus);
-
-        this.duration = calcDuration.toMinutes() == 0 ? null : calcDuration;
+        this.startTime = startTimes.isEmpty() ? null : startTimes.firstKey();
+        this.endTime = endTimes.isEmpty() ? null : endTimes.lastKey();
+        this.duration = totalDuration.toMinutes() == 0 ? null : totalDuration;
+        invalidateSnapshot();
     }
 
+    /*Агрегаты клона не пересчитываем по подзадачам, а копируем:
+    * вклады подзадач неизменяемы, поэтому их можно делить между оригиналом и клоном*/
+
     @Override
     public Object clone() {
         Epic epic = new Epic(this.id, this.name, this.description);
         if (subtasks != null) {
-            this.subtasks.values().stream()
-                    .map(subtask -> subtask.clone())
-                    .forEach(subtask -> epic.addSubtask((Subtask) subtask));
+            ensureAggregates();
+            this.subtasks.values().forEach(subtask -> epic.subtasks.put(subtask.getId(), (Subtask) subtask.clone()));
+            epic.contributions = new IntHashMap<>(contributions);
+            epic.statusCounts = statusCounts.clone();
+            epic.startTimes = new TreeMap<>(startTimes);
+            epic.endTimes = new TreeMap<>(endTimes);
+            epic.totalDuration = totalDuration;
+            epic.refreshAggregates();
         }
         return epic;
     }
 
+    @Override
+    protected EpicSnapshot createSnapshot() {
+        Map<Integer, SubtaskSnapshot> subtaskSnapshots = new LinkedHashMap<>();
+        if (subtasks != null) {
+            subtasks.values().forEach(subtask -> subtaskSnapshots.put(subtask.getId(), subtask.snapshot()));
+        }
+        return new EpicSnapshot(id, name, description, status, duration, startTime, endTime,
+                Collections.unmodifiableMap(subtaskSnapshots));
+    }
+
+    @Override
+    public EpicSnapshot snapshot() {
+        return (EpicSnapshot) super.snapshot();
+    }
+
     @Override
     public void setStatus(TaskStatus status) {
         this.status = status;
+        invalidateSnapshot();
     }
 
     @Override
     public void setStartTime(LocalDateTime startTime) {
         this.startTime = startTime;
-
+        invalidateSnapshot();
     }
 
     public void setEndTime(LocalDateTime endTime) {
         this.endTime = endTime;
+        invalidateSnapshot();
     }
 
     @Override
@@ -147,4 +247,18 @@ public class Epic extends Task {
     public TaskType getType() {
         return TaskType.EPIC;
     }
+
+    private static class Contribution {
+        private final TaskStatus status;
+        private final LocalDateTime startTime;
+        private final LocalDateTime endTime;
+        private final Duration duration;
+
+        Contribution(Subtask subtask) {
+            this.status = subtask.getStatus();
+            this.startTime = subtask.getStartTime();
+            this.endTime = subtask.getEndTime();
+            this.duration = subtask.getDuration();
+        }
+    }
 }
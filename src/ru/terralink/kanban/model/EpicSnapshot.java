@@ -0,0 +1,25 @@
+package ru.terralink.kanban.model;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/* Снимки подзадач внутри снимка эпика - это те же закэшированные снимки самих подзадач,
+* поэтому после изменения одной подзадачи заново строятся только ее снимок и обертка эпика */
+
+public record EpicSnapshot(int id, String name, String description, TaskStatus status,
+                           Duration duration, LocalDateTime startTime, LocalDateTime endTime,
+                           Map<Integer, SubtaskSnapshot> subtasks) implements TaskSnapshot {
+
+    @Override
+    public TaskType type() {
+        return TaskType.EPIC;
+    }
+
+    @Override
+    public Epic toTask() {
+        Epic epic = new Epic(id, name, description);
+        subtasks.values().forEach(subtask -> epic.addSubtask(subtask.toTask()));
+        return epic;
+    }
+}
@@ -0,0 +1,22 @@
+package ru.terralink.kanban.model;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+public record SimpleTaskSnapshot(int id, String name, String description, TaskStatus status,
+                                 Duration duration, LocalDateTime startTime) implements TaskSnapshot {
+
+    @Override
+    public TaskType type() {
+        return TaskType.TASK;
+    }
+
+    @Override
+    public Task toTask() {
+        Task task = new Task(id, name, description);
+        task.setStatus(status);
+        task.setStartTime(startTime);
+        task.setDuration(duration);
+        return task;
+    }
+}
@@ -25,6 +25,17 @@ public class Subtask extends Task {
 
     public void setEpicId(int epicId) {
         this.epicId = epicId;
+        invalidateSnapshot();
+    }
+
+    @Override
+    protected SubtaskSnapshot createSnapshot() {
+        return new SubtaskSnapshot(id, name, description, status, duration, startTime, epicId);
+    }
+
+    @Override
+    public SubtaskSnapshot snapshot() {
+        return (SubtaskSnapshot) super.snapshot();
     }
 
     @Override
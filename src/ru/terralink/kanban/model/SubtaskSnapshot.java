@@ -0,0 +1,22 @@
+package ru.terralink.kanban.model;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+public record SubtaskSnapshot(int id, String name, String description, TaskStatus status,
+                              Duration duration, LocalDateTime startTime, int epicId) implements TaskSnapshot {
+
+    @Override
+    public TaskType type() {
+        return TaskType.SUBTASK;
+    }
+
+    @Override
+    public Subtask toTask() {
+        Subtask subtask = new Subtask(id, name, description, epicId);
+        subtask.setStatus(status);
+        subtask.setStartTime(startTime);
+        subtask.setDuration(duration);
+        return subtask;
+    }
+}
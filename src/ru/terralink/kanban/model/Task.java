@@ -17,6 +17,8 @@ public class Task implements Cloneable {
     protected TaskStatus status;
     protected Duration duration;
     protected LocalDateTime startTime;
+    //снимок для чтения, сбрасывается при любом изменении задачи
+    protected transient TaskSnapshot snapshot;
 
     public Task(String name, String description) {
         this.name = name;
@@ -65,12 +67,30 @@ public class Task implements Cloneable {
         return task;
     }
 
+    public TaskSnapshot snapshot() {
+        TaskSnapshot current = snapshot;
+        if (current == null) {
+            current = createSnapshot();
+            snapshot = current;
+        }
+        return current;
+    }
+
+    protected TaskSnapshot createSnapshot() {
+        return new SimpleTaskSnapshot(id, name, description, status, duration, startTime);
+    }
+
+    protected void invalidateSnapshot() {
+        snapshot = null;
+    }
+
     public int getId() {
         return id;
     }
 
     public void setId(int id) {
         this.id = id;
+        invalidateSnapshot();
     }
 
     public String getName() {
@@ -79,6 +99,7 @@ public class Task implements Cloneable {
 
     public void setName(String name) {
         this.name = name;
+        invalidateSnapshot();
     }
 
     public String getDescription() {
@@ -87,6 +108,7 @@ public class Task implements Cloneable {
 
     public void setDescription(String description) {
         this.description = description;
+        invalidateSnapshot();
     }
 
     public TaskStatus getStatus() {
@@ -95,6 +117,7 @@ public class Task implements Cloneable {
 
     public void setStatus(TaskStatus status) {
         this.status = status;
+        invalidateSnapshot();
     }
 
     public TaskType getType() {
@@ -107,6 +130,7 @@ public class Task implements Cloneable {
 
     public void setDuration(Duration duration) {
         this.duration = duration;
+        invalidateSnapshot();
     }
 
     public LocalDateTime getStartTime() {
@@ -115,6 +139,7 @@ public class Task implements Cloneable {
 
     public void setStartTime(LocalDateTime startTime) {
         this.startTime = startTime;
+        invalidateSnapshot();
     }
 
     public LocalDateTime getEndTime() {
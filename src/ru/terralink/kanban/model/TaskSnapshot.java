@@ -0,0 +1,28 @@
+package ru.terralink.kanban.model;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/* Неизменяемый снимок задачи для чтения. Снимок строится один раз после очередного изменения задачи,
+* кэшируется в ней и отдается всем читателям без копирования. Сама изменяемая задача остается внутри менеджера.
+* Имена полей совпадают с полями задач, поэтому в JSON снимок выглядит так же, как сама задача */
+
+public sealed interface TaskSnapshot permits SimpleTaskSnapshot, SubtaskSnapshot, EpicSnapshot {
+
+    int id();
+
+    String name();
+
+    String description();
+
+    TaskStatus status();
+
+    Duration duration();
+
+    LocalDateTime startTime();
+
+    TaskType type();
+
+    //изменяемая копия для тех, кому все-таки нужна задача
+    Task toTask();
+}
@@ -0,0 +1,118 @@
+package ru.terralink.kanban.service;
+
+import ru.terralink.kanban.model.Task;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/* Асинхронная запись истории для многопоточного менеджера. Просмотры и удаления не трогают историю,
+* а только кладутся в неблокирующую очередь: читатели задач больше не пишут в общую структуру
+* и не толкаются на ее блокировке. Разбирает очередь один фоновый поток раз в maxStaleness и после
+* каждого разбора публикует готовый снимок истории, который getHistory отдает без блокировок.
+* История согласована в конечном счете, но отставание ограничено: в ней всегда есть все обращения,
+* сделанные раньше чем maxStaleness назад. Если фоновый поток не успел, getHistory разбирает очередь сам.
+* Просмотры и удаления идут через одну очередь, поэтому удаленная задача не воскресает в истории.
+* Вложенный менеджер трогает только тот, кто разбирает очередь, и синхронизация ему не нужна */
+
+public class AsyncHistoryManager implements HistoryManager, AutoCloseable {
+    private final HistoryManager historyManager;
+    private final Queue<Object> accesses = new ConcurrentLinkedQueue<>(); //просмотренные Task и Removal
+    private final ReentrantLock drainLock = new ReentrantLock();
+    private final long maxStalenessNanos;
+    private final ScheduledExecutorService drainer;
+    private volatile List<Task> history = List.of();
+    private volatile long lastDrainStart;
+
+    public AsyncHistoryManager(HistoryManager historyManager, Duration maxStaleness) {
+        if (maxStaleness.isNegative() || maxStaleness.isZero()) {
+            throw new IllegalArgumentException("Допустимое отставание истории должно быть положительным");
+        }
+        this.historyManager = historyManager;
+        this.maxStalenessNanos = maxStaleness.toNanos();
+        lastDrainStart = System.nanoTime();
+        drainer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "async-history-manager-drainer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        drainer.scheduleWithFixedDelay(this::drain, maxStalenessNanos, maxStalenessNanos, TimeUnit.NANOSECONDS);
+    }
+
+    //Просмотры кладем в очередь самими задачами, без обертки: на чтение приходится одна аллокация узла очереди
+    private record Removal(int id) {
+    }
+
+    @Override
+    public void add(Task task) {
+        accesses.add(task);
+    }
+
+    @Override
+    public void remove(int id) {
+        accesses.add(new Removal(id));
+    }
+
+    @Override
+    public List<Task> getHistory() {
+        if (System.nanoTime() - lastDrainStart > maxStalenessNanos) {
+            drain();
+        }
+        return history;
+    }
+
+    //Отрезок уже опубликованного снимка: копируется только он
+    @Override
+    public List<Task> getHistory(int offset, int limit) {
+        if (offset < 0) {
+            throw new IllegalArgumentException("Смещение в истории не может быть отрицательным");
+        }
+        List<Task> current = getHistory();
+        int from = Math.min(offset, current.size());
+        return new ArrayList<>(current.subList(from, from + Math.max(Math.min(limit, current.size() - from), 0)));
+    }
+
+    //Разбирает очередь сейчас: после вызова история учитывает все обращения, сделанные до него
+    public void flush() {
+        drain();
+    }
+
+    private void drain() {
+        drainLock.lock();
+        try {
+            lastDrainStart = System.nanoTime();
+            boolean changed = false;
+            for (Object access = accesses.poll(); access != null; access = accesses.poll()) {
+                if (access instanceof Task task) {
+                    historyManager.add(task);
+                } else {
+                    historyManager.remove(((Removal) access).id());
+                }
+                changed = true;
+            }
+            if (changed) {
+                history = Collections.unmodifiableList(historyManager.getHistory());
+            }
+        } finally {
+            drainLock.unlock();
+        }
+    }
+
+    @Override
+    public void close() {
+        drainer.shutdown();
+        try {
+            drainer.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        drain();
+    }
+}
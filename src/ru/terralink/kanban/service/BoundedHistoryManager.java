@@ -0,0 +1,213 @@
+package ru.terralink.kanban.service;
+
+import ru.terralink.kanban.model.Task;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/* История просмотров фиксированной емкости на примитивных массивах. Порядок просмотров - двусвязный список
+* по номерам ячеек (prev/next), соответствие id -> ячейка - открытая адресация по int без упаковки.
+* Таблица рассчитана на емкость заранее и никогда не растет, поэтому просмотр стоит O(1) и ничего не выделяет.
+* При переполнении вытесняется задача, которую смотрели давнее всех.
+* getHistory отдает неизменяемый снимок, который пересобирается только после изменения истории:
+* повторные чтения без просмотров между ними возвращают один и тот же список */
+
+public class BoundedHistoryManager implements HistoryManager {
+    private static final int NONE = -1;
+
+    private final Task[] tasks;
+    private final int[] ids;
+    private final int[] prev;
+    private final int[] next;
+    private final int[] table; //номера ячеек по хэшу id, NONE - пусто
+    private final int mask;
+    private int head = NONE; //самый давний просмотр
+    private int tail = NONE; //самый свежий просмотр
+    private int size;
+    private int issued; //сколько ячеек уже выдавали
+    private int freeSlot = NONE; //освобожденные ячейки, связанные через next
+    private long version;
+    private long cachedVersion = NONE;
+    private List<Task> cachedHistory;
+
+    public BoundedHistoryManager(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Емкость истории должна быть положительной");
+        }
+        tasks = new Task[capacity];
+        ids = new int[capacity];
+        prev = new int[capacity];
+        next = new int[capacity];
+        //не меньше двух позиций таблицы на ячейку, чтобы цепочки проб оставались короткими
+        table = new int[Integer.highestOneBit(2 * capacity - 1) << 1];
+        Arrays.fill(table, NONE);
+        mask = table.length - 1;
+    }
+
+    public int capacity() {
+        return tasks.length;
+    }
+
+    @Override
+    public void add(Task task) {
+        int id = task.getId();
+        int index = indexOf(id);
+        int slot;
+        if (index != NONE) {
+            slot = table[index];
+            unlink(slot);
+        } else {
+            slot = allocate();
+            ids[slot] = id;
+            insert(slot);
+        }
+        tasks[slot] = task;
+        linkLast(slot);
+        version++;
+    }
+
+    @Override
+    public void remove(int id) {
+        int index = indexOf(id);
+        if (index == NONE) {
+            return;
+        }
+        int slot = table[index];
+        deleteAt(index);
+        release(slot);
+        version++;
+    }
+
+    @Override
+    public List<Task> getHistory() {
+        if (cachedVersion != version) {
+            Task[] history = new Task[size];
+            int position = 0;
+            for (int slot = head; slot != NONE; slot = next[slot]) {
+                history[position++] = tasks[slot];
+            }
+            cachedHistory = Collections.unmodifiableList(Arrays.asList(history));
+            cachedVersion = version;
+        }
+        return cachedHistory;
+    }
+
+    /*Отрезок истории не трогает кэш целого списка: к началу отрезка идем по ячейкам с ближайшего конца*/
+    @Override
+    public List<Task> getHistory(int offset, int limit) {
+        if (offset < 0) {
+            throw new IllegalArgumentException("Смещение в истории не может быть отрицательным");
+        }
+        int count = Math.max(Math.min(limit, size - offset), 0);
+        List<Task> history = new ArrayList<>(count);
+        if (count == 0) {
+            return history;
+        }
+        int slot;
+        if (offset <= size - 1 - offset) {
+            slot = head;
+            for (int position = 0; position < offset; position++) {
+                slot = next[slot];
+            }
+        } else {
+            slot = tail;
+            for (int position = size - 1; position > offset; position--) {
+                slot = prev[slot];
+            }
+        }
+        for (; history.size() < count; slot = next[slot]) {
+            history.add(tasks[slot]);
+        }
+        return history;
+    }
+
+    //Свободная ячейка: освобожденная, еще не выданная или ячейка самого давнего просмотра
+    private int allocate() {
+        if (size == tasks.length) {
+            int evicted = head;
+            deleteAt(indexOf(ids[evicted]));
+            release(evicted);
+        }
+        int slot;
+        if (freeSlot != NONE) {
+            slot = freeSlot;
+            freeSlot = next[slot];
+        } else {
+            slot = issued++;
+        }
+        size++;
+        return slot;
+    }
+
+    private void release(int slot) {
+        unlink(slot);
+        tasks[slot] = null;
+        next[slot] = freeSlot;
+        freeSlot = slot;
+        size--;
+    }
+
+    private void linkLast(int slot) {
+        prev[slot] = tail;
+        next[slot] = NONE;
+        if (tail != NONE) {
+            next[tail] = slot;
+        } else {
+            head = slot;
+        }
+        tail = slot;
+    }
+
+    private void unlink(int slot) {
+        int previous = prev[slot];
+        int following = next[slot];
+        if (previous != NONE) {
+            next[previous] = following;
+        } else {
+            head = following;
+        }
+        if (following != NONE) {
+            prev[following] = previous;
+        } else {
+            tail = previous;
+        }
+    }
+
+    private int hash(int id) {
+        int hash = id * 0x9E3779B9;
+        return (hash ^ (hash >>> 16)) & mask;
+    }
+
+    private int indexOf(int id) {
+        for (int index = hash(id); table[index] != NONE; index = (index + 1) & mask) {
+            if (ids[table[index]] == id) {
+                return index;
+            }
+        }
+        return NONE;
+    }
+
+    private void insert(int slot) {
+        int index = hash(ids[slot]);
+        while (table[index] != NONE) {
+            index = (index + 1) & mask;
+        }
+        table[index] = slot;
+    }
+
+    /*Удаление с обратным сдвигом: подтягиваем в дыру следующие записи цепочки, чьи домашние позиции
+    * не лежат между дырой и ними. Так поиск не натыкается на пустоту посреди цепочки и надгробия не нужны*/
+    private void deleteAt(int index) {
+        int hole = index;
+        for (int current = (index + 1) & mask; table[current] != NONE; current = (current + 1) & mask) {
+            int home = hash(ids[table[current]]);
+            if (((current - home) & mask) >= ((current - hole) & mask)) {
+                table[hole] = table[current];
+                hole = current;
+            }
+        }
+        table[hole] = NONE;
+    }
+}
@@ -0,0 +1,220 @@
+package ru.terralink.kanban.service;
+
+import ru.terralink.kanban.model.Subtask;
+import ru.terralink.kanban.model.Task;
+import ru.terralink.kanban.model.TaskSnapshot;
+import ru.terralink.kanban.model.TaskStatus;
+import ru.terralink.kanban.model.TaskType;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+
+/* Потокобезопасный менеджер задач для многопоточного HTTP-сервера.
+* Все чтения идут под общей блокировкой чтения и друг другу не мешают,
+* все мутации - под блокировкой записи. Поэтому id выделяются атомарно,
+* а эпик, его подзадачи, статус и даты всегда видны читателям в согласованном виде.
+* История пишется читателями, поэтому она защищена отдельно.
+* Асинхронная история держит фоновый поток, поэтому менеджер закрываемый: close() закрывает историю.
+* Списки сериализуют уже после того, как блокировка отпущена, а писатели меняют хранимые задачи и эпики на месте.
+* Поэтому под блокировкой чтения списки собираются из неизменяемых закэшированных снимков (get...Snapshots) -
+* без копирования задач. Списки задач - копирующий путь: копии тоже снимаются под блокировкой чтения */
+
+public class ConcurrentTaskManager extends InMemoryTaskManager implements AutoCloseable {
+    private final Lock readLock;
+    private final Lock writeLock;
+
+    public ConcurrentTaskManager() {
+        this(new SynchronizedHistoryManager(Managers.getDefaultHistory()));
+    }
+
+    protected ConcurrentTaskManager(HistoryManager historyManager) {
+        super(historyManager);
+        ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+        readLock = lock.readLock();
+        writeLock = lock.writeLock();
+    }
+
+    @Override
+    public List<Task> getTasksByType(TaskType type) {
+        return read(() -> super.getTasksByType(type));
+    }
+
+    @Override
+    public void close() {
+        if (historyManager instanceof AsyncHistoryManager asyncHistoryManager) {
+            asyncHistoryManager.close();
+        }
+    }
+
+    @Override
+    public List<Task> getTasksByType(TaskType type, TaskStatus status, int afterId, int limit) {
+        return read(() -> super.getTasksByType(type, status, afterId, limit));
+    }
+
+    @Override
+    public List<TaskSnapshot> getTaskSnapshotsByType(TaskType type) {
+        return read(() -> super.getTaskSnapshotsByType(type));
+    }
+
+    @Override
+    public List<TaskSnapshot> getTaskSnapshotsByType(TaskType type, TaskStatus status, int afterId, int limit) {
+        return read(() -> super.getTaskSnapshotsByType(type, status, afterId, limit));
+    }
+
+    @Override
+    public boolean removeTasksByType(TaskType type) {
+        return write(() -> super.removeTasksByType(type));
+    }
+
+    @Override
+    public Task getTaskByIdAndType(int id, TaskType type) {
+        return read(() -> super.getTaskByIdAndType(id, type));
+    }
+
+    @Override
+    public Task getTaskById(int id) {
+        return read(() -> super.getTaskById(id));
+    }
+
+    @Override
+    public TaskSnapshot getTaskSnapshotByIdAndType(int id, TaskType type) {
+        return read(() -> super.getTaskSnapshotByIdAndType(id, type));
+    }
+
+    @Override
+    public TaskSnapshot getTaskSnapshotById(int id) {
+        return read(() -> super.getTaskSnapshotById(id));
+    }
+
+    @Override
+    public int createTaskByType(Task task, TaskType type) {
+        return write(() -> super.createTaskByType(task, type));
+    }
+
+    @Override
+    public int createTask(Task task) {
+        return write(() -> super.createTask(task));
+    }
+
+    @Override
+    public int updateTaskByIdAndType(Task task, int id, TaskType type) {
+        return write(() -> super.updateTaskByIdAndType(task, id, type));
+    }
+
+    @Override
+    public int updateTaskById(Task task, int id) {
+        return write(() -> super.updateTaskById(task, id));
+    }
+
+    @Override
+    public int deleteTaskByIdAndType(int id, TaskType type) {
+        return write(() -> super.deleteTaskByIdAndType(id, type));
+    }
+
+    @Override
+    public int deleteTaskById(int id) {
+        return write(() -> super.deleteTaskById(id));
+    }
+
+    @Override
+    public int[] createTasks(List<Task> tasks) {
+        return write(() -> super.createTasks(tasks));
+    }
+
+    @Override
+    public int[] updateTasks(List<Task> tasks) {
+        return write(() -> super.updateTasks(tasks));
+    }
+
+    @Override
+    public int[] deleteTasks(int[] ids) {
+        return write(() -> super.deleteTasks(ids));
+    }
+
+    @Override
+    public int[] applyBatch(List<TaskOperation> operations) {
+        return write(() -> super.applyBatch(operations));
+    }
+
+    @Override
+    public List<Subtask> getSubtasksByEpic(int id) {
+        return read(() -> super.getSubtasksByEpic(id));
+    }
+
+    @Override
+    public List<TaskSnapshot> getSubtaskSnapshotsByEpic(int id) {
+        return read(() -> super.getSubtaskSnapshotsByEpic(id));
+    }
+
+    @Override
+    public List<Task> getHistory() {
+        return read(() -> super.getHistory());
+    }
+
+    @Override
+    public List<Task> getHistory(int offset, int limit) {
+        return read(() -> super.getHistory(offset, limit));
+    }
+
+    @Override
+    public List<TaskSnapshot> getHistorySnapshots(int offset, int limit) {
+        return read(() -> super.getHistorySnapshots(offset, limit));
+    }
+
+    @Override
+    public List<Task> getPrioritizedTasks() {
+        return read(() -> super.getPrioritizedTasks());
+    }
+
+    @Override
+    public List<Task> getPrioritizedTasks(LocalDateTime from, LocalDateTime to, TaskStatus status, int limit) {
+        return read(() -> super.getPrioritizedTasks(from, to, status, limit));
+    }
+
+    @Override
+    public List<TaskSnapshot> getPrioritizedTaskSnapshots(LocalDateTime from, LocalDateTime to, TaskStatus status, int limit) {
+        return read(() -> super.getPrioritizedTaskSnapshots(from, to, status, limit));
+    }
+
+    @Override
+    public List<Task> getConflictingTasks(Task task, int limit) {
+        return read(() -> super.getConflictingTasks(task, limit));
+    }
+
+    @Override
+    public LocalDateTime findFreeSlot(Duration duration, LocalDateTime notBefore, LocalDateTime notAfter) {
+        return read(() -> super.findFreeSlot(duration, notBefore, notAfter));
+    }
+
+    @Override
+    public List<LocalDateTime> findFreeSlots(Duration duration, LocalDateTime notBefore, LocalDateTime notAfter, int count) {
+        return read(() -> super.findFreeSlots(duration, notBefore, notAfter, count));
+    }
+
+    @Override
+    public boolean validateTaskDeadlines(Task task) {
+        return read(() -> super.validateTaskDeadlines(task));
+    }
+
+    private <T> T read(Supplier<T> action) {
+        readLock.lock();
+        try {
+            return action.get();
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    private <T> T write(Supplier<T> action) {
+        writeLock.lock();
+        try {
+            return action.get();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package ru.terralink.kanban.service;
+
+/* Политика сохранения для отложенной записи FileBackedTaskManager:
+* NONE - файл пишется только по явному flush(), при закрытии менеджера или при штатном завершении JVM;
+* если процесс упадет или будет убит, все несброшенные изменения пропадут;
+* INTERVAL - фоновый поток сбрасывает накопленные изменения одним снимком раз в интервал
+* или после N изменений, не дожидаясь записи на диск;
+* FSYNC_PER_BATCH - то же самое, но каждый снимок принудительно синхронизируется с диском */
+
+public enum DurabilityPolicy {
+    NONE,
+    INTERVAL,
+    FSYNC_PER_BATCH
+}
@@ -5,41 +5,144 @@ import ru.terralink.kanban.model.Epic;
 import ru.terralink.kanban.model.Subtask;
 import ru.terralink.kanban.model.Task;
 import ru.terralink.kanban.model.TaskType;
-import ru.terralink.kanban.util.TaskError;
+import ru.terralink.kanban.util.IntHashMap;
 import ru.terralink.kanban.util.TaskUtils;
 
 import java.io.File;
-import java.io.FileWriter;
 import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
 import java.nio.charset.StandardCharsets;
-import java.util.Arrays;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntFunction;
+import java.util.function.IntPredicate;
+import java.util.function.IntUnaryOperator;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+
+public class FileBackedTaskManager extends InMemoryTaskManager implements AutoCloseable {
+    private static final String TEMPORARY_FILE_SUFFIX = ".tmp";
 
-public class FileBackedTaskManager extends InMemoryTaskManager {
     private final File saveFile;
+    private final SnapshotFormat snapshotFormat;
+    private final TaskJournal journal; //null - журнал выключен и каждая мутация переписывает файл целиком
+    private final int journalCompactionThreshold;
+    private final DurabilityPolicy durabilityPolicy; //null - отложенная запись выключена
+    private final int maxPendingChanges;
+    private final long flushIntervalMillis;
+    private ScheduledExecutorService flusher; //запускается в writeBehind уже после конструктора
+    private Thread shutdownHook;
+    private int pendingChanges;
 
     public File getSaveFile() {
         return saveFile;
     }
 
+    public SnapshotFormat getSnapshotFormat() {
+        return snapshotFormat;
+    }
+
     public FileBackedTaskManager(File saveFile) {
+        this(saveFile, SnapshotFormat.CSV);
+    }
+
+    public FileBackedTaskManager(File saveFile, SnapshotFormat snapshotFormat) {
+        this(saveFile, snapshotFormat, null, 0, null, null, 0);
+    }
+
+    /*Режим журнала: мутации дописываются в файл рядом с сохранением,
+    * а снимок переписывается только после journalCompactionThreshold записей*/
+    public FileBackedTaskManager(File saveFile, int journalCompactionThreshold) {
+        this(saveFile, SnapshotFormat.CSV, journalCompactionThreshold);
+    }
+
+    //Записи журнала всегда в CSV, а снимок может быть в любом формате
+    public FileBackedTaskManager(File saveFile, SnapshotFormat snapshotFormat, int journalCompactionThreshold) {
+        this(saveFile, snapshotFormat, new TaskJournal(TaskJournal.journalFileFor(saveFile)), journalCompactionThreshold, null, null, 0);
+        if (journalCompactionThreshold < 1) {
+            throw new IllegalArgumentException("Порог компактирования журнала должен быть положительным");
+        }
+    }
+
+    private FileBackedTaskManager(File saveFile, DurabilityPolicy durabilityPolicy, Duration flushInterval, int maxPendingChanges) {
+        this(saveFile, SnapshotFormat.CSV, null, 0, durabilityPolicy, flushInterval, maxPendingChanges);
+        if (durabilityPolicy == null) {
+            throw new IllegalArgumentException("Не задана политика сохранения");
+        }
+    }
+
+    /*Режим отложенной записи: мутации только помечают менеджер грязным,
+    * а фоновый поток сворачивает их в один снимок раз в flushInterval или после maxPendingChanges изменений.
+    * Поток и сброс при завершении JVM запускаем уже после конструктора, чтобы они не увидели недостроенный менеджер*/
+    public static FileBackedTaskManager writeBehind(File saveFile, DurabilityPolicy durabilityPolicy,
+                                                    Duration flushInterval, int maxPendingChanges) {
+        FileBackedTaskManager fileBackedTaskManager = new FileBackedTaskManager(saveFile, durabilityPolicy, flushInterval, maxPendingChanges);
+        fileBackedTaskManager.startWriteBehind();
+        return fileBackedTaskManager;
+    }
+
+    private FileBackedTaskManager(File saveFile, SnapshotFormat snapshotFormat, TaskJournal journal, int journalCompactionThreshold,
+                                  DurabilityPolicy durabilityPolicy, Duration flushInterval, int maxPendingChanges) {
         super();
         this.saveFile = saveFile;
+        this.snapshotFormat = snapshotFormat;
+        this.journal = journal;
+        this.journalCompactionThreshold = journalCompactionThreshold;
+        this.durabilityPolicy = durabilityPolicy;
+        this.maxPendingChanges = maxPendingChanges;
+
+        if (durabilityPolicy != null && durabilityPolicy != DurabilityPolicy.NONE) {
+            if (flushInterval == null || flushInterval.isNegative() || flushInterval.isZero() || maxPendingChanges < 1) {
+                throw new IllegalArgumentException("Интервал сброса и порог изменений должны быть положительными");
+            }
+            this.flushIntervalMillis = flushInterval.toMillis();
+        } else {
+            this.flushIntervalMillis = 0;
+        }
+    }
+
+    /*Накопленные изменения сбрасываем и при завершении JVM, иначе с политикой NONE
+    * все, что не было сброшено явным flush() или close(), молча теряется*/
+    private void startWriteBehind() {
+        if (durabilityPolicy != DurabilityPolicy.NONE) {
+            flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "file-backed-task-manager-flusher");
+                thread.setDaemon(true);
+                return thread;
+            });
+            flusher.scheduleWithFixedDelay(this::flushInBackground, flushIntervalMillis, flushIntervalMillis, TimeUnit.MILLISECONDS);
+        }
+        shutdownHook = new Thread(this::flushInBackground, "file-backed-task-manager-shutdown");
+        Runtime.getRuntime().addShutdownHook(shutdownHook);
     }
 
     @Override
-    public boolean removeTasksByType(TaskType type) {
+    public synchronized boolean removeTasksByType(TaskType type) {
         boolean result = super.removeTasksByType(type);
         if (result) {
-            save();
+            persist(() -> TaskJournal.REMOVE_TYPE_RECORD + "," + type);
         }
         return result;
     }
 
     @Override
-    public int createTaskByType(Task task, TaskType type) {
+    public synchronized int createTaskByType(Task task, TaskType type) {
         int id = super.createTaskByType(task, type);
         if (id > -1) {
-            save();
+            persist(() -> TaskJournal.PUT_RECORD + "," + TaskUtils.toString(taskStorage.get(type).get(id)));
         }
         return id;
     }
@@ -50,10 +153,10 @@ public class FileBackedTaskManager extends InMemoryTaskManager {
     }
 
     @Override
-    public int updateTaskByIdAndType(Task task, int id, TaskType type) {
+    public synchronized int updateTaskByIdAndType(Task task, int id, TaskType type) {
         int result = super.updateTaskByIdAndType(task, id, type);
         if (result >= 0) {
-            save();
+            persist(() -> TaskJournal.PUT_RECORD + "," + TaskUtils.toString(taskStorage.get(type).get(id)));
         }
         return result;
     }
@@ -65,27 +168,90 @@ public class FileBackedTaskManager extends InMemoryTaskManager {
 
 
     @Override
-    public int deleteTaskByIdAndType(int id, TaskType type) {
+    public synchronized int deleteTaskByIdAndType(int id, TaskType type) {
         int result = super.deleteTaskByIdAndType(id, type);
         if (result >= 0) {
-            save();
+            persist(() -> TaskJournal.DELETE_RECORD + "," + type + "," + id);
         }
         return result;
     }
 
     @Override
-    public int deleteTaskById(int id) {
-        return Arrays.stream(TaskType.values())
-                .filter(type -> deleteTaskByIdAndType(id, type) >= 0)
-                .findAny()
-                .isPresent() ? 0 : TaskUtils.ERROR_CODES.get(TaskError.UNKNOWN);
+    public synchronized int deleteTaskById(int id) {
+        return super.deleteTaskById(id);
+    }
+
+    /*Пачка сохраняется один раз: один снимок, одна порция журнала или одна прибавка к отложенным изменениям*/
+
+    @Override
+    public synchronized int[] createTasks(List<Task> tasks) {
+        int[] results = super.createTasks(tasks);
+        persistAll(results, i -> results[i] > -1, i -> TaskJournal.PUT_RECORD + "," + TaskUtils.toString(findTask(results[i])));
+        return results;
+    }
+
+    @Override
+    public synchronized int[] updateTasks(List<Task> tasks) {
+        int[] results = super.updateTasks(tasks);
+        persistAll(results, i -> results[i] >= 0, i -> TaskJournal.PUT_RECORD + "," + TaskUtils.toString(findTask(tasks.get(i).getId())));
+        return results;
+    }
+
+    @Override
+    public synchronized int[] deleteTasks(int[] ids) {
+        //тип для записи журнала узнаем до удаления
+        TaskType[] types = new TaskType[ids.length];
+        for (int i = 0; i < ids.length; i++) {
+            Task task = findTask(ids[i]);
+            types[i] = task == null ? null : task.getType();
+        }
+        int[] results = super.deleteTasks(ids);
+        persistAll(results, i -> results[i] >= 0, i -> TaskJournal.DELETE_RECORD + "," + types[i] + "," + ids[i]);
+        return results;
+    }
+
+    /*Смешанный пакет тоже сохраняется один раз. Запись журнала о создании или обновлении - итоговое состояние
+    * задачи, а если пакет ее потом удалил, хватит записи об удалении. Тип удаляемой задачи узнаем до пакета,
+    * а у задачи, созданной в этом же пакете, - по ее операции создания*/
+    @Override
+    public synchronized int[] applyBatch(List<TaskOperation> operations) {
+        TaskType[] types = new TaskType[operations.size()];
+        for (int i = 0; i < operations.size(); i++) {
+            if (operations.get(i).kind() == TaskOperation.Kind.DELETE) {
+                Task task = findTask(operations.get(i).id());
+                types[i] = task == null ? null : task.getType();
+            }
+        }
+        int[] results = super.applyBatch(operations);
+
+        IntHashMap<TaskType> createdTypes = new IntHashMap<>();
+        for (int i = 0; i < operations.size(); i++) {
+            if (operations.get(i).kind() == TaskOperation.Kind.CREATE && results[i] >= 0) {
+                createdTypes.put(results[i], operations.get(i).task().getType());
+            }
+        }
+        IntUnaryOperator affectedId = i -> operations.get(i).kind() == TaskOperation.Kind.CREATE ? results[i] : operations.get(i).id();
+        persistAll(results,
+                i -> results[i] >= 0 && (operations.get(i).kind() == TaskOperation.Kind.DELETE || findTask(affectedId.applyAsInt(i)) != null),
+                i -> {
+                    int id = affectedId.applyAsInt(i);
+                    if (operations.get(i).kind() != TaskOperation.Kind.DELETE) {
+                        return TaskJournal.PUT_RECORD + "," + TaskUtils.toString(findTask(id));
+                    }
+                    TaskType type = types[i] != null ? types[i] : createdTypes.get(id);
+                    return TaskJournal.DELETE_RECORD + "," + type + "," + id;
+                });
+        return results;
     }
 
     public void addParsedTask(Task task) {
         if (task.getId() > super.idCounter) {
             super.idCounter = task.getId();
         }
-        taskStorage.get(task.getType()).put(task.getId(), task);
+        storeTask(task);
+        if (task.getType() != TaskType.EPIC) {
+            intervalIndex.put(task);
+        }
         if (task.getType() == TaskType.SUBTASK) {
             Subtask subtask = (Subtask) task;
             Epic epic = (Epic) taskStorage.get(TaskType.EPIC).get(subtask.getEpicId());
@@ -95,32 +261,283 @@ public class FileBackedTaskManager extends InMemoryTaskManager {
         }
     }
 
-    public void save() {
-        try (FileWriter fileWriter = new FileWriter(this.saveFile, StandardCharsets.UTF_8)) {
-            fileWriter.write(TaskUtils.TEXT_FILE_HEADER);
-            fileWriter.write(System.lineSeparator());
+    /*Вторая фаза массовой загрузки: задачи уже разобраны, остается разложить их по хранилищам.
+    * Хранилища и индекс по id заводим сразу нужного размера, подзадачи группируем по эпикам
+    * и пересчитываем каждый эпик один раз, а интервальное дерево строим целиком из отсортированных задач.
+    * В отличие от addParsedTask подзадача найдет свой эпик, даже если он записан в файле после нее*/
+    public void addParsedTasks(List<Task> tasks) {
+        int maxId = idCounter;
+        Map<TaskType, Integer> counts = new EnumMap<>(TaskType.class);
+        for (Task task : tasks) {
+            maxId = Math.max(maxId, task.getId());
+            counts.merge(task.getType(), 1, Integer::sum);
+        }
+        idCounter = maxId;
+        counts.forEach((type, count) -> {
+            if (taskStorage.get(type).isEmpty()) {
+                taskStorage.put(type, new IntHashMap<>(count));
+            }
+        });
+        reserveIndex(maxId, tasks.size());
+        storeTasks(tasks);
+        List<Task> timedTasks = new ArrayList<>(tasks.size());
+        for (Task task : tasks) {
+            if (task.getType() != TaskType.EPIC) {
+                timedTasks.add(task);
+            }
+        }
+
+        IntHashMap<List<Subtask>> subtasksByEpic = new IntHashMap<>();
+        for (Task task : taskStorage.get(TaskType.SUBTASK).values()) {
+            Subtask subtask = (Subtask) task;
+            if (taskStorage.get(TaskType.EPIC).containsKey(subtask.getEpicId())) {
+                subtasksByEpic.computeIfAbsent(subtask.getEpicId(), epicId -> new ArrayList<>()).add(subtask);
+            }
+        }
+        subtasksByEpic.forEach((epicId, subtasks) -> ((Epic) taskStorage.get(TaskType.EPIC).get(epicId)).addSubtasks(subtasks));
+
+        intervalIndex.putAll(timedTasks);
+    }
+
+    /*Проигрываем журнал поверх уже загруженного снимка. Записи идемпотентны,
+    * поэтому журнал, не успевший обнулиться после компактирования, ничего не ломает.
+    * Запись, которую не успели дописать до сбоя, пропускаем, а свой журнал обрезаем по ней,
+    * чтобы следующая запись не склеилась с обрывком. Испорченная целая запись - по-прежнему ошибка*/
+    public void replayJournal(File journalFile) throws IOException {
+        long complete = TaskJournal.readRecords(journalFile, record -> {
+            if (record.isBlank()) {
+                return;
+            }
+            try {
+                applyJournalRecord(record);
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException(String.format("Ошибка в записи журнала '%s': %s", record, e.getMessage()));
+            }
+        });
+        if (complete < journalFile.length() && journal != null && journal.getJournalFile().equals(journalFile)) {
+            journal.truncateTo(complete);
+        }
+    }
+
+    private void applyJournalRecord(String record) {
+        if (record.length() < 3 || record.charAt(1) != ',') {
+            throw new IllegalArgumentException("Неизвестный формат записи");
+        }
+
+        String payload = record.substring(2);
+        switch (record.charAt(0)) {
+            case TaskJournal.PUT_RECORD -> applyParsedTask(TaskUtils.fromString(payload));
+            case TaskJournal.DELETE_RECORD -> {
+                String[] elements = payload.split(",");
+                if (elements.length != 2) {
+                    throw new IllegalArgumentException("Неверное количество элементов в записи удаления");
+                }
+                try {
+                    super.deleteTaskByIdAndType(Integer.parseInt(elements[1]), parseJournalType(elements[0]));
+                } catch (NumberFormatException e) {
+                    throw new IllegalArgumentException("Не удалось прочитать id объекта");
+                }
+            }
+            case TaskJournal.REMOVE_TYPE_RECORD -> super.removeTasksByType(parseJournalType(payload));
+            default -> throw new IllegalArgumentException("Неизвестный тип записи");
+        }
+    }
+
+    private TaskType parseJournalType(String type) {
+        Optional<TaskType> taskType = TaskType.parseTaskType(type);
+        if (!taskType.isPresent()) {
+            throw new IllegalArgumentException("Невалидный тип объекта");
+        }
+        return taskType.get();
+    }
 
-            this.taskStorage.get(TaskType.TASK).values().stream()
-                    .forEach(task -> writeTaskToFile(fileWriter, task));
+    //Запись журнала - это актуальное состояние задачи, поэтому старую версию просто заменяем
+    private void applyParsedTask(Task task) {
+        Task original = taskStorage.get(task.getType()).get(task.getId());
+        if (original == null) {
+            addParsedTask(task);
+        } else if (task.getType() == TaskType.EPIC) {
+            original.setName(task.getName());
+            original.setDescription(task.getDescription());
+        } else {
+            super.deleteTaskByIdAndType(task.getId(), task.getType());
+            addParsedTask(task);
+        }
+    }
 
-            //эпики обязательно должны быть записаны до подзадач, иначе потом будут проблемы с чтением
-            this.taskStorage.get(TaskType.EPIC).values().stream()
-                    .forEach(task -> writeTaskToFile(fileWriter, task));
+    public boolean isJournaling() {
+        return journal != null;
+    }
 
-            this.taskStorage.get(TaskType.SUBTASK).values().stream()
-                    .forEach(task -> writeTaskToFile(fileWriter, task));
+    /*Сворачиваем журнал в снимок: пишем полный CSV и обнуляем журнал*/
+    public synchronized void compact() {
+        save();
+        if (journal != null) {
+            journal.truncate();
+        }
+    }
+
+    private void persist(Supplier<String> journalRecord) {
+        persist(1, () -> List.of(journalRecord.get()));
+    }
+
+    private void persistAll(int[] results, IntPredicate succeeded, IntFunction<String> journalRecord) {
+        int changes = (int) IntStream.range(0, results.length).filter(succeeded).count();
+        persist(changes, () -> IntStream.range(0, results.length).filter(succeeded).mapToObj(journalRecord).toList());
+    }
+
+    private void persist(int changes, Supplier<List<String>> journalRecords) {
+        if (changes == 0) {
+            return;
+        }
 
+        if (durabilityPolicy != null) {
+            //сам снимок запишет фоновый поток, а тут только копим изменения
+            int previousChanges = pendingChanges;
+            pendingChanges += changes;
+            if (flusher != null && previousChanges < maxPendingChanges && pendingChanges >= maxPendingChanges) {
+                flusher.execute(this::flushInBackground);
+            }
+            return;
+        }
+
+        if (journal == null) {
+            save();
+            return;
+        }
+
+        journal.appendAll(journalRecords.get());
+        if (journal.size() >= journalCompactionThreshold) {
+            compact();
+        }
+    }
+
+    /*Принудительно сбрасываем накопленные отложенной записью изменения в файл.
+    * В остальных режимах все уже сохранено, так что делать нечего*/
+    public synchronized void flush() {
+        if (pendingChanges == 0) {
+            return;
+        }
+        writeSnapshot(durabilityPolicy == DurabilityPolicy.FSYNC_PER_BATCH);
+        pendingChanges = 0;
+    }
+
+    public synchronized int getPendingChanges() {
+        return pendingChanges;
+    }
+
+    private void flushInBackground() {
+        try {
+            flush();
+        } catch (ManagerSaveException e) {
+            //изменения остаются помеченными, следующий сброс попробует еще раз
+        }
+    }
+
+    @Override
+    public void close() {
+        if (shutdownHook != null) {
+            try {
+                Runtime.getRuntime().removeShutdownHook(shutdownHook);
+            } catch (IllegalStateException e) {
+                //JVM уже завершается, хук сбросит изменения сам
+            }
+            shutdownHook = null;
+        }
+        if (flusher != null) {
+            flusher.shutdown();
+            try {
+                flusher.awaitTermination(1, TimeUnit.MINUTES);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        flush();
+        if (journal != null) {
+            journal.close();
+        }
+    }
+
+    public synchronized void save() {
+        writeSnapshot(true);
+    }
+
+    /*Снимок пишем во временный файл рядом с файлом сохранения и только потом атомарно переименовываем его
+    * поверх старого. Падение посреди записи оставляет прежний снимок целым, а недописанный временный файл
+    * перезапишется при следующем сохранении. Само переименование - это запись в каталог, поэтому с forceToDisk
+    * после него синхронизируем и каталог, иначе после отключения питания может вернуться старый снимок.
+    * Без forceToDisk (отложенная запись без fsync) переименование по-прежнему защищает от падения процесса,
+    * но не от отключения питания*/
+    private void writeSnapshot(boolean forceToDisk) {
+        Path target = this.saveFile.toPath();
+        Path temporary = target.resolveSibling(target.getFileName() + TEMPORARY_FILE_SUFFIX);
+        try {
+            try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.WRITE,
+                    StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                writeTasks(snapshotFormat.createWriter(openSnapshotChannel(channel)));
+                if (forceToDisk) {
+                    channel.force(true);
+                }
+            }
+            try {
+                Files.move(temporary, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+            if (forceToDisk) {
+                forceDirectory(target.toAbsolutePath().getParent());
+            }
         } catch (IOException | RuntimeException e) {
+            try {
+                Files.deleteIfExists(temporary);
+            } catch (IOException ignored) {
+                //не получилось убрать - перезапишем при следующем сохранении
+            }
             throw new ManagerSaveException("Не удалось сохранить в файл: " + e.getMessage());
         }
     }
 
-    private void writeTaskToFile(FileWriter writer, Task task) {
+    //Не на всех платформах каталог можно открыть как канал (например, в Windows) - там просто полагаемся на ФС
+    private static void forceDirectory(Path directory) {
+        if (directory == null) {
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException | UnsupportedOperationException e) {
+            //синхронизация каталога не поддерживается
+        }
+    }
+
+    /*Канал, в который пишется снимок. Наследники могут подменить его, например чтобы оборвать запись посреди файла*/
+    protected WritableByteChannel openSnapshotChannel(FileChannel channel) {
+        return channel;
+    }
+
+    private void writeTasks(TaskSnapshotWriter writer) throws IOException {
+        writer.writeHeader();
+
+        writeTasksToFile(writer, TaskType.TASK);
+        //эпики обязательно должны быть записаны до подзадач, иначе потом будут проблемы с чтением
+        writeTasksToFile(writer, TaskType.EPIC);
+        writeTasksToFile(writer, TaskType.SUBTASK);
+
+        writer.finish();
+    }
+
+    /*Отображаемый снимок для отчетов и аналитики пишем из тех же хранилищ и в том же порядке, что и save()*/
+    public synchronized void exportMappedSnapshot(File snapshotFile) {
         try {
-            writer.write(TaskUtils.toString(task));
-            writer.write(System.lineSeparator());
-        } catch (IOException e) {
-            throw new RuntimeException(e);
+            MappedTaskSnapshot.write(snapshotFile, taskStorage.get(TaskType.TASK).values(),
+                    taskStorage.get(TaskType.EPIC).values(), taskStorage.get(TaskType.SUBTASK).values());
+        } catch (IOException | RuntimeException e) {
+            throw new ManagerSaveException("Не удалось сохранить в файл: " + e.getMessage());
+        }
+    }
+
+    private void writeTasksToFile(TaskSnapshotWriter writer, TaskType type) throws IOException {
+        for (Task task : this.taskStorage.get(type).values()) {
+            writer.write(task);
         }
     }
 }
@@ -11,4 +11,7 @@ public interface HistoryManager {
     void remove(int id);
 
     List<Task> getHistory();
+
+    //Отрезок истории: не больше limit просмотров, начиная с offset-го. Обходится только сам отрезок
+    List<Task> getHistory(int offset, int limit);
 }
@@ -1,17 +1,18 @@
 package ru.terralink.kanban.service;
 
 import ru.terralink.kanban.model.Task;
+import ru.terralink.kanban.util.IntHashMap;
 import ru.terralink.kanban.util.Node;
 
 import java.util.*;
 
 public class InMemoryHistoryManager implements HistoryManager {
     private final PatheticLinkedList<Task> taskHistory;
-    private final Map<Integer,Node<Task>> taskHash;
+    private final IntHashMap<Node<Task>> taskHash;
 
     public InMemoryHistoryManager() {
         taskHistory = new PatheticLinkedList<>();
-        taskHash = new HashMap<>();
+        taskHash = new IntHashMap<>();
     }
 
     @Override
@@ -31,6 +32,14 @@ public class InMemoryHistoryManager implements HistoryManager {
         return taskHistory.getItems();
     }
 
+    @Override
+    public List<Task> getHistory(int offset, int limit) {
+        if (offset < 0) {
+            throw new IllegalArgumentException("Смещение в истории не может быть отрицательным");
+        }
+        return taskHistory.getItems(offset, Math.max(Math.min(limit, taskHash.size() - offset), 0), taskHash.size());
+    }
+
     private void removeNode(Node<Task> node) {
         if (node == null) {
             return;
@@ -80,5 +89,30 @@ public class InMemoryHistoryManager implements HistoryManager {
             }
             return items;
         }
+
+        //count элементов с offset-го. К началу отрезка идем с ближайшего конца списка, дальше - только по отрезку
+        public List<E> getItems(int offset, int count, int size) {
+            List<E> items = new ArrayList<>(count);
+            if (count == 0) {
+                return items;
+            }
+            Node<E> currentNode;
+            if (offset <= size - 1 - offset) {
+                currentNode = first;
+                for (int i = 0; i < offset; i++) {
+                    currentNode = currentNode.getNext();
+                }
+            } else {
+                currentNode = last;
+                for (int i = size - 1; i > offset; i--) {
+                    currentNode = currentNode.getPrev();
+                }
+            }
+            while (items.size() < count) {
+                items.add(currentNode.getItem());
+                currentNode = currentNode.getNext();
+            }
+            return items;
+        }
     }
 }
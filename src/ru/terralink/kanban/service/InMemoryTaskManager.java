@@ -3,35 +3,118 @@ package ru.terralink.kanban.service;
 import ru.terralink.kanban.model.Epic;
 import ru.terralink.kanban.model.Subtask;
 import ru.terralink.kanban.model.Task;
+import ru.terralink.kanban.model.TaskSnapshot;
+import ru.terralink.kanban.model.TaskStatus;
 import ru.terralink.kanban.model.TaskType;
+import ru.terralink.kanban.util.IntHashMap;
+import ru.terralink.kanban.util.IntSortedSet;
 import ru.terralink.kanban.util.TaskError;
+import ru.terralink.kanban.util.TaskIntervalTree;
 import ru.terralink.kanban.util.TaskUtils;
 
+import java.time.Duration;
+import java.time.LocalDateTime;
 import java.util.*;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.function.IntUnaryOperator;
 
 public class InMemoryTaskManager implements TaskManager {
+    private static final int INITIAL_INDEX_CAPACITY = 16;
+    private static final int DENSE_INDEX_SLACK = 1024; //на сколько плотный индекс может обгонять удвоенное число задач
+    private static final int INITIAL_PAGE_CAPACITY = 64;
 
     protected int idCounter = 0; //id задачи уникален между всеми существующими задачами независимо от типа
-    protected final Map<TaskType, Map<Integer, Task>> taskStorage;
+    protected final Map<TaskType, IntHashMap<Task>> taskStorage;
+    /*Индекс всех задач по id. id выдаются подряд, поэтому почти всегда хватает плотного массива.
+    * Но id из файла бывают отрицательными или огромными: массив растет, только пока остается плотным,
+    * а все остальные id лежат в разреженной хэш-таблице*/
+    protected Task[] tasksById;
+    private final IntHashMap<Task> sparseTasksById = new IntHashMap<>();
+    private final Map<TaskType, IntSortedSet> idsByType; //id задач каждого типа по возрастанию - для страниц с курсора
     protected final HistoryManager historyManager;
-    protected final TreeSet<Task> prioritizedTasks;
+    //индекс сроков в порядке (startTime, id): и проверка пересечений за логарифм, и приоритетный список
+    protected final TaskIntervalTree intervalIndex;
+    private EpicChanges epicChanges; //отложенные изменения подзадач эпиков, пока идет пакетная операция
 
     public InMemoryTaskManager() {
-        taskStorage = new HashMap<>();
+        this(Managers.getDefaultHistory());
+    }
+
+    protected InMemoryTaskManager(HistoryManager historyManager) {
+        taskStorage = new EnumMap<>(TaskType.class);
+        Arrays.stream(TaskType.values())
+                .forEach(type -> taskStorage.put(type, new IntHashMap<>()));
+        idsByType = new EnumMap<>(TaskType.class);
         Arrays.stream(TaskType.values())
-                .forEach(type -> taskStorage.put(type, new HashMap<>()));
+                .forEach(type -> idsByType.put(type, new IntSortedSet()));
 
-       historyManager = Managers.getDefaultHistory();
-       prioritizedTasks = new TreeSet<>(Comparator.comparing(Task::getStartTime));
+       tasksById = new Task[INITIAL_INDEX_CAPACITY];
+       this.historyManager = historyManager;
+       intervalIndex = new TaskIntervalTree();
     }
 
-    //Вернем список с целевым типом задачи
+    /*Вернем список с целевым типом задачи.
+    * Списки задач, как и getTaskById, - копирующий путь: хранимые задачи меняются на месте,
+    * поэтому наружу уходят их копии. Для чтения без копирования есть списки снимков get...Snapshots*/
 
     @Override
     public List<Task> getTasksByType(TaskType type) {
-        return new ArrayList<>(taskStorage.get(type).values());
+        return copies(taskStorage.get(type).values());
+    }
+
+    /*Страница задач типа в порядке id: задачи с id больше afterId, не больше limit штук,
+    * при заданном status - только с этим статусом. Место курсора находим двоичным поиском
+    * в упорядоченных id этого типа и обходим только их, поэтому ни весь список, ни чужие типы не трогаем.
+    * Отрицательные id тоже попадают на страницу*/
+
+    @Override
+    public List<Task> getTasksByType(TaskType type, TaskStatus status, int afterId, int limit) {
+        return copies(page(type, status, afterId, limit));
+    }
+
+    /*Те же списки для чтения, только из неизменяемых снимков задач. Снимки закэшированы в самих задачах,
+    * поэтому список собирается без копирования задач и его можно отдавать после того, как менеджер отпущен*/
+
+    @Override
+    public List<TaskSnapshot> getTaskSnapshotsByType(TaskType type) {
+        return snapshots(taskStorage.get(type).values());
+    }
+
+    @Override
+    public List<TaskSnapshot> getTaskSnapshotsByType(TaskType type, TaskStatus status, int afterId, int limit) {
+        return snapshots(page(type, status, afterId, limit));
+    }
+
+    private List<Task> page(TaskType type, TaskStatus status, int afterId, int limit) {
+        List<Task> page = new ArrayList<>(Math.max(Math.min(limit, INITIAL_PAGE_CAPACITY), 0));
+        if (limit <= 0) {
+            return page;
+        }
+        IntHashMap<Task> tasks = taskStorage.get(type);
+        idsByType.get(type).forEachAfter(afterId, id -> {
+            Task task = tasks.get(id);
+            if (status == null || task.getStatus() == status) {
+                page.add(task);
+            }
+            return page.size() < limit;
+        });
+        return page;
+    }
+
+    private static List<Task> copies(Collection<? extends Task> tasks) {
+        List<Task> copies = new ArrayList<>(tasks.size());
+        for (Task task : tasks) {
+            copies.add((Task) task.clone());
+        }
+        return copies;
+    }
+
+    private static List<TaskSnapshot> snapshots(Collection<? extends Task> tasks) {
+        List<TaskSnapshot> snapshots = new ArrayList<>(tasks.size());
+        for (Task task : tasks) {
+            snapshots.add(task.snapshot());
+        }
+        return snapshots;
     }
 
     /*Полностью очистим хэш-мапу с целевым типом задачи.
@@ -41,10 +124,13 @@ public class InMemoryTaskManager implements TaskManager {
 
     @Override
     public boolean removeTasksByType(TaskType type) {
-        Map<Integer, Task> tasks = taskStorage.get(type);
+        IntHashMap<Task> tasks = taskStorage.get(type);
         if (type == TaskType.EPIC) {
             //Если очистили все эпики, то все подзадачи тоже удалились.
+            intervalIndex.removeIf(task -> task.getType() == TaskType.SUBTASK);
+            taskStorage.get(TaskType.SUBTASK).keySet().forEach(this::unindexTask);
             taskStorage.get(TaskType.SUBTASK).clear();
+            idsByType.get(TaskType.SUBTASK).clear();
         } else if (type == TaskType.SUBTASK) {
             //Если очистили все подзадачи, то все эпики тоже опустели. Очистим в них ссылки на подзадачи
             taskStorage.get(TaskType.EPIC).values().stream()
@@ -52,12 +138,19 @@ public class InMemoryTaskManager implements TaskManager {
                     .forEach(Epic::clearSubtasks);
         }
 
+        if (type != TaskType.EPIC) {
+            intervalIndex.removeIf(task -> task.getType() == type);
+        }
+        tasks.keySet().forEach(this::unindexTask);
         tasks.clear();
+        idsByType.get(type).clear();
         return true;
     }
 
     /*Дадим возможность фронту запросить задачу по ее id и типу,
-    * чтобы сократить время поиска по трем коллекциям */
+    * чтобы сократить время поиска по трем коллекциям.
+    * Это копирующий путь: отдаем изменяемую копию (у эпика - вместе с копиями подзадач).
+    * Кому задача нужна только для чтения, тот берет закэшированный снимок через getTaskSnapshot...*/
 
     @Override
     public Task getTaskByIdAndType(int id, TaskType type) {
@@ -75,18 +168,116 @@ public class InMemoryTaskManager implements TaskManager {
 
     @Override
     public Task getTaskById(int id) {
-        Optional<Task> taskOptional = Arrays.stream(TaskType.values())
-                .map(type -> getTaskByIdAndType(id, type))
-                .filter(task -> task != null)
-                .findAny();
+        Task task = findTask(id);
+        if (task != null) {
+            historyManager.add(task);
+            return (Task) task.clone();
+        }
+        return null;
+    }
+
+    /*Для чтения без копирования отдаем неизменяемый снимок задачи.
+    * Он кэшируется в самой задаче до ее следующего изменения, поэтому повторные чтения ничего не выделяют*/
 
-        if (taskOptional.isPresent()) {
-            return (Task) taskOptional.get().clone();
+    @Override
+    public TaskSnapshot getTaskSnapshotByIdAndType(int id, TaskType type) {
+        Task task = taskStorage.get(type).get(id);
+        if (task != null) {
+            historyManager.add(task);
+            return task.snapshot();
         }
+        return null;
+    }
 
+    @Override
+    public TaskSnapshot getTaskSnapshotById(int id) {
+        Task task = findTask(id);
+        if (task != null) {
+            historyManager.add(task);
+            return task.snapshot();
+        }
         return null;
     }
 
+    /*Поиск по id без типа - одно обращение к индексу по id, а не перебор коллекций всех типов*/
+
+    protected Task findTask(int id) {
+        Task task = id >= 0 && id < tasksById.length ? tasksById[id] : null;
+        return task != null || sparseTasksById.isEmpty() ? task : sparseTasksById.get(id);
+    }
+
+    //Заранее растим плотный индекс под id до maxId, если при expectedTasks задачах он останется плотным
+    protected void reserveIndex(int maxId, int expectedTasks) {
+        if (maxId >= tasksById.length && staysDense(maxId, expectedTasks)) {
+            tasksById = Arrays.copyOf(tasksById, maxId + 1);
+        }
+    }
+
+    private static boolean staysDense(int id, int taskCount) {
+        return id < 2L * taskCount + DENSE_INDEX_SLACK;
+    }
+
+    private int taskCount() {
+        return taskStorage.values().stream().mapToInt(Map::size).sum();
+    }
+
+    //Задачи кладем и убираем только через эти методы, чтобы коллекции по типам и индексы по id не разошлись
+    protected void storeTask(Task task) {
+        if (putTask(task)) {
+            idsByType.get(task.getType()).add(task.getId());
+        }
+    }
+
+    //Массовая раскладка при загрузке: новые id каждого типа вливаем в упорядоченный индекс одним слиянием
+    protected void storeTasks(List<? extends Task> tasks) {
+        List<Task> added = new ArrayList<>(tasks.size());
+        for (Task task : tasks) {
+            if (putTask(task)) {
+                added.add(task);
+            }
+        }
+        idsByType.forEach((type, ids) -> ids.addAll(added.stream()
+                .filter(task -> task.getType() == type)
+                .mapToInt(Task::getId)
+                .toArray()));
+    }
+
+    //true, если задачи с таким id и типом еще не было
+    private boolean putTask(Task task) {
+        int id = task.getId();
+        boolean added = taskStorage.get(task.getType()).put(id, task) == null;
+        if (id >= tasksById.length && id >= 0 && staysDense(id, taskCount())) {
+            tasksById = Arrays.copyOf(tasksById, (int) Math.min(Math.max(id + 1L, tasksById.length * 2L), Integer.MAX_VALUE - 8));
+        }
+        if (id >= 0 && id < tasksById.length) {
+            tasksById[id] = task;
+            if (!sparseTasksById.isEmpty()) {
+                sparseTasksById.remove(id);
+            }
+        } else {
+            sparseTasksById.put(id, task);
+        }
+        return added;
+    }
+
+    protected Task unstoreTask(TaskType type, int id) {
+        Task task = taskStorage.get(type).remove(id);
+        if (task != null) {
+            unindexTask(id);
+            idsByType.get(type).remove(id);
+        }
+        return task;
+    }
+
+    private void unindexTask(int id) {
+        if (id >= 0 && id < tasksById.length) {
+            tasksById[id] = null;
+        }
+        if (!sparseTasksById.isEmpty()) {
+            sparseTasksById.remove(id);
+        }
+    }
+
     /*Аналогичная история. Даем фронту создать задачу с указанием типа.
     * Если такой id уже есть, то "СОЗДАТЬ" мы его не можем
     * (с точки зрения бизнес-логики - это уже будет обновление)
@@ -94,14 +285,17 @@ public class InMemoryTaskManager implements TaskManager {
 
     @Override
     public int createTaskByType(Task task, TaskType type) {
-        Map<Integer, Task> tasks = taskStorage.get(type);
+        return create(task, type);
+    }
+
+    private int create(Task task, TaskType type) {
         switch (type) {
             case EPIC -> {
                 //Доверимся фронту и посчитаем, что эпик создается перед созданием подзадач
                 //и следовательно список его подзадач пуст (ничего каскадно создавать не надо)
                 Epic epic = (Epic) task;
                 epic.setId(++idCounter);
-                tasks.put(epic.getId(), (Epic) epic.clone());
+                storeTask((Epic) epic.clone());
 
                 return idCounter;
             }
@@ -111,10 +305,8 @@ public class InMemoryTaskManager implements TaskManager {
                 if (!validateTaskDeadlines(clone)) {
                     return TaskUtils.ERROR_CODES.get(TaskError.INTERSECT);
                 }
-                tasks.put(clone.getId(), clone);
-                if (clone.getStartTime() != null) {
-                    prioritizedTasks.add(clone);
-                }
+                storeTask(clone);
+                intervalIndex.put(clone);
                 return idCounter;
             }
             case SUBTASK -> {
@@ -131,11 +323,9 @@ public class InMemoryTaskManager implements TaskManager {
                 if (!validateTaskDeadlines(clone)) {
                     return TaskUtils.ERROR_CODES.get(TaskError.INTERSECT);
                 }
-                tasks.put(clone.getId(), clone);
-                if (clone.getStartTime() != null) {
-                    prioritizedTasks.add(clone);
-                }
-                targetEpic.addSubtask(clone);
+                storeTask(clone);
+                intervalIndex.put(clone);
+                addToEpic(targetEpic, clone);
                 return idCounter;
             }
         }
@@ -157,7 +347,11 @@ public class InMemoryTaskManager implements TaskManager {
 
     @Override
     public int updateTaskByIdAndType(Task task, int id, TaskType type) {
-        Map<Integer, Task> tasks = taskStorage.get(type);
+        return update(task, id, type);
+    }
+
+    private int update(Task task, int id, TaskType type) {
+        IntHashMap<Task> tasks = taskStorage.get(type);
         switch (type) {
             case EPIC -> {
                 if (tasks.containsKey(id)) {
@@ -171,13 +365,12 @@ public class InMemoryTaskManager implements TaskManager {
                 if (tasks.containsKey(id)) {
                     Task clone = (Task) task.clone();
                     clone.setId(id);
-                    tasks.put(id, clone);
+                    //сначала проверяем сроки, чтобы не оставить в хранилище отвергнутую версию
                     if (!validateTaskDeadlines(clone)) {
                         return TaskUtils.ERROR_CODES.get(TaskError.INTERSECT);
                     }
-                    if (clone.getStartTime() != null) {
-                        prioritizedTasks.add(clone);
-                    }
+                    storeTask(clone);
+                    intervalIndex.put(clone);
                     return 0;
                 }
             }
@@ -190,18 +383,19 @@ public class InMemoryTaskManager implements TaskManager {
                     Subtask clone = (Subtask) task.clone();
                     clone.setId(id);
                     Epic newEpic = (Epic)taskStorage.get(TaskType.EPIC).get(clone.getEpicId());
-                    if (originalSubtask.getEpicId() != clone.getEpicId()) {
-                        Epic originalEpic = (Epic)taskStorage.get(TaskType.EPIC).get(originalSubtask.getEpicId());
-                        originalEpic.removeSubtask(originalSubtask.getId());
+                    if (newEpic == null) {
+                        return TaskUtils.ERROR_CODES.get(TaskError.ABSENT_EPIC);
                     }
-                    newEpic.addSubtask(clone);
-                    tasks.put(id, clone);
                     if (!validateTaskDeadlines(clone)) {
                         return TaskUtils.ERROR_CODES.get(TaskError.INTERSECT);
                     }
-                    if (clone.getStartTime() != null) {
-                        prioritizedTasks.add(clone);
+                    if (originalSubtask.getEpicId() != clone.getEpicId()) {
+                        Epic originalEpic = (Epic)taskStorage.get(TaskType.EPIC).get(originalSubtask.getEpicId());
+                        removeFromEpic(originalEpic, originalSubtask.getId());
                     }
+                    addToEpic(newEpic, clone);
+                    storeTask(clone);
+                    intervalIndex.put(clone);
                     return 0;
                 }
             }
@@ -222,19 +416,27 @@ public class InMemoryTaskManager implements TaskManager {
 
     @Override
     public int deleteTaskByIdAndType(int id, TaskType type) {
-        Map<Integer, Task> tasks = taskStorage.get(type);
+        return delete(id, type);
+    }
+
+    private int delete(int id, TaskType type) {
+        IntHashMap<Task> tasks = taskStorage.get(type);
         switch (type) {
             case EPIC -> {
                 if (tasks.containsKey(id)) {
-                    //если удаляем эпик, то надо удалить все его подзадачи
-                    final Epic epic = (Epic) tasks.remove(id);
+                    //если удаляем эпик, то надо удалить все его подзадачи,
+                    //в том числе добавленные в него ранее в этой же пачке
+                    if (epicChanges != null) {
+                        epicChanges.apply(id);
+                    }
+                    final Epic epic = (Epic) unstoreTask(TaskType.EPIC, id);
                     historyManager.remove(id);
                     Map<Integer, Subtask> epicSubtasks = epic.getSubtasks();
-                    Map<Integer, Task> subtasks = taskStorage.get(TaskType.SUBTASK);
 
                     epicSubtasks.keySet().stream()
                             .forEach(subId -> {
-                                prioritizedTasks.remove(subtasks.remove(subId));
+                                unstoreTask(TaskType.SUBTASK, subId);
+                                intervalIndex.remove(subId);
                                 historyManager.remove(subId);
 
                             });
@@ -244,7 +446,8 @@ public class InMemoryTaskManager implements TaskManager {
             }
             case TASK -> {
                 if (tasks.containsKey(id)) {
-                    prioritizedTasks.remove(tasks.remove(id));
+                    unstoreTask(TaskType.TASK, id);
+                    intervalIndex.remove(id);
                     historyManager.remove(id);
                     return 0;
                 }
@@ -252,10 +455,10 @@ public class InMemoryTaskManager implements TaskManager {
             case SUBTASK -> {
                 if (tasks.containsKey(id)) {
                     //если подзадачу удалили, надо убрать ссылку на нее из ее эпика
-                    final Subtask subtask = (Subtask) tasks.remove(id);
-                    prioritizedTasks.remove(subtask);
+                    final Subtask subtask = (Subtask) unstoreTask(TaskType.SUBTASK, id);
+                    intervalIndex.remove(id);
                     Epic epic = (Epic)taskStorage.get(TaskType.EPIC).get(subtask.getEpicId());
-                    epic.removeSubtask(id);
+                    removeFromEpic(epic, id);
                     historyManager.remove(id);
                     return 0;
                 }
@@ -264,46 +467,216 @@ public class InMemoryTaskManager implements TaskManager {
         return -1;
     }
 
-    /*Если не отдали тип задачи - перебираем коллекции по существующим типам*/
+    /*Если не отдали тип задачи - узнаем его по индексу id*/
 
     @Override
     public int deleteTaskById(int id) {
-        return Arrays.stream(TaskType.values())
-                .filter(type -> deleteTaskByIdAndType(id, type) >= 0)
-                .findAny()
-                .isPresent() ? 0 : TaskUtils.ERROR_CODES.get(TaskError.UNKNOWN);
+        Task task = findTask(id);
+        if (task == null) {
+            return TaskUtils.ERROR_CODES.get(TaskError.UNKNOWN);
+        }
+        return deleteTaskByIdAndType(id, task.getType());
+    }
+
+    /*Пакетные операции: каждая задача пачки проходит ту же проверку, что и одиночная операция,
+    * поэтому пересечения ловятся и с доской, и с задачами, принятыми раньше в этой же пачке.
+    * Коды результатов - те же, что у одиночных операций, по одному на элемент.
+    * Эпики, чьи подзадачи затронула пачка, пересчитываются один раз в конце*/
+
+    @Override
+    public int[] createTasks(List<Task> tasks) {
+        return inBatch(tasks.size(), i -> create(tasks.get(i), tasks.get(i).getType()));
+    }
+
+    @Override
+    public int[] updateTasks(List<Task> tasks) {
+        return inBatch(tasks.size(), i -> update(tasks.get(i), tasks.get(i).getId(), tasks.get(i).getType()));
+    }
+
+    @Override
+    public int[] deleteTasks(int[] ids) {
+        return inBatch(ids.length, i -> delete(ids[i]));
+    }
+
+    /*Смешанный пакет применяется за один проход в порядке операций: удаление освобождает время
+    * для следующего в пакете создания, а эпики пересчитываются один раз на весь пакет*/
+    @Override
+    public int[] applyBatch(List<TaskOperation> operations) {
+        return inBatch(operations.size(), i -> {
+            TaskOperation operation = operations.get(i);
+            return switch (operation.kind()) {
+                case CREATE -> create(operation.task(), operation.task().getType());
+                case UPDATE -> update(operation.task(), operation.id(), operation.task().getType());
+                case DELETE -> delete(operation.id());
+            };
+        });
+    }
+
+    private int delete(int id) {
+        Task task = findTask(id);
+        return task == null ? TaskUtils.ERROR_CODES.get(TaskError.UNKNOWN) : delete(id, task.getType());
+    }
+
+    private int[] inBatch(int size, IntUnaryOperator operation) {
+        epicChanges = new EpicChanges();
+        try {
+            int[] results = new int[size];
+            for (int i = 0; i < size; i++) {
+                results[i] = operation.applyAsInt(i);
+            }
+            return results;
+        } finally {
+            EpicChanges changes = epicChanges;
+            epicChanges = null;
+            changes.applyAll();
+        }
+    }
+
+    private void addToEpic(Epic epic, Subtask subtask) {
+        if (epicChanges != null) {
+            epicChanges.of(epic).added.add(subtask);
+        } else {
+            epic.addSubtask(subtask);
+        }
+    }
+
+    private void removeFromEpic(Epic epic, int subtaskId) {
+        if (epicChanges != null) {
+            EpicChanges.Pending pending = epicChanges.of(epic);
+            pending.added.removeIf(subtask -> subtask.getId() == subtaskId);
+            pending.removed.add(subtaskId);
+        } else {
+            epic.removeSubtask(subtaskId);
+        }
+    }
+
+    /*Изменения подзадач по эпикам, накопленные за пачку. Применяются одним Epic.changeSubtasks на эпик*/
+    private static class EpicChanges {
+        private final IntHashMap<Pending> pending = new IntHashMap<>();
+
+        private static class Pending {
+            private final Epic epic;
+            private final List<Integer> removed = new ArrayList<>();
+            private final List<Subtask> added = new ArrayList<>();
+
+            private Pending(Epic epic) {
+                this.epic = epic;
+            }
+        }
+
+        private Pending of(Epic epic) {
+            Pending epicPending = pending.get(epic.getId());
+            if (epicPending == null) {
+                epicPending = new Pending(epic);
+                pending.put(epic.getId(), epicPending);
+            }
+            return epicPending;
+        }
+
+        private void apply(int epicId) {
+            Pending epicPending = pending.remove(epicId);
+            if (epicPending != null) {
+                epicPending.epic.changeSubtasks(epicPending.removed, epicPending.added);
+            }
+        }
+
+        private void applyAll() {
+            pending.values().forEach(epicPending -> epicPending.epic.changeSubtasks(epicPending.removed, epicPending.added));
+            pending.clear();
+        }
     }
 
     /*Если есть такой эпик - отдаем его список подзадач*/
 
     @Override
     public List<Subtask> getSubtasksByEpic(int id) {
-        Map<Integer, Task> tasks = taskStorage.get(TaskType.EPIC);
+        IntHashMap<Task> tasks = taskStorage.get(TaskType.EPIC);
         if (tasks.containsKey(id)) {
-            return new ArrayList<>(((Epic)tasks.get(id)).getSubtasks().values());
+            List<Subtask> subtasks = new ArrayList<>(((Epic)tasks.get(id)).getSubtasks().values());
+            subtasks.replaceAll(subtask -> (Subtask) subtask.clone());
+            return subtasks;
         }
 
         return new ArrayList<>();
     }
 
+    //снимок эпика уже держит закэшированные снимки своих подзадач
+    @Override
+    public List<TaskSnapshot> getSubtaskSnapshotsByEpic(int id) {
+        Task epic = taskStorage.get(TaskType.EPIC).get(id);
+        return epic == null ? new ArrayList<>() : new ArrayList<>(((Epic) epic).snapshot().subtasks().values());
+    }
+
     @Override
     public List<Task> getHistory() {
-        return historyManager.getHistory();
+        return copies(historyManager.getHistory());
+    }
+
+    /*Страница истории ?offset=&limit=: менеджер истории обходит только этот отрезок, а не собирает весь список*/
+
+    @Override
+    public List<Task> getHistory(int offset, int limit) {
+        return copies(historyManager.getHistory(offset, limit));
+    }
+
+    @Override
+    public List<TaskSnapshot> getHistorySnapshots(int offset, int limit) {
+        return snapshots(historyManager.getHistory(offset, limit));
     }
 
     @Override
     public List<Task> getPrioritizedTasks() {
-        return prioritizedTasks.stream().collect(Collectors.toList());
+        return copies(intervalIndex.toList());
     }
 
+    /*Окно приоритетного списка: задачи, которые начинаются в [from, to), не больше limit штук.
+    * Границы могут быть null - тогда окно с этой стороны открыто. Обходится только само окно индекса сроков*/
+
+    @Override
+    public List<Task> getPrioritizedTasks(LocalDateTime from, LocalDateTime to, TaskStatus status, int limit) {
+        return copies(intervalIndex.window(from, to, task -> status == null || task.getStatus() == status, limit));
+    }
+
+    @Override
+    public List<TaskSnapshot> getPrioritizedTaskSnapshots(LocalDateTime from, LocalDateTime to, TaskStatus status, int limit) {
+        return snapshots(intervalIndex.window(from, to, task -> status == null || task.getStatus() == status, limit));
+    }
+
+    /*Пересечения ищем по интервальному дереву, а не перебором всех задач с датами*/
+
     @Override
     public boolean validateTaskDeadlines(Task task) {
-        if (task.getStartTime() == null || prioritizedTasks.isEmpty()) {
+        if (task.getStartTime() == null || intervalIndex.isEmpty()) {
             return true;
         }
 
-        return !prioritizedTasks.stream()
-                .filter(otherTask -> otherTask.getId() != task.getId())
-                .anyMatch(prioritizedTask -> prioritizedTask.checkTimeIntersections(task));
+        return !intervalIndex.hasIntersections(task.getStartTime(), task.getEndTime(), task.getId());
+    }
+
+    /*С чем именно пересекается задача: до limit задач в порядке начала, сама задача (по id) не в счет*/
+
+    @Override
+    public List<Task> getConflictingTasks(Task task, int limit) {
+        return copies(intervalIndex.intersections(task.getStartTime(), task.getEndTime(), task.getId(), limit));
+    }
+
+    /*Самое раннее свободное окно длины duration: начинается не раньше notBefore, заканчивается не позже notAfter.
+    * null, если такого нет. Планировщику не нужно перебирать время и ловить отказы INTERSECT*/
+
+    @Override
+    public LocalDateTime findFreeSlot(Duration duration, LocalDateTime notBefore, LocalDateTime notAfter) {
+        List<LocalDateTime> slots = findFreeSlots(duration, notBefore, notAfter, 1);
+        return slots.isEmpty() ? null : slots.get(0);
+    }
+
+    /*То же самое окно и начала следующих свободных промежутков расписания, всего не больше count.
+    * Промежутки ищем обходом индекса сроков, см. TaskIntervalTree.freeSlots*/
+
+    @Override
+    public List<LocalDateTime> findFreeSlots(Duration duration, LocalDateTime notBefore, LocalDateTime notAfter, int count) {
+        if (duration == null || duration.isNegative() || notBefore == null) {
+            throw new IllegalArgumentException("Для поиска окна нужны неотрицательная длительность и начало поиска");
+        }
+        return intervalIndex.freeSlots(duration, notBefore, notAfter, count);
     }
 }
@@ -0,0 +1,10 @@
+package ru.terralink.kanban.service;
+
+/* Режим загрузки менеджера из файла сохранения:
+* COPY - файл только читается, доска сразу переписывается в новый saveFile<время> в рабочем каталоге;
+* IN_PLACE - файл сохранения остается прежним и сразу становится рабочим, без начальной перезаписи */
+
+public enum LoadMode {
+    COPY,
+    IN_PLACE
+}
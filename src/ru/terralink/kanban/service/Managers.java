@@ -1,19 +1,18 @@
 package ru.terralink.kanban.service;
 
 import ru.terralink.kanban.model.Task;
-import ru.terralink.kanban.util.TaskUtils;
 
 import java.io.File;
 import java.io.IOException;
-import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.util.Arrays;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
 
 public class Managers {
 
     private static final String FILE_BACKED_SAVE_FILE_NAME = "saveFile";
-    private static final String FILE_BACKED_SAVE_FILE_EXTENTION = ".csv";
 
     private Managers() {
 
@@ -23,42 +22,148 @@ public class Managers {
         return new InMemoryTaskManager();
     }
 
+    //Менеджер в памяти, который помнит не больше historyCapacity последних просмотров
+    public static TaskManager getDefault(int historyCapacity) {
+        return new InMemoryTaskManager(getBoundedHistory(historyCapacity));
+    }
+
+    public static TaskManager getConcurrentTaskManager() {
+        return new ConcurrentTaskManager();
+    }
+
+    public static TaskManager getConcurrentTaskManager(int historyCapacity) {
+        return new ConcurrentTaskManager(new SynchronizedHistoryManager(getBoundedHistory(historyCapacity)));
+    }
+
+    /*Менеджер, который записывает просмотры в историю асинхронно: чтения задач только кладут обращение
+    * в очередь, а история отстает от них не больше чем на maxHistoryStaleness, см. AsyncHistoryManager.
+    * У истории есть фоновый поток, поэтому менеджер нужно закрыть (ConcurrentTaskManager.close)*/
+    public static TaskManager getConcurrentTaskManager(Duration maxHistoryStaleness) {
+        return new ConcurrentTaskManager(new AsyncHistoryManager(getDefaultHistory(), maxHistoryStaleness));
+    }
+
     public static HistoryManager getDefaultHistory() {
         return new InMemoryHistoryManager();
     }
 
+    //История фиксированной емкости: при переполнении забывается самый давний просмотр
+    public static HistoryManager getBoundedHistory(int capacity) {
+        return new BoundedHistoryManager(capacity);
+    }
+
     public static TaskManager getFileBackedTaskManager(File saveFile) {
         return new FileBackedTaskManager(saveFile);
     }
 
+    //Менеджер, который пишет снимок в указанном формате, например в двоичном для быстрого старта
+    public static TaskManager getFileBackedTaskManager(File saveFile, SnapshotFormat snapshotFormat) {
+        return new FileBackedTaskManager(saveFile, snapshotFormat);
+    }
+
+    /*Менеджер, который дописывает мутации в журнал и сворачивает его в снимок
+    * каждые compactionThreshold записей. Уже существующую доску открываем в том же режиме:
+    * читаем снимок и доигрываем журнал. Пустой снимок пишем, только если файла еще нет,
+    * а журнал, оставшийся без снимка, сначала доигрываем, чтобы не потерять его записи*/
+    public static TaskManager getJournaledTaskManager(File saveFile, int compactionThreshold) throws IOException {
+        if (saveFile.length() > 0) {
+            return loadFromFile(saveFile, LoadMode.IN_PLACE, compactionThreshold);
+        }
+        FileBackedTaskManager fileBackedTaskManager = new FileBackedTaskManager(saveFile, compactionThreshold);
+        File journalFile = TaskJournal.journalFileFor(saveFile);
+        if (journalFile.exists()) {
+            fileBackedTaskManager.replayJournal(journalFile);
+        }
+        fileBackedTaskManager.compact();
+        return fileBackedTaskManager;
+    }
+
+    /*Менеджер с отложенной записью: изменения сворачиваются в один снимок
+    * раз в flushInterval или после maxPendingChanges изменений. Не забываем закрывать его через close():
+    * без этого изменения сбросятся только при штатном завершении JVM, а при аварийном пропадут*/
+    public static TaskManager getWriteBehindTaskManager(File saveFile, DurabilityPolicy durabilityPolicy,
+                                                        Duration flushInterval, int maxPendingChanges) {
+        return FileBackedTaskManager.writeBehind(saveFile, durabilityPolicy, flushInterval, maxPendingChanges);
+    }
+
+    /*Менеджер только для чтения поверх отображаемого снимка, см. FileBackedTaskManager.exportMappedSnapshot*/
+    public static TaskManager getMappedTaskManager(File mappedSnapshotFile) throws IOException {
+        return new MappedTaskManager(MappedTaskSnapshot.open(mappedSnapshotFile));
+    }
+
     public static TaskManager loadFromFile(File saveFile) throws IOException, IllegalArgumentException {
-        String saveFileName = FILE_BACKED_SAVE_FILE_NAME + System.currentTimeMillis() + FILE_BACKED_SAVE_FILE_EXTENTION;
-        File currentSaveFile = Files.createFile(Path.of(saveFileName)).toFile();
-        FileBackedTaskManager fileBackedTaskManager = new FileBackedTaskManager(currentSaveFile);
+        return loadFromFile(saveFile, LoadMode.COPY);
+    }
+
+    /*Формат снимка определяем по его содержимому, и рабочий файл пишем в том же формате.
+    * В режиме IN_PLACE продолжаем писать в сам загруженный файл и не переписываем его после чтения:
+    * холодный старт стоит одного чтения. Переписываем только если пришлось доиграть журнал,
+    * чтобы свернуть его в снимок и не проигрывать повторно*/
+    public static TaskManager loadFromFile(File saveFile, LoadMode loadMode) throws IOException, IllegalArgumentException {
+        return load(saveFile, loadMode, false, 0);
+    }
+
+    /*Загрузка в режиме журнала: дальше мутации дописываются в журнал рабочего файла
+    * и сворачиваются в снимок каждые journalCompactionThreshold записей*/
+    public static TaskManager loadFromFile(File saveFile, LoadMode loadMode, int journalCompactionThreshold)
+            throws IOException, IllegalArgumentException {
+        if (journalCompactionThreshold < 1) {
+            throw new IllegalArgumentException("Порог компактирования журнала должен быть положительным");
+        }
+        return load(saveFile, loadMode, false, journalCompactionThreshold);
+    }
+
+    /*Загрузка большого файла в две фазы: CSV разбирается кусками параллельно, а затем задачи
+    * раскладываются по хранилищам разом (см. FileBackedTaskManager.addParsedTasks).
+    * Двоичный снимок разбирается последовательно - границ строк в нем нет, - но раскладывается так же разом*/
+    public static TaskManager loadFromFileInParallel(File saveFile, LoadMode loadMode) throws IOException, IllegalArgumentException {
+        return load(saveFile, loadMode, true, 0);
+    }
+
+    //journalCompactionThreshold == 0 - без журнала, каждая мутация переписывает снимок
+    private static TaskManager load(File saveFile, LoadMode loadMode, boolean parallel, int journalCompactionThreshold) throws IOException {
+        SnapshotFormat snapshotFormat = SnapshotFormat.detect(saveFile);
+        File currentSaveFile = saveFile;
+        if (loadMode == LoadMode.COPY) {
+            String saveFileName = FILE_BACKED_SAVE_FILE_NAME + System.currentTimeMillis() + snapshotFormat.getFileExtension();
+            currentSaveFile = Files.createFile(Path.of(saveFileName)).toFile();
+        }
+        FileBackedTaskManager fileBackedTaskManager = journalCompactionThreshold > 0
+                ? new FileBackedTaskManager(currentSaveFile, snapshotFormat, journalCompactionThreshold)
+                : new FileBackedTaskManager(currentSaveFile, snapshotFormat);
         try {
-            String fileContent = Files.readString(saveFile.toPath(), StandardCharsets.UTF_8);
-            String[] lines = fileContent.split(System.lineSeparator());
-            if (lines.length > 0 && !lines[0].equals(TaskUtils.TEXT_FILE_HEADER)) {
-                throw new IllegalArgumentException(String.format("Неверный заголовок файла: " + lines[0]));
+            if (!parallel) {
+                snapshotFormat.read(saveFile, fileBackedTaskManager::addParsedTask);
+            } else if (snapshotFormat == SnapshotFormat.CSV) {
+                fileBackedTaskManager.addParsedTasks(TaskCsvReader.readParallel(saveFile));
+            } else {
+                List<Task> tasks = new ArrayList<>();
+                snapshotFormat.read(saveFile, tasks::add);
+                fileBackedTaskManager.addParsedTasks(tasks);
             }
 
-            Arrays.stream(lines)
-                    .filter(line -> !line.equals(TaskUtils.TEXT_FILE_HEADER))
-                    .forEach(line -> {
-                        try {
-                            Task task = TaskUtils.fromString(line);
-                            fileBackedTaskManager.addParsedTask(task);
-                            } catch (IllegalArgumentException e) {
-                                throw new IllegalArgumentException(String.format("Ошибка в строке '%s': %s", line, e.getMessage()));
-                            }
-                    });
-
-            fileBackedTaskManager.save();
+            //если рядом со снимком лежит непустой журнал, доигрываем его поверх.
+            //После компактирования журнал только обнуляется, и пустой журнал снимок не переписывает
+            File journalFile = TaskJournal.journalFileFor(saveFile);
+            boolean journalReplayed = journalFile.length() > 0;
+            if (journalReplayed) {
+                fileBackedTaskManager.replayJournal(journalFile);
+            }
+
+            if (fileBackedTaskManager.isJournaling()) {
+                //журнал рабочего файла сворачиваем в снимок: в COPY он новый, в IN_PLACE - тот, что только что доиграли
+                if (loadMode == LoadMode.COPY || journalReplayed) {
+                    fileBackedTaskManager.compact();
+                }
+            } else if (loadMode == LoadMode.COPY) {
+                fileBackedTaskManager.save();
+            } else if (journalReplayed) {
+                fileBackedTaskManager.save();
+                Files.delete(journalFile.toPath());
+            }
         } catch (IOException e) {
             throw new IOException("Ошибка чтения файла: " + e.getMessage());
         }
 
         return fileBackedTaskManager;
     }
-
 }
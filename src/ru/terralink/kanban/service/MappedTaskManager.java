@@ -0,0 +1,313 @@
+package ru.terralink.kanban.service;
+
+import ru.terralink.kanban.model.Subtask;
+import ru.terralink.kanban.model.Task;
+import ru.terralink.kanban.model.TaskSnapshot;
+import ru.terralink.kanban.model.TaskStatus;
+import ru.terralink.kanban.model.TaskType;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.RandomAccess;
+
+/* Менеджер только для чтения поверх отображаемого снимка. Нужен отчетам и аналитике, которым не хочется
+* поднимать всю доску в куче: поиск по id, обход по типу и в порядке приоритета идут прямо по файлу,
+* а задача создается только в тот момент, когда ее достают из списка.
+* Доска в таком менеджере не меняется, поэтому все изменяющие методы бросают UnsupportedOperationException.
+* Историю просмотров он не ведет - аналитические чтения не должны в нее попадать */
+
+public class MappedTaskManager implements TaskManager {
+    private final MappedTaskSnapshot snapshot;
+
+    public MappedTaskManager(MappedTaskSnapshot snapshot) {
+        this.snapshot = snapshot;
+    }
+
+    public MappedTaskSnapshot getSnapshot() {
+        return snapshot;
+    }
+
+    private static UnsupportedOperationException readOnly() {
+        return new UnsupportedOperationException("Снимок доски доступен только для чтения");
+    }
+
+    @Override
+    public List<Task> getTasksByType(TaskType type) {
+        int first = snapshot.firstRecordOf(type);
+        return new RecordList<>(snapshot.countOf(type)) {
+            @Override
+            int record(int index) {
+                return first + index;
+            }
+        };
+    }
+
+    //записи типа лежат в файле по порядку id, поэтому страницу начинаем с места курсора и обходим только записи этого типа
+    @Override
+    public List<Task> getTasksByType(TaskType type, TaskStatus status, int afterId, int limit) {
+        List<Task> page = new ArrayList<>();
+        int end = snapshot.firstRecordOf(type) + snapshot.countOf(type);
+        for (int record = snapshot.firstRecordAfter(type, afterId); record < end && page.size() < limit; record++) {
+            if (status == null || snapshot.status(record) == status) {
+                page.add(snapshot.materialize(record));
+            }
+        }
+        return page;
+    }
+
+    @Override
+    public List<TaskSnapshot> getTaskSnapshotsByType(TaskType type) {
+        return new SnapshotList(getTasksByType(type));
+    }
+
+    @Override
+    public List<TaskSnapshot> getTaskSnapshotsByType(TaskType type, TaskStatus status, int afterId, int limit) {
+        return new SnapshotList(getTasksByType(type, status, afterId, limit));
+    }
+
+    @Override
+    public boolean removeTasksByType(TaskType type) {
+        throw readOnly();
+    }
+
+    @Override
+    public Task getTaskByIdAndType(int id, TaskType type) {
+        int record = snapshot.recordOf(id);
+        return record >= 0 && snapshot.type(record) == type ? snapshot.materialize(record) : null;
+    }
+
+    @Override
+    public Task getTaskById(int id) {
+        int record = snapshot.recordOf(id);
+        return record >= 0 ? snapshot.materialize(record) : null;
+    }
+
+    @Override
+    public TaskSnapshot getTaskSnapshotByIdAndType(int id, TaskType type) {
+        Task task = getTaskByIdAndType(id, type);
+        return task == null ? null : task.snapshot();
+    }
+
+    @Override
+    public TaskSnapshot getTaskSnapshotById(int id) {
+        Task task = getTaskById(id);
+        return task == null ? null : task.snapshot();
+    }
+
+    @Override
+    public int createTaskByType(Task task, TaskType type) {
+        throw readOnly();
+    }
+
+    @Override
+    public int createTask(Task task) {
+        throw readOnly();
+    }
+
+    @Override
+    public int updateTaskByIdAndType(Task task, int id, TaskType type) {
+        throw readOnly();
+    }
+
+    @Override
+    public int updateTaskById(Task task, int id) {
+        throw readOnly();
+    }
+
+    @Override
+    public int deleteTaskByIdAndType(int id, TaskType type) {
+        throw readOnly();
+    }
+
+    @Override
+    public int deleteTaskById(int id) {
+        throw readOnly();
+    }
+
+    @Override
+    public int[] createTasks(List<Task> tasks) {
+        throw readOnly();
+    }
+
+    @Override
+    public int[] updateTasks(List<Task> tasks) {
+        throw readOnly();
+    }
+
+    @Override
+    public int[] deleteTasks(int[] ids) {
+        throw readOnly();
+    }
+
+    @Override
+    public int[] applyBatch(List<TaskOperation> operations) {
+        throw readOnly();
+    }
+
+    @Override
+    public List<Subtask> getSubtasksByEpic(int id) {
+        int epicRecord = snapshot.recordOf(id);
+        if (epicRecord < 0 || snapshot.type(epicRecord) != TaskType.EPIC) {
+            return new ArrayList<>();
+        }
+        return new RecordList<>(snapshot.subtaskCount(epicRecord)) {
+            @Override
+            int record(int index) {
+                return snapshot.subtaskRecord(epicRecord, index);
+            }
+        };
+    }
+
+    @Override
+    public List<TaskSnapshot> getSubtaskSnapshotsByEpic(int id) {
+        return new SnapshotList(getSubtasksByEpic(id));
+    }
+
+    @Override
+    public List<Task> getHistory() {
+        return new ArrayList<>();
+    }
+
+    @Override
+    public List<Task> getHistory(int offset, int limit) {
+        return new ArrayList<>();
+    }
+
+    @Override
+    public List<TaskSnapshot> getHistorySnapshots(int offset, int limit) {
+        return new ArrayList<>();
+    }
+
+    @Override
+    public List<Task> getPrioritizedTasks() {
+        return new RecordList<>(snapshot.prioritizedCount()) {
+            @Override
+            int record(int index) {
+                return snapshot.prioritizedRecord(index);
+            }
+        };
+    }
+
+    //начало окна находим двоичным поиском по приоритетному индексу, он упорядочен по началу
+    @Override
+    public List<Task> getPrioritizedTasks(LocalDateTime from, LocalDateTime to, TaskStatus status, int limit) {
+        List<Task> page = new ArrayList<>();
+        for (int position = from == null ? 0 : snapshot.prioritizedPosition(from, true); position < snapshot.prioritizedCount() && page.size() < limit; position++) {
+            int record = snapshot.prioritizedRecord(position);
+            if (to != null && !snapshot.startTime(record).isBefore(to)) {
+                break;
+            }
+            if (status == null || snapshot.status(record) == status) {
+                page.add(snapshot.materialize(record));
+            }
+        }
+        return page;
+    }
+
+    @Override
+    public List<TaskSnapshot> getPrioritizedTaskSnapshots(LocalDateTime from, LocalDateTime to, TaskStatus status, int limit) {
+        return new SnapshotList(getPrioritizedTasks(from, to, status, limit));
+    }
+
+    //те же пересечения, что проверяет validateTaskDeadlines: без прохода по задачам, закончившимся раньше
+    @Override
+    public List<Task> getConflictingTasks(Task task, int limit) {
+        List<Task> conflicts = new ArrayList<>();
+        snapshot.intersections(task.getStartTime(), task.getEndTime(), task.getId(), limit,
+                record -> conflicts.add(snapshot.materialize(record)));
+        return conflicts;
+    }
+
+    @Override
+    public LocalDateTime findFreeSlot(Duration duration, LocalDateTime notBefore, LocalDateTime notAfter) {
+        List<LocalDateTime> slots = findFreeSlots(duration, notBefore, notAfter, 1);
+        return slots.isEmpty() ? null : slots.get(0);
+    }
+
+    /*Промежутки ищем одним проходом по приоритетному индексу: он упорядочен по началу, а кандидат только сдвигается вперед.
+    * Серии блоков задач, закончившихся раньше кандидата, проход перепрыгивает по дереву концов блоков снимка,
+    * поэтому задачи до notBefore не перебираются. Кандидаты те же, что у TaskIntervalTree.freeSlots*/
+    @Override
+    public List<LocalDateTime> findFreeSlots(Duration duration, LocalDateTime notBefore, LocalDateTime notAfter, int count) {
+        if (duration == null || duration.isNegative() || notBefore == null) {
+            throw new IllegalArgumentException("Для поиска окна нужны неотрицательная длительность и начало поиска");
+        }
+        List<LocalDateTime> slots = new ArrayList<>();
+        LocalDateTime candidate = notBefore;
+        for (int position = snapshot.nextUnfinishedPosition(-1, candidate); position < snapshot.prioritizedCount() && slots.size() < count;
+             position = snapshot.nextUnfinishedPosition(position, candidate)) {
+            if (notAfter != null && candidate.plus(duration).isAfter(notAfter)) {
+                return slots;
+            }
+            int record = snapshot.prioritizedRecord(position);
+            LocalDateTime start = snapshot.startTime(record);
+            LocalDateTime end = snapshot.endTime(record);
+            if (start.isBefore(candidate) && !end.isAfter(candidate)) {
+                continue; //закончилась до кандидата
+            }
+            if (start.isAfter(candidate) && !start.isBefore(candidate.plus(duration))) {
+                slots.add(candidate); //перед задачей свободный промежуток
+            }
+            candidate = end.isAfter(candidate) ? end : candidate;
+            if (candidate.isEqual(start)) {
+                candidate = candidate.plusMinutes(1); //задача нулевой длины занимает свою минуту начала
+            }
+        }
+        if (slots.size() < count && (notAfter == null || !candidate.plus(duration).isAfter(notAfter))) {
+            slots.add(candidate);
+        }
+        return slots;
+    }
+
+    @Override
+    public boolean validateTaskDeadlines(Task task) {
+        return !snapshot.hasIntersections(task.getStartTime(), task.getEndTime(), task.getId());
+    }
+
+    /*Неизменяемый список, который создает задачу из записи снимка при каждом обращении к элементу*/
+    private abstract class RecordList<T extends Task> extends AbstractList<T> implements RandomAccess {
+        private final int size;
+
+        RecordList(int size) {
+            this.size = size;
+        }
+
+        abstract int record(int index);
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public T get(int index) {
+            if (index < 0 || index >= size) {
+                throw new IndexOutOfBoundsException("Индекс " + index + " вне списка размера " + size);
+            }
+            return (T) snapshot.materialize(record(index));
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+
+    /*Снимки поверх списка задач снимка: снимок создается тоже только при обращении к элементу*/
+    private static class SnapshotList extends AbstractList<TaskSnapshot> implements RandomAccess {
+        private final List<? extends Task> tasks;
+
+        SnapshotList(List<? extends Task> tasks) {
+            this.tasks = tasks;
+        }
+
+        @Override
+        public TaskSnapshot get(int index) {
+            return tasks.get(index).snapshot();
+        }
+
+        @Override
+        public int size() {
+            return tasks.size();
+        }
+    }
+}
@@ -0,0 +1,524 @@
+package ru.terralink.kanban.service;
+
+import ru.terralink.kanban.model.Epic;
+import ru.terralink.kanban.model.Subtask;
+import ru.terralink.kanban.model.Task;
+import ru.terralink.kanban.model.TaskStatus;
+import ru.terralink.kanban.model.TaskType;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.IntConsumer;
+
+/* Снимок доски с фиксированной раскладкой для отображения в память. Его читают отчеты и аналитика:
+* файл не разбирается целиком, объекты задач создаются только для тех записей, которые действительно запросили.
+* Раскладка (все числа big-endian):
+*   заголовок, HEADER_SIZE байт: int MAGIC, short VERSION, short 0, int количество задач, int максимальный id,
+*       для TASK, EPIC, SUBTASK по паре int (первая запись, количество), int размер приоритетного индекса,
+*       long смещения индекса по id, приоритетного индекса, списков подзадач эпиков, строк и концов блоков
+*   записи задач по RECORD_SIZE байт, сгруппированы по типам в порядке TASK, EPIC, SUBTASK, внутри типа - по id:
+*       int id, byte тип, byte статус, short 0, int epicId (у эпика - начало его списка подзадач),
+*       int количество подзадач эпика, long startTime, long duration, long endTime,
+*       int смещение и int длина имени, int смещение и int длина описания, 4 байта выравнивания
+*   индекс по id: int на каждый id от 0 до максимального - номер записи + 1, 0 если задачи нет
+*   приоритетный индекс: номера записей задач и подзадач с датой начала, по (startTime, id)
+*   дерево концов блоков: самый поздний конец задач каждых BLOCK_SIZE позиций приоритетного индекса
+*       лежит в листьях полного двоичного дерева максимумов (long, корень - ячейка 1, листья - со ячейки
+*       blockLeaves, пустые листья - NO_VALUE). По нему обход приоритетного индекса за логарифм перепрыгивает
+*       целые серии блоков задач, закончившихся раньше нужного момента
+*   списки подзадач эпиков: номера записей подзадач подряд для каждого эпика
+*   строки: байты UTF-8
+* Даты - минуты от эпохи в UTC, продолжительность - в минутах, отсутствующее значение - NO_VALUE.
+* Одно отображение ограничено 2 ГБ, для досок такого размера этого хватает */
+
+public final class MappedTaskSnapshot {
+    public static final int MAGIC = 0x4B4E424D; //"KNBM"
+    public static final short VERSION = 4;
+    public static final String FILE_EXTENSION = ".map";
+
+    private static final int HEADER_SIZE = 128;
+    private static final int RECORD_SIZE = 64;
+    private static final int BLOCK_SIZE = 64;
+    private static final long NO_VALUE = Long.MIN_VALUE;
+
+    private static final int TYPE_RANGES_OFFSET = 16;
+    private static final int PRIORITIZED_COUNT_OFFSET = 40;
+    private static final int SECTIONS_OFFSET = 48;
+
+    private static final int ID = 0;
+    private static final int TYPE = 4;
+    private static final int STATUS = 5;
+    private static final int EPIC_ID = 8;
+    private static final int SUBTASK_COUNT = 12;
+    private static final int START_TIME = 16;
+    private static final int DURATION = 24;
+    private static final int END_TIME = 32;
+    private static final int NAME = 40;
+    private static final int DESCRIPTION = 48;
+
+    private final MappedByteBuffer buffer;
+    private final int taskCount;
+    private final int maxId;
+    private final int prioritizedCount;
+    private final long idIndexOffset;
+    private final long prioritizedOffset;
+    private final long subtasksOffset;
+    private final long stringsOffset;
+    private final long blockEndsOffset;
+    private final int blockCount;
+    private final int blockLeaves; //первый лист дерева концов блоков
+
+    private MappedTaskSnapshot(MappedByteBuffer buffer) {
+        this.buffer = buffer;
+        if (buffer.capacity() < HEADER_SIZE || buffer.getInt(0) != MAGIC) {
+            throw new IllegalArgumentException("Файл не является отображаемым снимком");
+        }
+        if (buffer.getShort(4) != VERSION) {
+            throw new IllegalArgumentException("Неподдерживаемая версия отображаемого снимка: " + buffer.getShort(4));
+        }
+        taskCount = buffer.getInt(8);
+        maxId = buffer.getInt(12);
+        prioritizedCount = buffer.getInt(PRIORITIZED_COUNT_OFFSET);
+        idIndexOffset = buffer.getLong(SECTIONS_OFFSET);
+        prioritizedOffset = buffer.getLong(SECTIONS_OFFSET + 8);
+        subtasksOffset = buffer.getLong(SECTIONS_OFFSET + 16);
+        stringsOffset = buffer.getLong(SECTIONS_OFFSET + 24);
+        blockEndsOffset = buffer.getLong(SECTIONS_OFFSET + 32);
+        blockCount = blockCount(prioritizedCount);
+        blockLeaves = blockLeaves(blockCount);
+        if (stringsOffset > buffer.capacity() || blockEndsOffset > buffer.capacity()) {
+            throw new IllegalArgumentException("Отображаемый снимок обрезан");
+        }
+    }
+
+    public static MappedTaskSnapshot open(File snapshotFile) throws IOException {
+        try (FileChannel channel = FileChannel.open(snapshotFile.toPath(), StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("Отображаемый снимок больше 2 ГБ");
+            }
+            return new MappedTaskSnapshot(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    /*Пишем снимок из тех же коллекций, из которых FileBackedTaskManager.save() пишет CSV.
+    * Сначала в памяти собираем только номера записей и байты строк, затем отображаем файл нужного размера
+    * и раскладываем все абсолютной записью */
+    public static void write(File snapshotFile, Collection<? extends Task> tasks, Collection<? extends Task> epics,
+                             Collection<? extends Task> subtasks) throws IOException {
+        //внутри типа записи идут по возрастанию id: страница типа с курсора - двоичный поиск и обход подряд
+        List<Task> records = new ArrayList<>(tasks.size() + epics.size() + subtasks.size());
+        for (Collection<? extends Task> group : List.of(tasks, epics, subtasks)) {
+            int groupStart = records.size();
+            records.addAll(group);
+            records.subList(groupStart, records.size()).sort(Comparator.comparingInt(Task::getId));
+        }
+
+        int maxId = 0;
+        for (Task task : records) {
+            if (task.getId() < 0) {
+                throw new IllegalArgumentException("Отображаемый снимок не поддерживает отрицательные id");
+            }
+            maxId = Math.max(maxId, task.getId());
+        }
+        int[] recordById = new int[maxId + 1];
+        for (int i = 0; i < records.size(); i++) {
+            recordById[records.get(i).getId()] = i + 1;
+        }
+
+        //списки подзадач: для каждого эпика его подзадачи подряд, в порядке записей
+        int epicStart = tasks.size();
+        int subtaskStart = epicStart + epics.size();
+        int[] subtaskCounts = new int[records.size()];
+        for (int i = subtaskStart; i < records.size(); i++) {
+            int epicRecord = epicRecordOf(records.get(i), recordById, epicStart, subtaskStart);
+            if (epicRecord >= 0) {
+                subtaskCounts[epicRecord]++;
+            }
+        }
+        int[] subtaskListStarts = new int[records.size()];
+        int linkedSubtasks = 0;
+        for (int i = epicStart; i < subtaskStart; i++) {
+            subtaskListStarts[i] = linkedSubtasks;
+            linkedSubtasks += subtaskCounts[i];
+        }
+        int[] subtaskLists = new int[linkedSubtasks];
+        int[] filled = new int[records.size()];
+        for (int i = subtaskStart; i < records.size(); i++) {
+            int epicRecord = epicRecordOf(records.get(i), recordById, epicStart, subtaskStart);
+            if (epicRecord >= 0) {
+                subtaskLists[subtaskListStarts[epicRecord] + filled[epicRecord]++] = i;
+            }
+        }
+
+        List<Integer> prioritized = new ArrayList<>();
+        for (int i = 0; i < records.size(); i++) {
+            if ((i < epicStart || i >= subtaskStart) && records.get(i).getStartTime() != null) {
+                prioritized.add(i);
+            }
+        }
+        prioritized.sort(Comparator.comparing((Integer i) -> records.get(i).getStartTime())
+                .thenComparingInt(i -> records.get(i).getId()));
+
+        int leaves = blockLeaves(blockCount(prioritized.size()));
+        long[] blockEnds = new long[2 * leaves];
+        Arrays.fill(blockEnds, NO_VALUE);
+        for (int i = 0; i < prioritized.size(); i++) {
+            //конец считаем так же, как endTime(record): по уже округленному до минут началу
+            Task task = records.get(prioritized.get(i));
+            long end = toEpochMinutes(task.getStartTime()) + (task.getDuration() == null ? 0 : task.getDuration().toMinutes());
+            blockEnds[leaves + i / BLOCK_SIZE] = Math.max(blockEnds[leaves + i / BLOCK_SIZE], end);
+        }
+        for (int node = leaves - 1; node > 0; node--) {
+            blockEnds[node] = Math.max(blockEnds[2 * node], blockEnds[2 * node + 1]);
+        }
+
+        byte[][] names = new byte[records.size()][];
+        byte[][] descriptions = new byte[records.size()][];
+        long stringsSize = 0;
+        for (int i = 0; i < records.size(); i++) {
+            names[i] = encode(records.get(i).getName());
+            descriptions[i] = encode(records.get(i).getDescription());
+            stringsSize += names[i].length + descriptions[i].length;
+        }
+
+        long idIndexOffset = HEADER_SIZE + (long) records.size() * RECORD_SIZE;
+        long prioritizedOffset = idIndexOffset + (long) recordById.length * Integer.BYTES;
+        long subtasksOffset = prioritizedOffset + (long) prioritized.size() * Integer.BYTES;
+        long blockEndsOffset = subtasksOffset + (long) subtaskLists.length * Integer.BYTES;
+        long stringsOffset = blockEndsOffset + (long) blockEnds.length * Long.BYTES;
+        long fileSize = stringsOffset + stringsSize;
+        if (fileSize > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Отображаемый снимок больше 2 ГБ");
+        }
+
+        try (FileChannel channel = FileChannel.open(snapshotFile.toPath(), StandardOpenOption.READ, StandardOpenOption.WRITE,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, fileSize);
+            buffer.putInt(0, MAGIC).putShort(4, VERSION).putInt(8, records.size()).putInt(12, maxId);
+            int[] typeStarts = {0, epicStart, subtaskStart, records.size()};
+            for (int type = 0; type < 3; type++) {
+                buffer.putInt(TYPE_RANGES_OFFSET + type * 8, typeStarts[type]);
+                buffer.putInt(TYPE_RANGES_OFFSET + type * 8 + 4, typeStarts[type + 1] - typeStarts[type]);
+            }
+            buffer.putInt(PRIORITIZED_COUNT_OFFSET, prioritized.size());
+            buffer.putLong(SECTIONS_OFFSET, idIndexOffset).putLong(SECTIONS_OFFSET + 8, prioritizedOffset)
+                    .putLong(SECTIONS_OFFSET + 16, subtasksOffset).putLong(SECTIONS_OFFSET + 24, stringsOffset)
+                    .putLong(SECTIONS_OFFSET + 32, blockEndsOffset);
+
+            int stringPosition = (int) stringsOffset;
+            for (int i = 0; i < records.size(); i++) {
+                Task task = records.get(i);
+                int record = HEADER_SIZE + i * RECORD_SIZE;
+                buffer.putInt(record + ID, task.getId());
+                buffer.put(record + TYPE, (byte) task.getType().ordinal());
+                buffer.put(record + STATUS, task.getStatus() == null ? 0 : (byte) (task.getStatus().ordinal() + 1));
+                if (task.getType() == TaskType.SUBTASK) {
+                    buffer.putInt(record + EPIC_ID, ((Subtask) task).getEpicId());
+                } else if (task.getType() == TaskType.EPIC) {
+                    buffer.putInt(record + EPIC_ID, subtaskListStarts[i]);
+                    buffer.putInt(record + SUBTASK_COUNT, subtaskCounts[i]);
+                }
+                buffer.putLong(record + START_TIME, toEpochMinutes(task.getStartTime()));
+                buffer.putLong(record + DURATION, task.getDuration() == null ? NO_VALUE : task.getDuration().toMinutes());
+                buffer.putLong(record + END_TIME, task.getType() == TaskType.EPIC ? toEpochMinutes(task.getEndTime()) : NO_VALUE);
+
+                buffer.putInt(record + NAME, stringPosition).putInt(record + NAME + 4, names[i].length);
+                buffer.put(stringPosition, names[i]);
+                stringPosition += names[i].length;
+                buffer.putInt(record + DESCRIPTION, stringPosition).putInt(record + DESCRIPTION + 4, descriptions[i].length);
+                buffer.put(stringPosition, descriptions[i]);
+                stringPosition += descriptions[i].length;
+            }
+            for (int id = 0; id < recordById.length; id++) {
+                buffer.putInt((int) idIndexOffset + id * Integer.BYTES, recordById[id]);
+            }
+            for (int i = 0; i < prioritized.size(); i++) {
+                buffer.putInt((int) prioritizedOffset + i * Integer.BYTES, prioritized.get(i));
+            }
+            for (int i = 0; i < subtaskLists.length; i++) {
+                buffer.putInt((int) subtasksOffset + i * Integer.BYTES, subtaskLists[i]);
+            }
+            for (int i = 0; i < blockEnds.length; i++) {
+                buffer.putLong((int) blockEndsOffset + i * Long.BYTES, blockEnds[i]);
+            }
+            buffer.force();
+        }
+    }
+
+    /*Отображаемый снимок из уже сохраненного файла любого формата, без поднятия менеджера*/
+    public static void fromSaveFile(File saveFile, File snapshotFile) throws IOException {
+        List<Task> tasks = new ArrayList<>();
+        List<Task> epics = new ArrayList<>();
+        List<Task> subtasks = new ArrayList<>();
+        SnapshotFormat.detect(saveFile).read(saveFile, task -> {
+            switch (task.getType()) {
+                case TASK -> tasks.add(task);
+                case EPIC -> epics.add(task);
+                case SUBTASK -> subtasks.add(task);
+            }
+        });
+        write(snapshotFile, tasks, epics, subtasks);
+    }
+
+    private static int epicRecordOf(Task subtask, int[] recordById, int epicStart, int subtaskStart) {
+        int epicId = ((Subtask) subtask).getEpicId();
+        if (epicId < 0 || epicId >= recordById.length) {
+            return -1;
+        }
+        int record = recordById[epicId] - 1;
+        return record >= epicStart && record < subtaskStart ? record : -1;
+    }
+
+    //null и пустую строку не различаем, как и CSV
+    private static byte[] encode(String value) {
+        return value == null ? new byte[0] : value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static int blockCount(int prioritizedCount) {
+        return (prioritizedCount + BLOCK_SIZE - 1) / BLOCK_SIZE;
+    }
+
+    private static int blockLeaves(int blockCount) {
+        return blockCount <= 1 ? 1 : Integer.highestOneBit(blockCount - 1) << 1;
+    }
+
+    private static long toEpochMinutes(LocalDateTime dateTime) {
+        return dateTime == null ? NO_VALUE : Math.floorDiv(dateTime.toEpochSecond(ZoneOffset.UTC), 60);
+    }
+
+    private static LocalDateTime fromEpochMinutes(long minutes) {
+        return minutes == NO_VALUE ? null : LocalDateTime.ofEpochSecond(minutes * 60, 0, ZoneOffset.UTC);
+    }
+
+    public int size() {
+        return taskCount;
+    }
+
+    public int maxId() {
+        return maxId;
+    }
+
+    //Номер записи задачи с этим id или -1
+    public int recordOf(int id) {
+        if (id < 0 || id > maxId) {
+            return -1;
+        }
+        return buffer.getInt((int) idIndexOffset + id * Integer.BYTES) - 1;
+    }
+
+    public int firstRecordOf(TaskType type) {
+        return buffer.getInt(TYPE_RANGES_OFFSET + type.ordinal() * 8);
+    }
+
+    public int countOf(TaskType type) {
+        return buffer.getInt(TYPE_RANGES_OFFSET + type.ordinal() * 8 + 4);
+    }
+
+    //Первая запись типа с id больше afterId: записи типа упорядочены по id, поэтому это двоичный поиск
+    public int firstRecordAfter(TaskType type, int afterId) {
+        int low = firstRecordOf(type);
+        int high = low + countOf(type);
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (id(middle) <= afterId) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    public int prioritizedCount() {
+        return prioritizedCount;
+    }
+
+    public int prioritizedRecord(int position) {
+        return buffer.getInt((int) prioritizedOffset + position * Integer.BYTES);
+    }
+
+    /*Первая позиция приоритетного индекса, задача на которой начинается не раньше time (inclusive)
+    * или строго позже time. Индекс упорядочен по началу, поэтому это двоичный поиск*/
+    public int prioritizedPosition(LocalDateTime time, boolean inclusive) {
+        int low = 0;
+        int high = prioritizedCount;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            LocalDateTime start = startTime(prioritizedRecord(middle));
+            if (start.isBefore(time) || (!inclusive && start.isEqual(time))) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    public int subtaskCount(int epicRecord) {
+        return buffer.getInt(recordOffset(epicRecord) + SUBTASK_COUNT);
+    }
+
+    public int subtaskRecord(int epicRecord, int position) {
+        int listStart = buffer.getInt(recordOffset(epicRecord) + EPIC_ID);
+        return buffer.getInt((int) subtasksOffset + (listStart + position) * Integer.BYTES);
+    }
+
+    private int recordOffset(int record) {
+        return HEADER_SIZE + record * RECORD_SIZE;
+    }
+
+    public int id(int record) {
+        return buffer.getInt(recordOffset(record) + ID);
+    }
+
+    public TaskType type(int record) {
+        return TaskType.values()[buffer.get(recordOffset(record) + TYPE)];
+    }
+
+    public TaskStatus status(int record) {
+        byte status = buffer.get(recordOffset(record) + STATUS);
+        return status == 0 ? null : TaskStatus.values()[status - 1];
+    }
+
+    public LocalDateTime startTime(int record) {
+        return fromEpochMinutes(buffer.getLong(recordOffset(record) + START_TIME));
+    }
+
+    //Конец интервала без создания задачи: у эпика хранится явно, у остальных - начало плюс продолжительность
+    public LocalDateTime endTime(int record) {
+        int offset = recordOffset(record);
+        if (type(record) == TaskType.EPIC) {
+            return fromEpochMinutes(buffer.getLong(offset + END_TIME));
+        }
+        long start = buffer.getLong(offset + START_TIME);
+        if (start == NO_VALUE) {
+            return null;
+        }
+        long duration = buffer.getLong(offset + DURATION);
+        return fromEpochMinutes(duration == NO_VALUE ? start : start + duration);
+    }
+
+    public String name(int record) {
+        return readString(recordOffset(record) + NAME);
+    }
+
+    public String description(int record) {
+        return readString(recordOffset(record) + DESCRIPTION);
+    }
+
+    private String readString(int field) {
+        int length = buffer.getInt(field + 4);
+        byte[] bytes = new byte[length];
+        buffer.get(buffer.getInt(field), bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /*Записи приоритетного индекса, пересекающиеся с интервалом, в порядке индекса, не больше limit штук.
+    * Правую границу находим двоичным поиском по началу, а слева по дереву концов блоков перепрыгиваем
+    * серии блоков, в которых все задачи закончились раньше начала интервала. Семантика та же, что и в TaskIntervalTree*/
+    public void intersections(LocalDateTime start, LocalDateTime end, int excludedId, int limit, IntConsumer action) {
+        if (start == null || limit <= 0) {
+            return;
+        }
+        LocalDateTime intervalEnd = end == null ? start : end;
+        int upper = prioritizedPosition(intervalEnd, false);
+        int found = 0;
+        //задача с концом, равным началу интервала, еще может совпасть с ним началом, поэтому пропускаем только строго раньше
+        for (int position = nextUnfinishedPosition(-1, start); position < upper; position = nextUnfinishedPosition(position, start)) {
+            int record = prioritizedRecord(position);
+            LocalDateTime recordStart = startTime(record);
+            if (id(record) != excludedId && (recordStart.isEqual(start)
+                    || (recordStart.isBefore(intervalEnd) && start.isBefore(endTime(record))))) {
+                action.accept(record);
+                if (++found == limit) {
+                    return;
+                }
+            }
+        }
+    }
+
+    /*Следующая за position позиция приоритетного индекса, которую стоит смотреть тому, кому не нужны задачи,
+    * закончившиеся раньше time: на границе блока по дереву концов пропускаются все такие блоки подряд.
+    * Внутри блока позиции не пропускаются. Для обхода с начала передаем position = -1.
+    * Если дальше смотреть нечего - prioritizedCount()*/
+    public int nextUnfinishedPosition(int position, LocalDateTime time) {
+        int next = position + 1;
+        if (next % BLOCK_SIZE != 0 || next >= prioritizedCount) {
+            return Math.min(next, prioritizedCount);
+        }
+        return Math.min(nextUnfinishedBlock(next / BLOCK_SIZE, toEpochMinutes(time)) * BLOCK_SIZE, prioritizedCount);
+    }
+
+    //Первый блок не раньше from с задачей, закончившейся не раньше minutes, или blockCount, если такого нет
+    private int nextUnfinishedBlock(int from, long minutes) {
+        if (from >= blockCount) {
+            return blockCount;
+        }
+        //поднимаемся, пока в поддереве все закончилось раньше, и переходим к соседу справа
+        int node = blockLeaves + from;
+        while (blockEnd(node) < minutes) {
+            while ((node & 1) == 1) {
+                node >>>= 1;
+            }
+            if (node == 0) {
+                return blockCount;
+            }
+            node++;
+        }
+        //спускаемся к самому левому листу с подходящим концом
+        while (node < blockLeaves) {
+            node = 2 * node;
+            if (blockEnd(node) < minutes) {
+                node++;
+            }
+        }
+        return Math.min(node - blockLeaves, blockCount);
+    }
+
+    private long blockEnd(int node) {
+        return buffer.getLong((int) blockEndsOffset + node * Long.BYTES);
+    }
+
+    public boolean hasIntersections(LocalDateTime start, LocalDateTime end, int excludedId) {
+        boolean[] found = new boolean[1];
+        intersections(start, end, excludedId, 1, record -> found[0] = true);
+        return found[0];
+    }
+
+    /*Создаем задачу по записи. Эпик собирается вместе с подзадачами, поэтому его статус и даты
+    * пересчитываются так же, как при обычной загрузке*/
+    public Task materialize(int record) {
+        int offset = recordOffset(record);
+        TaskType type = type(record);
+        int id = id(record);
+        Task task = switch (type) {
+            case TASK -> new Task(id, name(record), description(record));
+            case SUBTASK -> new Subtask(id, name(record), description(record), buffer.getInt(offset + EPIC_ID));
+            case EPIC -> new Epic(id, name(record), description(record));
+        };
+        task.setStatus(status(record));
+        task.setStartTime(startTime(record));
+        long duration = buffer.getLong(offset + DURATION);
+        task.setDuration(duration == NO_VALUE ? null : Duration.ofMinutes(duration));
+        if (type == TaskType.EPIC) {
+            Epic epic = (Epic) task;
+            epic.setEndTime(fromEpochMinutes(buffer.getLong(offset + END_TIME)));
+            for (int i = 0; i < subtaskCount(record); i++) {
+                epic.addSubtask((Subtask) materialize(subtaskRecord(record, i)));
+            }
+        }
+        return task;
+    }
+}
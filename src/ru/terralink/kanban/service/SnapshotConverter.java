@@ -0,0 +1,63 @@
+package ru.terralink.kanban.service;
+
+import ru.terralink.kanban.exception.ManagerSaveException;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.Optional;
+
+/* Перегоняет снимок из CSV в двоичный формат и обратно, не собирая доску в памяти:
+* задачи пишутся в новый файл по мере чтения, порядок TASK, EPIC, SUBTASK сохраняется.
+* Запуск из консоли: SnapshotConverter <исходный файл> <новый файл> <csv|binary> */
+
+public final class SnapshotConverter {
+
+    private SnapshotConverter() {
+
+    }
+
+    public static void convert(File source, File target, SnapshotFormat targetFormat) throws IOException {
+        SnapshotFormat sourceFormat = SnapshotFormat.detect(source);
+        try (FileChannel channel = FileChannel.open(target.toPath(), StandardOpenOption.WRITE,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            TaskSnapshotWriter writer = targetFormat.createWriter(channel);
+            writer.writeHeader();
+            sourceFormat.read(source, task -> {
+                try {
+                    writer.write(task);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            writer.finish();
+        } catch (UncheckedIOException e) {
+            throw new ManagerSaveException("Не удалось записать снимок: " + e.getCause().getMessage());
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 3) {
+            System.out.println("Использование: SnapshotConverter <исходный файл> <новый файл> <csv|binary>");
+            return;
+        }
+
+        Optional<SnapshotFormat> targetFormat = parseSnapshotFormat(args[2]);
+        if (!targetFormat.isPresent()) {
+            System.out.println("Неизвестный формат снимка: " + args[2]);
+            return;
+        }
+        convert(new File(args[0]), new File(args[1]), targetFormat.get());
+    }
+
+    private static Optional<SnapshotFormat> parseSnapshotFormat(String format) {
+        for (SnapshotFormat snapshotFormat : SnapshotFormat.values()) {
+            if (snapshotFormat.toString().equalsIgnoreCase(format)) {
+                return Optional.of(snapshotFormat);
+            }
+        }
+        return Optional.empty();
+    }
+}
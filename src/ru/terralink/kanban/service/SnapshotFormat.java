@@ -0,0 +1,51 @@
+package ru.terralink.kanban.service;
+
+import ru.terralink.kanban.model.Task;
+
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.channels.WritableByteChannel;
+import java.util.function.Consumer;
+
+/* Формат файла снимка: текстовый CSV или компактный двоичный TaskBinaryFormat */
+
+public enum SnapshotFormat {
+    CSV(".csv"),
+    BINARY(".bin");
+
+    private final String fileExtension;
+
+    SnapshotFormat(String fileExtension) {
+        this.fileExtension = fileExtension;
+    }
+
+    public String getFileExtension() {
+        return fileExtension;
+    }
+
+    public TaskSnapshotWriter createWriter(WritableByteChannel channel) {
+        return switch (this) {
+            case CSV -> new TaskCsvWriter(channel);
+            case BINARY -> new TaskBinaryFormat.Writer(channel);
+        };
+    }
+
+    public void read(File snapshotFile, Consumer<Task> consumer) throws IOException {
+        switch (this) {
+            case CSV -> TaskCsvReader.read(snapshotFile, consumer);
+            case BINARY -> TaskBinaryFormat.read(snapshotFile, consumer);
+        }
+    }
+
+    //Двоичный снимок узнаем по сигнатуре в начале файла, все остальное считаем CSV
+    public static SnapshotFormat detect(File snapshotFile) throws IOException {
+        try (DataInputStream input = new DataInputStream(new FileInputStream(snapshotFile))) {
+            return input.readInt() == TaskBinaryFormat.MAGIC ? BINARY : CSV;
+        } catch (EOFException e) {
+            return CSV;
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package ru.terralink.kanban.service;
+
+import ru.terralink.kanban.model.Task;
+
+import java.util.List;
+
+/* Потокобезопасная обертка над менеджером истории. Нужна там, где историю
+* одновременно пишут несколько читателей задач */
+
+public class SynchronizedHistoryManager implements HistoryManager {
+    private final HistoryManager historyManager;
+
+    public SynchronizedHistoryManager(HistoryManager historyManager) {
+        this.historyManager = historyManager;
+    }
+
+    @Override
+    public synchronized void add(Task task) {
+        historyManager.add(task);
+    }
+
+    @Override
+    public synchronized void remove(int id) {
+        historyManager.remove(id);
+    }
+
+    @Override
+    public synchronized List<Task> getHistory() {
+        return historyManager.getHistory();
+    }
+
+    @Override
+    public synchronized List<Task> getHistory(int offset, int limit) {
+        return historyManager.getHistory(offset, limit);
+    }
+}
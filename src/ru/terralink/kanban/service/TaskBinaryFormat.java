@@ -0,0 +1,286 @@
+package ru.terralink.kanban.service;
+
+import ru.terralink.kanban.model.Epic;
+import ru.terralink.kanban.model.Subtask;
+import ru.terralink.kanban.model.Task;
+import ru.terralink.kanban.model.TaskStatus;
+import ru.terralink.kanban.model.TaskType;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+/* Компактный двоичный формат снимка. При чтении не нужно разбирать ни текст, ни даты, поэтому холодный старт
+* большой доски упирается только в диск. Запятые и переводы строк в названиях ему не страшны.
+* Раскладка (все числа big-endian):
+*   заголовок:  int MAGIC, short VERSION
+*   задача:     byte тип (1 - TASK, 2 - EPIC, 3 - SUBTASK), int id, строка name, строка description,
+*               byte статус (0 - нет, иначе порядковый номер + 1), [int epicId - только у подзадачи],
+*               long startTime, long duration, [long endTime - только у эпика]
+*   конец:      byte 0, int CRC32 всех байт от заголовка до конца включительно
+* Строка - int длина в байтах UTF-8 (-1 для null) и сами байты. Даты - минуты от эпохи в UTC,
+* продолжительность - в минутах, отсутствующее значение - NO_VALUE. Как и в CSV, секунды не сохраняются.
+* Контрольная сумма обязательна: формат появился вместе с ней, и снимок без нее - обрезанный */
+
+public final class TaskBinaryFormat {
+    public static final int MAGIC = 0x4B4E4254; //"KNBT"
+    public static final short VERSION = 1;
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final byte END_RECORD = 0;
+    private static final long NO_VALUE = Long.MIN_VALUE;
+    private static final int NULL_STRING = -1;
+
+    private TaskBinaryFormat() {
+
+    }
+
+    private static byte typeCode(TaskType type) {
+        return switch (type) {
+            case TASK -> 1;
+            case EPIC -> 2;
+            case SUBTASK -> 3;
+        };
+    }
+
+    private static TaskType typeOf(byte code) {
+        return switch (code) {
+            case 1 -> TaskType.TASK;
+            case 2 -> TaskType.EPIC;
+            case 3 -> TaskType.SUBTASK;
+            default -> throw new IllegalArgumentException("Невалидный тип объекта: " + code);
+        };
+    }
+
+    private static long toEpochMinutes(LocalDateTime dateTime) {
+        return dateTime == null ? NO_VALUE : Math.floorDiv(dateTime.toEpochSecond(ZoneOffset.UTC), 60);
+    }
+
+    private static LocalDateTime fromEpochMinutes(long minutes) {
+        return minutes == NO_VALUE ? null : LocalDateTime.ofEpochSecond(minutes * 60, 0, ZoneOffset.UTC);
+    }
+
+    public static class Writer implements TaskSnapshotWriter {
+        private final WritableByteChannel channel;
+        private final CRC32 checksum;
+        private ByteBuffer buffer;
+
+        public Writer(WritableByteChannel channel) {
+            this.channel = channel;
+            this.checksum = new CRC32();
+            this.buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        }
+
+        @Override
+        public void writeHeader() throws IOException {
+            ensure(Integer.BYTES + Short.BYTES);
+            buffer.putInt(MAGIC).putShort(VERSION);
+        }
+
+        @Override
+        public void write(Task task) throws IOException {
+            ensure(1 + Integer.BYTES);
+            buffer.put(typeCode(task.getType())).putInt(task.getId());
+            putString(task.getName());
+            putString(task.getDescription());
+
+            ensure(1 + Integer.BYTES + 3 * Long.BYTES);
+            buffer.put(task.getStatus() == null ? 0 : (byte) (task.getStatus().ordinal() + 1));
+            if (task.getType() == TaskType.SUBTASK) {
+                buffer.putInt(((Subtask) task).getEpicId());
+            }
+            buffer.putLong(toEpochMinutes(task.getStartTime()));
+            buffer.putLong(task.getDuration() == null ? NO_VALUE : task.getDuration().toMinutes());
+            if (task.getType() == TaskType.EPIC) {
+                buffer.putLong(toEpochMinutes(task.getEndTime()));
+            }
+        }
+
+        private void putString(String value) throws IOException {
+            if (value == null) {
+                ensure(Integer.BYTES);
+                buffer.putInt(NULL_STRING);
+                return;
+            }
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            ensure(Integer.BYTES + bytes.length);
+            buffer.putInt(bytes.length).put(bytes);
+        }
+
+        @Override
+        public void finish() throws IOException {
+            ensure(1 + Integer.BYTES);
+            buffer.put(END_RECORD);
+            checksum.update(buffer.array(), 0, buffer.position());
+            buffer.putInt((int) checksum.getValue());
+            flush();
+        }
+
+        private void ensure(int bytes) throws IOException {
+            if (buffer.remaining() >= bytes) {
+                return;
+            }
+            drain();
+            if (buffer.capacity() < bytes) {
+                buffer = ByteBuffer.allocate(bytes);
+            }
+        }
+
+        private void drain() throws IOException {
+            checksum.update(buffer.array(), 0, buffer.position());
+            flush();
+        }
+
+        private void flush() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+    }
+
+    /*Читаем файл кусками через канал и отдаем каждую задачу потребителю по мере разбора*/
+    public static void read(File snapshotFile, Consumer<Task> consumer) throws IOException {
+        try (FileChannel channel = FileChannel.open(snapshotFile.toPath(), StandardOpenOption.READ)) {
+            Reader reader = new Reader(channel);
+            reader.require(Integer.BYTES + Short.BYTES);
+            if (reader.buffer.getInt() != MAGIC) {
+                throw new IllegalArgumentException("Файл не является двоичным снимком");
+            }
+            short version = reader.buffer.getShort();
+            if (version != VERSION) {
+                throw new IllegalArgumentException("Неподдерживаемая версия двоичного снимка: " + version);
+            }
+
+            while (true) {
+                reader.require(1);
+                byte code = reader.buffer.get();
+                if (code == END_RECORD) {
+                    reader.verifyChecksum();
+                    return;
+                }
+                consumer.accept(reader.readTask(typeOf(code)));
+            }
+        }
+    }
+
+    private static class Reader {
+        private final FileChannel channel;
+        private final CRC32 checksum;
+        private ByteBuffer buffer;
+        private int checksumFrom; //начало прочитанных байт в буфере, еще не учтенных в контрольной сумме
+
+        Reader(FileChannel channel) {
+            this.channel = channel;
+            this.checksum = new CRC32();
+            this.buffer = ByteBuffer.allocate(BUFFER_SIZE).flip();
+        }
+
+        private void updateChecksum() {
+            checksum.update(buffer.array(), checksumFrom, buffer.position() - checksumFrom);
+            checksumFrom = buffer.position();
+        }
+
+        //После байта конца - ровно контрольная сумма
+        private void verifyChecksum() throws IOException {
+            updateChecksum();
+            if (!fill(Integer.BYTES)) {
+                throw new IllegalArgumentException("Двоичный снимок обрезан: нет контрольной суммы");
+            }
+            int expected = buffer.getInt();
+            if (expected != (int) checksum.getValue()) {
+                throw new IllegalArgumentException(String.format("Контрольная сумма двоичного снимка не совпадает: ожидалась %08x, получена %08x",
+                        expected, (int) checksum.getValue()));
+            }
+            if (buffer.hasRemaining() || channel.read(ByteBuffer.allocate(1)) >= 0) {
+                throw new IllegalArgumentException("Данные после контрольной суммы двоичного снимка");
+            }
+        }
+
+        private Task readTask(TaskType type) throws IOException {
+            require(Integer.BYTES);
+            int id = buffer.getInt();
+            String name = readString();
+            String description = readString();
+
+            require(1 + 2 * Long.BYTES + (type == TaskType.SUBTASK ? Integer.BYTES : 0)
+                    + (type == TaskType.EPIC ? Long.BYTES : 0));
+            byte statusCode = buffer.get();
+            if (statusCode < 0 || statusCode > TaskStatus.values().length) {
+                throw new IllegalArgumentException("Невалидный статус объекта: " + statusCode);
+            }
+            TaskStatus status = statusCode == 0 ? null : TaskStatus.values()[statusCode - 1];
+
+            Task task = switch (type) {
+                case TASK -> new Task(id, name, description);
+                case EPIC -> new Epic(id, name, description);
+                case SUBTASK -> new Subtask(id, name, description, buffer.getInt());
+            };
+            task.setStatus(status);
+            task.setStartTime(fromEpochMinutes(buffer.getLong()));
+            long duration = buffer.getLong();
+            task.setDuration(duration == NO_VALUE ? null : Duration.ofMinutes(duration));
+            if (type == TaskType.EPIC) {
+                ((Epic) task).setEndTime(fromEpochMinutes(buffer.getLong()));
+            }
+            return task;
+        }
+
+        private String readString() throws IOException {
+            require(Integer.BYTES);
+            int length = buffer.getInt();
+            if (length == NULL_STRING) {
+                return null;
+            }
+            if (length < 0) {
+                throw new IllegalArgumentException("Невалидная длина строки: " + length);
+            }
+            require(length);
+            String value = new String(buffer.array(), buffer.arrayOffset() + buffer.position(), length, StandardCharsets.UTF_8);
+            buffer.position(buffer.position() + length);
+            return value;
+        }
+
+        //Добиваемся, чтобы в буфере было хотя бы bytes непрочитанных байт
+        private void require(int bytes) throws IOException {
+            if (!fill(bytes)) {
+                throw new IllegalArgumentException("Двоичный снимок обрезан");
+            }
+        }
+
+        //false, если файл закончился ровно на текущей позиции; обрыв посреди запрошенных байт - ошибка
+        private boolean fill(int bytes) throws IOException {
+            if (buffer.remaining() >= bytes) {
+                return true;
+            }
+            updateChecksum();
+            if (buffer.capacity() < bytes) {
+                buffer = ByteBuffer.allocate(bytes).put(buffer);
+            } else {
+                buffer.compact();
+            }
+            checksumFrom = 0;
+            while (buffer.position() < bytes) {
+                if (channel.read(buffer) < 0) {
+                    if (buffer.position() == 0) {
+                        buffer.flip();
+                        return false;
+                    }
+                    throw new IllegalArgumentException("Двоичный снимок обрезан");
+                }
+            }
+            buffer.flip();
+            return true;
+        }
+    }
+}
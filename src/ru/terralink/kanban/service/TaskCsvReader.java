@@ -0,0 +1,335 @@
+package ru.terralink.kanban.service;
+
+import ru.terralink.kanban.model.Task;
+import ru.terralink.kanban.util.TaskUtils;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
+import java.util.zip.CRC32;
+
+public final class TaskCsvReader {
+    private static final int PARALLEL_CHUNK_SIZE = 4 * 1024 * 1024;
+
+    private TaskCsvReader() {
+
+    }
+
+    /*Читаем снимок построчно, не поднимая весь файл в память, и сразу отдаем каждую задачу потребителю.
+    * readLine понимает любые переводы строк, поэтому файл, записанный на другой ОС, тоже читается.
+    * Строку с контрольной суммой в конце сверяем с прочитанным. Без нее читаются только файлы
+    * со старым заголовком, записанные до появления суммы: иначе файл, обрезанный ровно по границе строки,
+    * загрузился бы молча и без части задач*/
+    public static void read(File snapshotFile, Consumer<Task> consumer) throws IOException {
+        try (BufferedReader reader = Files.newBufferedReader(snapshotFile.toPath(), StandardCharsets.UTF_8)) {
+            String line = reader.readLine();
+            if (line == null || !isHeader(line)) {
+                throw new IllegalArgumentException("Неверный заголовок файла: " + (line == null ? "" : line));
+            }
+            boolean legacy = line.equals(TaskUtils.LEGACY_TEXT_FILE_HEADER);
+            CRC32 checksum = new CRC32();
+            byte[] lineBytes = new byte[256];
+            lineBytes = updateChecksum(checksum, line, lineBytes);
+
+            while ((line = reader.readLine()) != null) {
+                if (line.isEmpty()) {
+                    continue;
+                }
+                if (line.startsWith(TaskUtils.TEXT_FILE_CHECKSUM_PREFIX)) {
+                    verifyChecksum(checksum, line, reader);
+                    return;
+                }
+                lineBytes = updateChecksum(checksum, line, lineBytes);
+                if (isHeader(line)) {
+                    continue;
+                }
+                Task task;
+                try {
+                    task = TaskUtils.fromString(line);
+                } catch (IllegalArgumentException e) {
+                    throw new IllegalArgumentException(String.format("Ошибка в строке '%s': %s", line, e.getMessage()));
+                }
+                consumer.accept(task);
+            }
+            if (!legacy) {
+                throw missingChecksum();
+            }
+        }
+    }
+
+    private static boolean isHeader(String line) {
+        return line.equals(TaskUtils.TEXT_FILE_HEADER) || line.equals(TaskUtils.LEGACY_TEXT_FILE_HEADER);
+    }
+
+    private static IllegalArgumentException missingChecksum() {
+        return new IllegalArgumentException("Файл обрезан: нет строки с контрольной суммой");
+    }
+
+    /*Строка в UTF-8 и '\n' за ней. Кодируем сами в переиспользуемый массив, чтобы не создавать
+    * массив на каждую строку. Одиночные суррогаты, как и при записи, заменяются на '?'*/
+    private static byte[] updateChecksum(CRC32 checksum, String line, byte[] buffer) {
+        int length = line.length();
+        if (buffer.length < length * 3 + 1) {
+            buffer = new byte[Math.max(length * 3 + 1, buffer.length * 2)];
+        }
+        int position = 0;
+        for (int i = 0; i < length; i++) {
+            char c = line.charAt(i);
+            if (c < 0x80) {
+                buffer[position++] = (byte) c;
+            } else if (c < 0x800) {
+                buffer[position++] = (byte) (0xC0 | (c >> 6));
+                buffer[position++] = (byte) (0x80 | (c & 0x3F));
+            } else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(line.charAt(i + 1))) {
+                int codePoint = Character.toCodePoint(c, line.charAt(++i));
+                buffer[position++] = (byte) (0xF0 | (codePoint >> 18));
+                buffer[position++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+                buffer[position++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+                buffer[position++] = (byte) (0x80 | (codePoint & 0x3F));
+            } else if (Character.isSurrogate(c)) {
+                buffer[position++] = '?';
+            } else {
+                buffer[position++] = (byte) (0xE0 | (c >> 12));
+                buffer[position++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                buffer[position++] = (byte) (0x80 | (c & 0x3F));
+            }
+        }
+        buffer[position++] = '\n';
+        checksum.update(buffer, 0, position);
+        return buffer;
+    }
+
+    private static void verifyChecksum(CRC32 checksum, String line, BufferedReader reader) throws IOException {
+        verifyChecksum(checksum.getValue(), line);
+        String rest;
+        while ((rest = reader.readLine()) != null) {
+            if (!rest.isEmpty()) {
+                throw new IllegalArgumentException("Данные после контрольной суммы файла: " + rest);
+            }
+        }
+    }
+
+    private static void verifyChecksum(long actual, String line) {
+        long expected;
+        try {
+            expected = Long.parseLong(line.substring(TaskUtils.TEXT_FILE_CHECKSUM_PREFIX.length()), 16);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Невалидная контрольная сумма файла: " + line);
+        }
+        if (expected != actual) {
+            throw new IllegalArgumentException(String.format("Контрольная сумма файла не совпадает: ожидалась %08x, получена %08x",
+                    expected, actual));
+        }
+    }
+
+    /*Параллельное чтение для больших файлов. Разбор строк друг от друга не зависит, поэтому файл режем
+    * на куски по границам строк и разбираем их в общем fork-join пуле. Каждый кусок считает
+    * контрольную сумму своих строк прямо по байтам файла, а суммы кусков потом склеиваются по порядку.
+    * Возвращаем задачи в порядке файла; связывание с эпиками остается вызывающему.
+    * Строки разделяются '\n' (с '\r' перед ним или без), одиночный '\r' здесь не поддерживается*/
+    public static List<Task> readParallel(File snapshotFile) throws IOException {
+        return readParallel(snapshotFile, PARALLEL_CHUNK_SIZE);
+    }
+
+    static List<Task> readParallel(File snapshotFile, int chunkSize) throws IOException {
+        try (FileChannel channel = FileChannel.open(snapshotFile.toPath(), StandardOpenOption.READ)) {
+            long size = channel.size();
+            int chunks = (int) Math.max(1, (size + chunkSize - 1) / chunkSize);
+            List<Chunk> parsed;
+            try {
+                parsed = IntStream.range(0, chunks).parallel()
+                        .mapToObj(index -> parseChunk(channel, index, (long) index * chunkSize,
+                                Math.min(size, (long) (index + 1) * chunkSize)))
+                        .toList();
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            } catch (RuntimeException e) {
+                //fork-join перевыбрасывает исключение из чужого потока, завернув его в такое же - отдаем исходное
+                Throwable cause = e;
+                while (cause.getCause() != null && cause.getClass() == cause.getCause().getClass()) {
+                    cause = cause.getCause();
+                }
+                throw (RuntimeException) cause;
+            }
+
+            List<Task> tasks = new ArrayList<>();
+            long checksum = 0;
+            String checksumLine = null;
+            for (Chunk chunk : parsed) {
+                if (checksumLine != null && chunk.length() > 0) {
+                    throw new IllegalArgumentException("Данные после контрольной суммы файла");
+                }
+                checksum = combineChecksums(checksum, chunk.checksum(), chunk.length());
+                tasks.addAll(chunk.tasks());
+                if (chunk.checksumLine() != null) {
+                    checksumLine = chunk.checksumLine();
+                }
+            }
+            if (checksumLine != null) {
+                verifyChecksum(checksum, checksumLine);
+            } else if (!parsed.get(0).legacy()) {
+                throw missingChecksum();
+            }
+            return tasks;
+        }
+    }
+
+    //legacy - у первого куска: файл со старым заголовком, которому можно обойтись без контрольной суммы
+    private record Chunk(List<Task> tasks, long checksum, long length, String checksumLine, boolean legacy) {
+    }
+
+    private static Chunk parseChunk(FileChannel channel, int index, long from, long to) {
+        try {
+            long start = lineStartAtOrAfter(channel, from);
+            long end = lineStartAtOrAfter(channel, to);
+            if (end - start > Integer.MAX_VALUE - 8) {
+                throw new IllegalArgumentException("Слишком длинная строка в файле");
+            }
+            byte[] bytes = new byte[(int) Math.max(0, end - start)];
+            ByteBuffer buffer = ByteBuffer.wrap(bytes);
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer, start + buffer.position()) < 0) {
+                    break;
+                }
+            }
+            return parseLines(bytes, index == 0);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    //Начало первой строки, которая начинается в позиции position или позже
+    private static long lineStartAtOrAfter(FileChannel channel, long position) throws IOException {
+        if (position == 0) {
+            return 0;
+        }
+        long size = channel.size();
+        ByteBuffer buffer = ByteBuffer.allocate(8 * 1024);
+        long offset = position - 1;
+        while (offset < size) {
+            buffer.clear();
+            int read = channel.read(buffer, offset);
+            if (read < 0) {
+                break;
+            }
+            for (int i = 0; i < read; i++) {
+                if (buffer.get(i) == '\n') {
+                    return offset + i + 1;
+                }
+            }
+            offset += read;
+        }
+        return size;
+    }
+
+    private static Chunk parseLines(byte[] bytes, boolean first) {
+        List<Task> tasks = new ArrayList<>();
+        CRC32 checksum = new CRC32();
+        long length = 0;
+        String checksumLine = null;
+        boolean legacy = false;
+        boolean header = first;
+        int lineStart = 0;
+        while (lineStart < bytes.length || header) {
+            int lineEnd = lineStart;
+            while (lineEnd < bytes.length && bytes[lineEnd] != '\n') {
+                lineEnd++;
+            }
+            int next = lineEnd + 1;
+            if (lineEnd > lineStart && bytes[lineEnd - 1] == '\r') {
+                lineEnd--;
+            }
+            int from = lineStart;
+            String line = new String(bytes, from, lineEnd - from, StandardCharsets.UTF_8);
+            lineStart = next;
+
+            if (header) {
+                if (!isHeader(line)) {
+                    throw new IllegalArgumentException("Неверный заголовок файла: " + line);
+                }
+                legacy = line.equals(TaskUtils.LEGACY_TEXT_FILE_HEADER);
+                header = false;
+            } else if (line.isEmpty()) {
+                continue;
+            } else if (checksumLine != null) {
+                throw new IllegalArgumentException("Данные после контрольной суммы файла: " + line);
+            } else if (line.startsWith(TaskUtils.TEXT_FILE_CHECKSUM_PREFIX)) {
+                checksumLine = line;
+                continue;
+            } else if (!isHeader(line)) {
+                try {
+                    tasks.add(TaskUtils.fromString(line));
+                } catch (IllegalArgumentException e) {
+                    throw new IllegalArgumentException(String.format("Ошибка в строке '%s': %s", line, e.getMessage()));
+                }
+            }
+            //строка уже в UTF-8, поэтому сумму считаем прямо по байтам файла
+            checksum.update(bytes, from, lineEnd - from);
+            checksum.update('\n');
+            length += lineEnd - from + 1;
+        }
+        return new Chunk(tasks, checksum.getValue(), length, checksumLine, legacy);
+    }
+
+    /*CRC32 склейки двух кусков по их суммам и длине второго, как crc32_combine в zlib:
+    * дописать к первому куску length2 байт - это умножить его сумму на степень матрицы сдвига над GF(2)*/
+    private static long combineChecksums(long checksum1, long checksum2, long length2) {
+        if (length2 <= 0) {
+            return checksum1;
+        }
+        long[] even = new long[32];
+        long[] odd = new long[32];
+        odd[0] = 0xEDB88320L; //многочлен CRC32 в обратной записи
+        long row = 1;
+        for (int n = 1; n < 32; n++) {
+            odd[n] = row;
+            row <<= 1;
+        }
+        squareMatrix(even, odd); //сдвиг на 2 бита
+        squareMatrix(odd, even); //сдвиг на 4 бита
+
+        long length = length2;
+        do {
+            squareMatrix(even, odd);
+            if ((length & 1) != 0) {
+                checksum1 = multiplyMatrix(even, checksum1);
+            }
+            length >>= 1;
+            if (length == 0) {
+                break;
+            }
+            squareMatrix(odd, even);
+            if ((length & 1) != 0) {
+                checksum1 = multiplyMatrix(odd, checksum1);
+            }
+            length >>= 1;
+        } while (length != 0);
+        return checksum1 ^ checksum2;
+    }
+
+    private static long multiplyMatrix(long[] matrix, long vector) {
+        long sum = 0;
+        for (int i = 0; vector != 0; i++, vector >>>= 1) {
+            if ((vector & 1) != 0) {
+                sum ^= matrix[i];
+            }
+        }
+        return sum;
+    }
+
+    private static void squareMatrix(long[] square, long[] matrix) {
+        for (int n = 0; n < 32; n++) {
+            square[n] = multiplyMatrix(matrix, matrix[n]);
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package ru.terralink.kanban.service;
+
+import ru.terralink.kanban.model.Task;
+import ru.terralink.kanban.util.TaskUtils;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.CRC32;
+
+/* Запись снимка в CSV через канал. Строка задачи собирается в один переиспользуемый StringBuilder,
+* кодируется в UTF-8 в переиспользуемый байтовый буфер, и в канал уходят только полные буферы.
+* Так на задачу не создается ни строк, ни массивов, а системный вызов приходится на десятки килобайт.
+* Попутно считаем CRC32 содержимого строк и дописываем его последней строкой. Переводы строк в сумму
+* не входят как есть, вместо них всегда учитывается '\n', поэтому файл с чужими переводами строк сходится */
+
+public class TaskCsvWriter implements TaskSnapshotWriter {
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final WritableByteChannel channel;
+    private final StringBuilder line;
+    private final CharsetEncoder encoder;
+    private final ByteBuffer bytes;
+    private final byte[] lineSeparator;
+    private final CRC32 checksum;
+    private int checksumFrom; //начало байт строки в буфере, еще не учтенных в контрольной сумме
+    private char[] chars;
+    private CharBuffer charBuffer;
+
+    public TaskCsvWriter(WritableByteChannel channel) {
+        this.channel = channel;
+        this.line = new StringBuilder(256);
+        //как и OutputStreamWriter, битые символы заменяем на '?', а не падаем
+        this.encoder = StandardCharsets.UTF_8.newEncoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        this.bytes = ByteBuffer.allocate(BUFFER_SIZE);
+        this.lineSeparator = System.lineSeparator().getBytes(StandardCharsets.US_ASCII);
+        this.checksum = new CRC32();
+        this.chars = new char[256];
+        this.charBuffer = CharBuffer.wrap(chars);
+    }
+
+    @Override
+    public void writeHeader() throws IOException {
+        line.setLength(0);
+        line.append(TaskUtils.TEXT_FILE_HEADER);
+        encodeLine();
+    }
+
+    @Override
+    public void write(Task task) throws IOException {
+        line.setLength(0);
+        TaskUtils.appendTo(line, task);
+        encodeLine();
+    }
+
+    private void encodeLine() throws IOException {
+        int length = line.length();
+        if (length > chars.length) {
+            chars = new char[Math.max(length, chars.length * 2)];
+            charBuffer = CharBuffer.wrap(chars);
+        }
+        line.getChars(0, length, chars, 0);
+        charBuffer.clear().limit(length);
+
+        encoder.reset();
+        while (true) {
+            CoderResult result = encoder.encode(charBuffer, bytes, true);
+            if (result.isOverflow()) {
+                drain();
+            } else if (result.isUnderflow()) {
+                break;
+            } else {
+                result.throwException();
+            }
+        }
+        while (encoder.flush(bytes).isOverflow()) {
+            drain();
+        }
+        updateChecksum();
+        checksum.update('\n');
+        putLineSeparator();
+    }
+
+    private void putLineSeparator() throws IOException {
+        if (bytes.remaining() < lineSeparator.length) {
+            drain();
+        }
+        bytes.put(lineSeparator);
+        checksumFrom = bytes.position();
+    }
+
+    private void updateChecksum() {
+        checksum.update(bytes.array(), checksumFrom, bytes.position() - checksumFrom);
+        checksumFrom = bytes.position();
+    }
+
+    private void drain() throws IOException {
+        updateChecksum();
+        bytes.flip();
+        while (bytes.hasRemaining()) {
+            channel.write(bytes);
+        }
+        bytes.clear();
+        checksumFrom = 0;
+    }
+
+    @Override
+    public void finish() throws IOException {
+        updateChecksum();
+        //сама строка с суммой в сумму не входит
+        byte[] trailer = (TaskUtils.TEXT_FILE_CHECKSUM_PREFIX + String.format("%08x", checksum.getValue()))
+                .getBytes(StandardCharsets.US_ASCII);
+        if (bytes.remaining() < trailer.length) {
+            drain();
+        }
+        bytes.put(trailer);
+        checksumFrom = bytes.position();
+        putLineSeparator();
+        drain();
+    }
+}
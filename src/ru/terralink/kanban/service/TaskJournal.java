@@ -0,0 +1,129 @@
+package ru.terralink.kanban.service;
+
+import ru.terralink.kanban.exception.ManagerSaveException;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedWriter;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Writer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.function.Consumer;
+
+/* Журнал изменений менеджера. Каждая мутация дописывается в конец файла одной короткой записью,
+* поэтому стоимость записи не зависит от размера доски. Полный снимок в формате CSV
+* пишется только при компактировании, после чего журнал обнуляется.
+* Каждая запись заканчивается RECORD_END: запись без него на конце файла - та, что дописывалась в момент сбоя */
+
+public class TaskJournal implements AutoCloseable {
+    public static final String JOURNAL_FILE_EXTENSION = ".journal";
+    public static final char PUT_RECORD = 'P';
+    public static final char DELETE_RECORD = 'D';
+    public static final char REMOVE_TYPE_RECORD = 'R';
+    public static final char RECORD_END = '\n';
+
+    private final File journalFile;
+    private Writer writer;
+    private int size;
+
+    public TaskJournal(File journalFile) {
+        this.journalFile = journalFile;
+    }
+
+    public static File journalFileFor(File saveFile) {
+        return new File(saveFile.getPath() + JOURNAL_FILE_EXTENSION);
+    }
+
+    public File getJournalFile() {
+        return journalFile;
+    }
+
+    //количество записей с момента последнего компактирования
+    public int size() {
+        return size;
+    }
+
+    public void append(String record) {
+        appendAll(List.of(record));
+    }
+
+    //записи пакетной операции дописываем разом и сбрасываем на диск один раз
+    public void appendAll(List<String> records) {
+        try {
+            if (writer == null) {
+                writer = new BufferedWriter(new FileWriter(journalFile, StandardCharsets.UTF_8, true));
+            }
+            for (String record : records) {
+                writer.write(record);
+                writer.write(RECORD_END);
+            }
+            writer.flush();
+            size += records.size();
+        } catch (IOException e) {
+            throw new ManagerSaveException("Не удалось записать в журнал: " + e.getMessage());
+        }
+    }
+
+    /*Отдаем целые записи журнала по порядку, '\r' перед RECORD_END отбрасываем.
+    * Недописанную запись в конце пропускаем. Возвращаем длину файла до конца последней целой записи*/
+    public static long readRecords(File journalFile, Consumer<String> action) throws IOException {
+        long complete = 0;
+        long position = 0;
+        ByteArrayOutputStream record = new ByteArrayOutputStream();
+        try (InputStream input = new BufferedInputStream(Files.newInputStream(journalFile.toPath()))) {
+            for (int next = input.read(); next >= 0; next = input.read()) {
+                position++;
+                if (next != RECORD_END) {
+                    record.write(next);
+                    continue;
+                }
+                String line = record.toString(StandardCharsets.UTF_8);
+                record.reset();
+                complete = position;
+                action.accept(line.endsWith("\r") ? line.substring(0, line.length() - 1) : line);
+            }
+        }
+        return complete;
+    }
+
+    //Отрезаем журнал до length байт, например недописанную при сбое запись
+    public void truncateTo(long length) {
+        close();
+        try (FileChannel channel = FileChannel.open(journalFile.toPath(), StandardOpenOption.WRITE)) {
+            channel.truncate(length);
+        } catch (IOException e) {
+            throw new ManagerSaveException("Не удалось обрезать журнал: " + e.getMessage());
+        }
+    }
+
+    public void truncate() {
+        close();
+        try {
+            new FileWriter(journalFile, StandardCharsets.UTF_8).close();
+            size = 0;
+        } catch (IOException e) {
+            throw new ManagerSaveException("Не удалось очистить журнал: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public void close() {
+        if (writer == null) {
+            return;
+        }
+        try {
+            writer.close();
+        } catch (IOException e) {
+            throw new ManagerSaveException("Не удалось закрыть журнал: " + e.getMessage());
+        } finally {
+            writer = null;
+        }
+    }
+}
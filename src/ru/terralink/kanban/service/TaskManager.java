@@ -2,20 +2,34 @@ package ru.terralink.kanban.service;
 
 import ru.terralink.kanban.model.Subtask;
 import ru.terralink.kanban.model.Task;
+import ru.terralink.kanban.model.TaskSnapshot;
+import ru.terralink.kanban.model.TaskStatus;
 import ru.terralink.kanban.model.TaskType;
 
+import java.time.Duration;
+import java.time.LocalDateTime;
 import java.util.List;
 
 public interface TaskManager {
 
     List<Task> getTasksByType(TaskType type);
 
+    List<Task> getTasksByType(TaskType type, TaskStatus status, int afterId, int limit);
+
+    List<TaskSnapshot> getTaskSnapshotsByType(TaskType type);
+
+    List<TaskSnapshot> getTaskSnapshotsByType(TaskType type, TaskStatus status, int afterId, int limit);
+
     boolean removeTasksByType(TaskType type);
 
     Task getTaskByIdAndType(int id, TaskType type);
 
     Task getTaskById(int id);
 
+    TaskSnapshot getTaskSnapshotByIdAndType(int id, TaskType type);
+
+    TaskSnapshot getTaskSnapshotById(int id);
+
     int createTaskByType(Task task, TaskType type);
 
     int createTask(Task task);
@@ -28,11 +42,35 @@ public interface TaskManager {
 
     int deleteTaskById(int id);
 
+    int[] createTasks(List<Task> tasks);
+
+    int[] updateTasks(List<Task> tasks);
+
+    int[] deleteTasks(int[] ids);
+
+    int[] applyBatch(List<TaskOperation> operations);
+
     List<Subtask> getSubtasksByEpic(int id);
 
+    List<TaskSnapshot> getSubtaskSnapshotsByEpic(int id);
+
     List<Task> getHistory();
 
+    List<Task> getHistory(int offset, int limit);
+
+    List<TaskSnapshot> getHistorySnapshots(int offset, int limit);
+
     List<Task> getPrioritizedTasks();
 
+    List<Task> getPrioritizedTasks(LocalDateTime from, LocalDateTime to, TaskStatus status, int limit);
+
+    List<TaskSnapshot> getPrioritizedTaskSnapshots(LocalDateTime from, LocalDateTime to, TaskStatus status, int limit);
+
     boolean validateTaskDeadlines(Task task);
+
+    List<Task> getConflictingTasks(Task task, int limit);
+
+    LocalDateTime findFreeSlot(Duration duration, LocalDateTime notBefore, LocalDateTime notAfter);
+
+    List<LocalDateTime> findFreeSlots(Duration duration, LocalDateTime notBefore, LocalDateTime notAfter, int count);
 }
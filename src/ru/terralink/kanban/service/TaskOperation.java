@@ -0,0 +1,27 @@
+package ru.terralink.kanban.service;
+
+import ru.terralink.kanban.model.Task;
+
+/* Одна операция смешанного пакета для TaskManager.applyBatch: создание или обновление задачи task
+* либо удаление задачи с id. У обновления id берется из самой задачи */
+
+public record TaskOperation(Kind kind, Task task, int id) {
+
+    public enum Kind {
+        CREATE,
+        UPDATE,
+        DELETE
+    }
+
+    public static TaskOperation create(Task task) {
+        return new TaskOperation(Kind.CREATE, task, 0);
+    }
+
+    public static TaskOperation update(Task task) {
+        return new TaskOperation(Kind.UPDATE, task, task.getId());
+    }
+
+    public static TaskOperation delete(int id) {
+        return new TaskOperation(Kind.DELETE, null, id);
+    }
+}
@@ -0,0 +1,17 @@
+package ru.terralink.kanban.service;
+
+import ru.terralink.kanban.model.Task;
+
+import java.io.IOException;
+
+/* Запись снимка доски в одном из форматов: заголовок, задачи в порядке TASK, EPIC, SUBTASK и завершение */
+
+public interface TaskSnapshotWriter {
+
+    void writeHeader() throws IOException;
+
+    void write(Task task) throws IOException;
+
+    //дописывает все, что осталось в буфере. Сам канал закрывает вызывающий
+    void finish() throws IOException;
+}
@@ -0,0 +1,348 @@
+package ru.terralink.kanban.util;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.BiConsumer;
+
+/* Хэш-таблица с ключами int без упаковки в Integer. Открытая адресация с линейным пробированием:
+* ключи и значения лежат в двух параллельных массивах, поэтому на элемент не приходится
+* ни объекта Integer, ни узла, как в HashMap. Удаленные ячейки помечаются надгробием
+* и вычищаются при следующем перехэшировании.
+* Хэш - ключ со смешанными старшими битами, как у HashMap для Integer. Поэтому только плотные небольшие id
+* (неотрицательные, меньше размера таблицы, без столкновений) ложатся каждый в свою ячейку и обходятся по возрастанию.
+* В остальных случаях порядок обхода не определен и не обязан совпадать с HashMap - полагаться на него нельзя.
+* null в качестве значения не хранится. Для горячих путей есть методы с примитивным ключом */
+
+public class IntHashMap<V> extends AbstractMap<Integer, V> {
+    private static final int DEFAULT_CAPACITY = 16;
+    private static final float LOAD_FACTOR = 0.75f;
+    private static final Object TOMBSTONE = new Object();
+
+    private int[] keys;
+    private Object[] values; //null - свободная ячейка, TOMBSTONE - удаленная
+    private int size;
+    private int tombstones;
+    private int threshold;
+    private int modCount;
+    private Set<Entry<Integer, V>> entrySet;
+
+    public IntHashMap() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public IntHashMap(int expectedSize) {
+        int capacity = DEFAULT_CAPACITY;
+        while (capacity * LOAD_FACTOR < expectedSize) {
+            capacity <<= 1;
+        }
+        allocate(capacity);
+    }
+
+    public IntHashMap(IntHashMap<? extends V> other) {
+        keys = other.keys.clone();
+        values = other.values.clone();
+        size = other.size;
+        tombstones = other.tombstones;
+        threshold = other.threshold;
+        modCount = other.modCount;
+    }
+
+    private void allocate(int capacity) {
+        keys = new int[capacity];
+        values = new Object[capacity];
+        threshold = (int) (capacity * LOAD_FACTOR);
+    }
+
+    private static int hash(int key) {
+        return key ^ (key >>> 16);
+    }
+
+    //Ячейка с ключом или -1, если ключа нет
+    private int indexOf(int key) {
+        int mask = keys.length - 1;
+        int index = hash(key) & mask;
+        Object value;
+        while ((value = values[index]) != null) {
+            if (value != TOMBSTONE && keys[index] == key) {
+                return index;
+            }
+            index = (index + 1) & mask;
+        }
+        return -1;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public boolean containsKey(int key) {
+        return indexOf(key) >= 0;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return key instanceof Integer && containsKey(((Integer) key).intValue());
+    }
+
+    @SuppressWarnings("unchecked")
+    public V get(int key) {
+        int index = indexOf(key);
+        return index < 0 ? null : (V) values[index];
+    }
+
+    @Override
+    public V get(Object key) {
+        return key instanceof Integer ? get(((Integer) key).intValue()) : null;
+    }
+
+    @SuppressWarnings("unchecked")
+    public V put(int key, V value) {
+        Objects.requireNonNull(value, "IntHashMap не хранит null в качестве значения");
+        int mask = keys.length - 1;
+        int index = hash(key) & mask;
+        int freeIndex = -1;
+        Object current;
+        while ((current = values[index]) != null) {
+            if (current == TOMBSTONE) {
+                if (freeIndex < 0) {
+                    freeIndex = index;
+                }
+            } else if (keys[index] == key) {
+                values[index] = value;
+                return (V) current;
+            }
+            index = (index + 1) & mask;
+        }
+
+        if (freeIndex >= 0) {
+            tombstones--;
+            index = freeIndex;
+        } else if (size + tombstones + 1 > threshold) {
+            rehash(size + 1 > threshold ? keys.length << 1 : keys.length);
+            return put(key, value);
+        }
+        keys[index] = key;
+        values[index] = value;
+        size++;
+        modCount++;
+        return null;
+    }
+
+    @Override
+    public V put(Integer key, V value) {
+        return put(key.intValue(), value);
+    }
+
+    public V remove(int key) {
+        int index = indexOf(key);
+        return index < 0 ? null : removeAt(index);
+    }
+
+    @Override
+    public V remove(Object key) {
+        return key instanceof Integer ? remove(((Integer) key).intValue()) : null;
+    }
+
+    @SuppressWarnings("unchecked")
+    private V removeAt(int index) {
+        V value = (V) values[index];
+        values[index] = TOMBSTONE;
+        size--;
+        tombstones++;
+        modCount++;
+        return value;
+    }
+
+    @Override
+    public void clear() {
+        if (size > 0 || tombstones > 0) {
+            Arrays.fill(values, null);
+            size = 0;
+            tombstones = 0;
+            modCount++;
+        }
+    }
+
+    private void rehash(int capacity) {
+        int[] oldKeys = keys;
+        Object[] oldValues = values;
+        allocate(capacity);
+        tombstones = 0;
+        int mask = capacity - 1;
+        for (int i = 0; i < oldValues.length; i++) {
+            Object value = oldValues[i];
+            if (value != null && value != TOMBSTONE) {
+                int index = hash(oldKeys[i]) & mask;
+                while (values[index] != null) {
+                    index = (index + 1) & mask;
+                }
+                keys[index] = oldKeys[i];
+                values[index] = value;
+            }
+        }
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void forEach(BiConsumer<? super Integer, ? super V> action) {
+        int expectedModCount = modCount;
+        for (int i = 0; i < values.length; i++) {
+            Object value = values[i];
+            if (value != null && value != TOMBSTONE) {
+                action.accept(keys[i], (V) value);
+            }
+        }
+        if (expectedModCount != modCount) {
+            throw new ConcurrentModificationException();
+        }
+    }
+
+    @Override
+    public Set<Entry<Integer, V>> entrySet() {
+        if (entrySet == null) {
+            entrySet = new EntrySet();
+        }
+        return entrySet;
+    }
+
+    private class EntrySet extends AbstractSet<Entry<Integer, V>> {
+        @Override
+        public Iterator<Entry<Integer, V>> iterator() {
+            return new EntryIterator();
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public void clear() {
+            IntHashMap.this.clear();
+        }
+    }
+
+    private class EntryIterator implements Iterator<Entry<Integer, V>> {
+        private int next = -1;
+        private int current = -1;
+        private int expectedModCount = modCount;
+
+        EntryIterator() {
+            advance();
+        }
+
+        private void advance() {
+            do {
+                next++;
+            } while (next < values.length && (values[next] == null || values[next] == TOMBSTONE));
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next < values.length;
+        }
+
+        @Override
+        public Entry<Integer, V> next() {
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            current = next;
+            advance();
+            return new SlotEntry(current);
+        }
+
+        @Override
+        public void remove() {
+            if (current < 0) {
+                throw new IllegalStateException();
+            }
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+            removeAt(current);
+            current = -1;
+            expectedModCount = modCount;
+        }
+    }
+
+    /*Запись помнит свое значение: после удаления ключа или перехэширования ячейка может оказаться
+    * надгробием или чужой, и тогда запись отдает последнее значение, которое видела, как и у HashMap.
+    * Пока ячейка по-прежнему держит ее ключ, чтение и запись идут в саму таблицу*/
+    private class SlotEntry implements Map.Entry<Integer, V> {
+        private final int index;
+        private final int key;
+        private V value;
+
+        @SuppressWarnings("unchecked")
+        SlotEntry(int index) {
+            this.index = index;
+            this.key = keys[index];
+            this.value = (V) values[index];
+        }
+
+        private boolean isLive() {
+            Object current = values[index];
+            return current != null && current != TOMBSTONE && keys[index] == key;
+        }
+
+        @Override
+        public Integer getKey() {
+            return key;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public V getValue() {
+            if (isLive()) {
+                value = (V) values[index];
+            }
+            return value;
+        }
+
+        @Override
+        public V setValue(V value) {
+            Objects.requireNonNull(value, "IntHashMap не хранит null в качестве значения");
+            V old = getValue();
+            if (isLive()) {
+                values[index] = value;
+            }
+            this.value = value;
+            return old;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Map.Entry<?, ?> entry)) {
+                return false;
+            }
+            return Objects.equals(getKey(), entry.getKey()) && Objects.equals(getValue(), entry.getValue());
+        }
+
+        @Override
+        public int hashCode() {
+            return key ^ Objects.hashCode(getValue());
+        }
+
+        @Override
+        public String toString() {
+            return key + "=" + getValue();
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package ru.terralink.kanban.util;
+
+import java.util.Arrays;
+import java.util.function.IntPredicate;
+
+/* Упорядоченное по возрастанию множество int на примитивных массивах - для постраничного обхода с курсора.
+* Значение больше всех текущих (а id выдаются именно так) просто дописывается в конец, иначе место
+* находится двоичным поиском. Удаление только помечает ячейку, а помеченные вычищаются, когда их становится
+* больше половины, поэтому массовое удаление не сдвигает массив на каждом шаге.
+* Обход с курсора - двоичный поиск и затем подряд только нужные значения (плюс еще не вычищенные удаленные).
+* Массовую загрузку в произвольном порядке делаем через addAll: одна сортировка и одно слияние */
+
+public class IntSortedSet {
+    private static final int DEFAULT_CAPACITY = 16;
+
+    private int[] values = new int[DEFAULT_CAPACITY];
+    private boolean[] removed = new boolean[DEFAULT_CAPACITY];
+    private int length; //занятые ячейки вместе с помеченными удаленными
+    private int removedCount;
+
+    public int size() {
+        return length - removedCount;
+    }
+
+    public void add(int value) {
+        if (length == 0 || value > values[length - 1]) {
+            ensureCapacity(length + 1);
+            values[length++] = value;
+            return;
+        }
+        int index = Arrays.binarySearch(values, 0, length, value);
+        if (index >= 0) {
+            if (removed[index]) {
+                removed[index] = false;
+                removedCount--;
+            }
+            return;
+        }
+        int position = -index - 1;
+        ensureCapacity(length + 1);
+        System.arraycopy(values, position, values, position + 1, length - position);
+        System.arraycopy(removed, position, removed, position + 1, length - position);
+        values[position] = value;
+        removed[position] = false;
+        length++;
+    }
+
+    public void addAll(int[] added) {
+        int[] sorted = added.clone();
+        Arrays.sort(sorted);
+        compact();
+        int[] merged = new int[Math.max(DEFAULT_CAPACITY, length + sorted.length)];
+        int count = 0;
+        int i = 0;
+        int j = 0;
+        while (i < length || j < sorted.length) {
+            int value = j == sorted.length || (i < length && values[i] <= sorted[j]) ? values[i++] : sorted[j++];
+            if (count == 0 || merged[count - 1] != value) {
+                merged[count++] = value;
+            }
+        }
+        values = merged;
+        removed = new boolean[merged.length];
+        length = count;
+    }
+
+    public void remove(int value) {
+        int index = Arrays.binarySearch(values, 0, length, value);
+        if (index < 0 || removed[index]) {
+            return;
+        }
+        removed[index] = true;
+        if (++removedCount > length / 2) {
+            compact();
+        }
+    }
+
+    public void clear() {
+        Arrays.fill(removed, 0, length, false);
+        length = 0;
+        removedCount = 0;
+    }
+
+    //Значения больше after по возрастанию, пока action возвращает true
+    public void forEachAfter(int after, IntPredicate action) {
+        int index = Arrays.binarySearch(values, 0, length, after);
+        for (int i = index >= 0 ? index + 1 : -index - 1; i < length; i++) {
+            if (!removed[i] && !action.test(values[i])) {
+                return;
+            }
+        }
+    }
+
+    private void compact() {
+        if (removedCount == 0) {
+            return;
+        }
+        int count = 0;
+        for (int i = 0; i < length; i++) {
+            if (!removed[i]) {
+                values[count++] = values[i];
+            }
+        }
+        Arrays.fill(removed, 0, length, false);
+        length = count;
+        removedCount = 0;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > values.length) {
+            int newCapacity = Math.max(capacity, values.length * 2);
+            values = Arrays.copyOf(values, newCapacity);
+            removed = Arrays.copyOf(removed, newCapacity);
+        }
+    }
+}
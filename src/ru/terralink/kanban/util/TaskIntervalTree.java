@@ -0,0 +1,396 @@
+package ru.terralink.kanban.util;
+
+import ru.terralink.kanban.model.Task;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/* Интервальное дерево задач по их срокам. Это АВЛ-дерево, упорядоченное по паре (startTime, id),
+* где каждый узел дополнительно помнит максимальное время окончания в своем поддереве.
+* Благодаря этому вопрос "пересекается ли интервал хоть с чем-то, кроме задачи X"
+* решается за логарифм, а не полным проходом по всем задачам с датами.
+* Порядок (startTime, id) заодно делает дерево приоритетным списком: задачи с одинаковым началом
+* не склеиваются, а новая версия задачи замещает старую по id.
+* Задачи без даты начала в дерево не попадают */
+
+public class TaskIntervalTree {
+    private Entry root;
+    private final IntHashMap<Entry> entries;
+
+    public TaskIntervalTree() {
+        entries = new IntHashMap<>();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public boolean isEmpty() {
+        return entries.isEmpty();
+    }
+
+    //Кладем задачу в дерево, предварительно убирая старую запись с тем же id
+    public void put(Task task) {
+        remove(task.getId());
+        if (task.getStartTime() == null) {
+            return;
+        }
+
+        Entry entry = new Entry(task);
+        root = insert(root, entry);
+        entries.put(task.getId(), entry);
+    }
+
+    /*Массовая вставка, например при загрузке. В пустое дерево не вставляем по одной задаче с поворотами,
+    * а сортируем записи по (startTime, id) и собираем идеально сбалансированное дерево за линейное время*/
+    public void putAll(Collection<? extends Task> tasks) {
+        if (!isEmpty()) {
+            tasks.forEach(this::put);
+            return;
+        }
+
+        IntHashMap<Entry> latest = new IntHashMap<>(tasks.size());
+        for (Task task : tasks) {
+            if (task.getStartTime() != null) {
+                latest.put(task.getId(), new Entry(task));
+            } else {
+                latest.remove(task.getId());
+            }
+        }
+        Entry[] sorted = latest.values().toArray(new Entry[0]);
+        Arrays.parallelSort(sorted, (first, second) -> compare(first.start, first.task.getId(), second));
+        root = build(sorted, 0, sorted.length - 1);
+        latest.forEach(entries::put);
+    }
+
+    private static Entry build(Entry[] sorted, int from, int to) {
+        if (from > to) {
+            return null;
+        }
+        int middle = (from + to) >>> 1;
+        Entry node = sorted[middle];
+        node.left = build(sorted, from, middle - 1);
+        node.right = build(sorted, middle + 1, to);
+        node.update();
+        return node;
+    }
+
+    public boolean remove(int id) {
+        Entry entry = entries.remove(id);
+        if (entry == null) {
+            return false;
+        }
+        root = delete(root, entry.start, id);
+        return true;
+    }
+
+    public void clear() {
+        root = null;
+        entries.clear();
+    }
+
+    /*Массовое удаление, например всех задач одного типа. Оставшиеся записи обход выдает уже упорядоченными,
+    * поэтому дерево пересобираем за линейное время, а не удаляем записи по одной с поворотами*/
+    public void removeIf(Predicate<? super Task> filter) {
+        List<Entry> kept = new ArrayList<>(size());
+        inOrder(root, entry -> {
+            if (filter.test(entry.task)) {
+                entries.remove(entry.task.getId());
+            } else {
+                kept.add(entry);
+            }
+        });
+        root = build(kept.toArray(new Entry[0]), 0, kept.size() - 1);
+    }
+
+    private static void inOrder(Entry node, Consumer<Entry> action) {
+        if (node == null) {
+            return;
+        }
+        inOrder(node.left, action);
+        action.accept(node);
+        inOrder(node.right, action);
+    }
+
+    //Все задачи в порядке (startTime, id)
+    public List<Task> toList() {
+        return window(null, null, task -> true, Integer.MAX_VALUE);
+    }
+
+    /*Задачи в порядке (startTime, id), которые начинаются в [from, to) и проходят фильтр, не больше limit штук.
+    * Границы могут быть null - тогда окно с этой стороны открыто. Поддеревья левее from не обходятся,
+    * а обход останавливается на первой задаче после to или на заполненном окне*/
+    public List<Task> window(LocalDateTime from, LocalDateTime to, Predicate<? super Task> filter, int limit) {
+        List<Task> result = new ArrayList<>(Math.max(0, Math.min(limit, size())));
+        if (limit > 0) {
+            collect(root, from, to, filter, limit, result);
+        }
+        return result;
+    }
+
+    //false - окно заполнено или кончилось, обход прекращаем
+    private static boolean collect(Entry node, LocalDateTime from, LocalDateTime to, Predicate<? super Task> filter,
+                                   int limit, List<Task> result) {
+        if (node == null) {
+            return true;
+        }
+        if (from == null || !node.start.isBefore(from)) {
+            if (!collect(node.left, from, to, filter, limit, result)) {
+                return false;
+            }
+            if (to != null && !node.start.isBefore(to)) {
+                return false;
+            }
+            if (filter.test(node.task)) {
+                result.add(node.task);
+                if (result.size() >= limit) {
+                    return false;
+                }
+            }
+        }
+        return collect(node.right, from, to, filter, limit, result);
+    }
+
+    /*Ищем хотя бы одну задачу, пересекающуюся с интервалом [start, end), пропуская задачу excludedId.
+    * Семантика пересечения та же, что и в Task.checkTimeIntersections:
+    * совпадающее начало - всегда пересечение, касание концами - нет*/
+    public boolean hasIntersections(LocalDateTime start, LocalDateTime end, int excludedId) {
+        if (start == null) {
+            return false;
+        }
+        return findIntersection(root, start, end == null ? start : end, excludedId) != null;
+    }
+
+    /*Все задачи, пересекающиеся с интервалом [start, end), кроме excludedId, в порядке (startTime, id), не больше limit.
+    * Обход тот же, что у hasIntersections: поддеревья, которые закончились до start, отсекаются по максимуму концов,
+    * а обход останавливается на первой задаче, которая начинается после end*/
+    public List<Task> intersections(LocalDateTime start, LocalDateTime end, int excludedId, int limit) {
+        List<Task> result = new ArrayList<>();
+        if (start != null && limit > 0) {
+            collectIntersections(root, start, end == null ? start : end, excludedId, limit, result);
+        }
+        return result;
+    }
+
+    //false - набрали limit или дошли до задач после end, обход прекращаем
+    private static boolean collectIntersections(Entry node, LocalDateTime start, LocalDateTime end, int excludedId,
+                                                int limit, List<Task> result) {
+        if (node == null || node.maxEnd.isBefore(start)) {
+            return true;
+        }
+        if (!collectIntersections(node.left, start, end, excludedId, limit, result)) {
+            return false;
+        }
+        if (node.start.isAfter(end)) {
+            return false;
+        }
+        if (node.task.getId() != excludedId && node.intersects(start, end)) {
+            result.add(node.task);
+            if (result.size() >= limit) {
+                return false;
+            }
+        }
+        return collectIntersections(node.right, start, end, excludedId, limit, result);
+    }
+
+    /*Поиск свободных окон длины duration, начиная с notBefore. Слот должен закончиться не позже notAfter (null - без предела).
+    * Идем по промежуткам расписания: пока слот [c, c + duration) с чем-то пересекается, переносим c на конец помехи,
+    * а найдя свободный слот, прыгаем к концу следующей по началу задачи - за ней начинается следующий промежуток.
+    * Каждый шаг стоит логарифм, так что поиск стоит логарифм на каждую обойденную задачу, а не проход по всем.
+    * В один промежуток попадает только один кандидат - самое раннее его начало. Задача нулевой длины
+    * занимает свою минуту начала (совпадающее начало - всегда пересечение), поэтому за нее сдвигаемся на минуту*/
+    public List<LocalDateTime> freeSlots(Duration duration, LocalDateTime notBefore, LocalDateTime notAfter, int count) {
+        List<LocalDateTime> slots = new ArrayList<>();
+        LocalDateTime candidate = notBefore;
+        while (slots.size() < count) {
+            LocalDateTime candidateEnd = candidate.plus(duration);
+            if (notAfter != null && candidateEnd.isAfter(notAfter)) {
+                break;
+            }
+
+            Entry blocking = findIntersection(root, candidate, candidateEnd, Integer.MIN_VALUE);
+            if (blocking != null) {
+                candidate = blocking.end.isAfter(candidate) ? blocking.end : candidate.plusMinutes(1);
+                continue;
+            }
+
+            slots.add(candidate);
+            Entry next = ceiling(root, candidate);
+            if (next == null) {
+                break; //дальше расписание свободно, других промежутков нет
+            }
+            candidate = next.end.isAfter(candidate) ? next.end : candidate.plusMinutes(1);
+        }
+        return slots;
+    }
+
+    //Первая в порядке (startTime, id) задача, которая начинается не раньше start
+    private static Entry ceiling(Entry node, LocalDateTime start) {
+        Entry found = null;
+        while (node != null) {
+            if (node.start.isBefore(start)) {
+                node = node.right;
+            } else {
+                found = node;
+                node = node.left;
+            }
+        }
+        return found;
+    }
+
+    private Entry findIntersection(Entry node, LocalDateTime start, LocalDateTime end, int excludedId) {
+        //в поддереве никто не заканчивается после нашего начала - пересечений там нет
+        if (node == null || node.maxEnd.isBefore(start)) {
+            return null;
+        }
+
+        Entry found = findIntersection(node.left, start, end, excludedId);
+        if (found != null) {
+            return found;
+        }
+
+        if (node.task.getId() != excludedId && node.intersects(start, end)) {
+            return node;
+        }
+
+        //справа только задачи, которые начинаются не раньше текущей
+        if (node.start.isAfter(end)) {
+            return null;
+        }
+        return findIntersection(node.right, start, end, excludedId);
+    }
+
+    private static int compare(LocalDateTime start, int id, Entry entry) {
+        int result = start.compareTo(entry.start);
+        return result != 0 ? result : Integer.compare(id, entry.task.getId());
+    }
+
+    private static Entry insert(Entry node, Entry entry) {
+        if (node == null) {
+            return entry;
+        }
+
+        if (compare(entry.start, entry.task.getId(), node) < 0) {
+            node.left = insert(node.left, entry);
+        } else {
+            node.right = insert(node.right, entry);
+        }
+        return balance(node);
+    }
+
+    private static Entry delete(Entry node, LocalDateTime start, int id) {
+        if (node == null) {
+            return null;
+        }
+
+        int cmp = compare(start, id, node);
+        if (cmp < 0) {
+            node.left = delete(node.left, start, id);
+        } else if (cmp > 0) {
+            node.right = delete(node.right, start, id);
+        } else {
+            if (node.left == null) {
+                return node.right;
+            }
+            if (node.right == null) {
+                return node.left;
+            }
+            //заменяем удаляемый узел минимальным из правого поддерева
+            Entry successor = node.right;
+            while (successor.left != null) {
+                successor = successor.left;
+            }
+            successor.right = deleteMin(node.right);
+            successor.left = node.left;
+            node = successor;
+        }
+        return balance(node);
+    }
+
+    private static Entry deleteMin(Entry node) {
+        if (node.left == null) {
+            return node.right;
+        }
+        node.left = deleteMin(node.left);
+        return balance(node);
+    }
+
+    private static Entry balance(Entry node) {
+        node.update();
+        int factor = height(node.left) - height(node.right);
+        if (factor > 1) {
+            if (height(node.left.left) < height(node.left.right)) {
+                node.left = rotateLeft(node.left);
+            }
+            return rotateRight(node);
+        }
+        if (factor < -1) {
+            if (height(node.right.right) < height(node.right.left)) {
+                node.right = rotateRight(node.right);
+            }
+            return rotateLeft(node);
+        }
+        return node;
+    }
+
+    private static Entry rotateRight(Entry node) {
+        Entry left = node.left;
+        node.left = left.right;
+        left.right = node;
+        node.update();
+        left.update();
+        return left;
+    }
+
+    private static Entry rotateLeft(Entry node) {
+        Entry right = node.right;
+        node.right = right.left;
+        right.left = node;
+        node.update();
+        right.update();
+        return right;
+    }
+
+    private static int height(Entry node) {
+        return node == null ? 0 : node.height;
+    }
+
+    private static class Entry {
+        private final Task task;
+        private final LocalDateTime start;
+        private final LocalDateTime end;
+        private LocalDateTime maxEnd;
+        private int height;
+        private Entry left;
+        private Entry right;
+
+        Entry(Task task) {
+            this.task = task;
+            this.start = task.getStartTime();
+            this.end = task.getEndTime();
+            this.maxEnd = end;
+            this.height = 1;
+        }
+
+        boolean intersects(LocalDateTime otherStart, LocalDateTime otherEnd) {
+            return start.isEqual(otherStart) || (start.isBefore(otherEnd) && otherStart.isBefore(end));
+        }
+
+        void update() {
+            height = 1 + Math.max(height(left), height(right));
+            maxEnd = end;
+            if (left != null && left.maxEnd.isAfter(maxEnd)) {
+                maxEnd = left.maxEnd;
+            }
+            if (right != null && right.maxEnd.isAfter(maxEnd)) {
+                maxEnd = right.maxEnd;
+            }
+        }
+    }
+}
@@ -2,6 +2,7 @@ package ru.terralink.kanban.util;
 
 import ru.terralink.kanban.model.*;
 
+import java.time.DateTimeException;
 import java.time.Duration;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
@@ -11,9 +12,16 @@ import java.util.*;
 import static ru.terralink.kanban.model.TaskType.*;
 
 public class TaskUtils {
-    public static final String TEXT_FILE_HEADER = "id,type,name,status,description,epic,startTime,duration,endTime";
+    //заголовок снимков, записанных до появления контрольной суммы: только они могут обходиться без нее
+    public static final String LEGACY_TEXT_FILE_HEADER = "id,type,name,status,description,epic,startTime,duration,endTime";
+    //заголовок снимка, который обязан заканчиваться строкой с контрольной суммой
+    public static final String TEXT_FILE_HEADER = LEGACY_TEXT_FILE_HEADER + ",checksum";
+    //последняя строка снимка: CRC32 всех предыдущих непустых строк, каждая в UTF-8 с '\n' на конце
+    public static final String TEXT_FILE_CHECKSUM_PREFIX = "checksum,";
     public static final DateTimeFormatter DATE_TIME_FORMATTER = DateTimeFormatter.ofPattern("dd-MM-yyyy HH:mm");
     public static final int SECONDS_IN_MINUTE = 60;
+    private static final int TEXT_FIELDS_COUNT = 9;
+    private static final char TEXT_FIELDS_SEPARATOR = ',';
     public static final Map<TaskError, Integer> ERROR_CODES = Map.of(TaskError.UNKNOWN, -1,
                                                               TaskError.INTERSECT, -2,
                                                               TaskError.ABSENT_EPIC, -3);
@@ -23,19 +31,64 @@ public class TaskUtils {
     }
 
     public static String toString(Task task) {
-        return String.format("%s,%s,%s,%s,%s,%s,%s,%s,%s", task.getId(), task.getType(), task.getName(), task.getStatus(),
-                task.getDescription(), task.getType() == SUBTASK ? ((Subtask)task).getEpicId() : "",
-                task.getStartTime() != null ? task.getStartTime().format(DATE_TIME_FORMATTER) : "",
-                task.getDuration() != null ? task.getDuration().getSeconds() / SECONDS_IN_MINUTE : "",
-                task.getType() == EPIC && (task).getEndTime() != null  ? (task).getEndTime().format(DATE_TIME_FORMATTER) : "");
+        return appendTo(new StringBuilder(64), task).toString();
     }
 
-    public static Task fromString(String value) throws IllegalArgumentException {
+    /*Дописываем строку задачи прямо в переданный буфер, без String.format и промежуточных строк.
+    * Результат побайтно совпадает с прежним форматом: id,type,name,status,description,epic,startTime,duration,endTime */
+    public static StringBuilder appendTo(StringBuilder builder, Task task) {
+        TaskType type = task.getType();
+        builder.append(task.getId()).append(TEXT_FIELDS_SEPARATOR)
+                .append(type).append(TEXT_FIELDS_SEPARATOR)
+                .append(task.getName()).append(TEXT_FIELDS_SEPARATOR)
+                .append(task.getStatus()).append(TEXT_FIELDS_SEPARATOR)
+                .append(task.getDescription()).append(TEXT_FIELDS_SEPARATOR);
+        if (type == SUBTASK) {
+            builder.append(((Subtask) task).getEpicId());
+        }
+        builder.append(TEXT_FIELDS_SEPARATOR);
+        if (task.getStartTime() != null) {
+            appendDateTime(builder, task.getStartTime());
+        }
+        builder.append(TEXT_FIELDS_SEPARATOR);
+        if (task.getDuration() != null) {
+            builder.append(task.getDuration().getSeconds() / SECONDS_IN_MINUTE);
+        }
+        builder.append(TEXT_FIELDS_SEPARATOR);
+        if (type == EPIC && task.getEndTime() != null) {
+            appendDateTime(builder, task.getEndTime());
+        }
+        return builder;
+    }
 
-        String[] elements = value.split(",", -1);
-        if (elements.length != 9) {
-            throw new IllegalArgumentException("Количество элементов в строке не соответствует модели данных");
+    /*Тот же dd-MM-yyyy HH:mm, что и у DATE_TIME_FORMATTER, но цифрами напрямую в буфер.
+    * Годы вне 1..9999 форматтер пишет по-своему (со знаком или в другой эре), их оставляем ему*/
+    public static void appendDateTime(StringBuilder builder, LocalDateTime dateTime) {
+        int year = dateTime.getYear();
+        if (year < 1 || year > 9999) {
+            builder.append(dateTime.format(DATE_TIME_FORMATTER));
+            return;
         }
+        appendDigits(builder, dateTime.getDayOfMonth(), 2);
+        builder.append('-');
+        appendDigits(builder, dateTime.getMonthValue(), 2);
+        builder.append('-');
+        appendDigits(builder, year, 4);
+        builder.append(' ');
+        appendDigits(builder, dateTime.getHour(), 2);
+        builder.append(':');
+        appendDigits(builder, dateTime.getMinute(), 2);
+    }
+
+    private static void appendDigits(StringBuilder builder, int value, int width) {
+        for (int divider = width == 4 ? 1000 : 10; divider > 0; divider /= 10) {
+            builder.append((char) ('0' + value / divider % 10));
+        }
+    }
+
+    public static Task fromString(String value) throws IllegalArgumentException {
+
+        String[] elements = splitFields(value);
 
         int id;
         try {
@@ -70,7 +123,7 @@ public class TaskUtils {
         LocalDateTime startTime = null;
         if (!elements[6].isBlank()) {
             try {
-                startTime = LocalDateTime.parse(elements[6], DATE_TIME_FORMATTER);
+                startTime = parseDateTime(elements[6]);
             } catch (DateTimeParseException e) {
                 throw new IllegalArgumentException("Не удалось прочитать дату начала объекта");
             }
@@ -88,7 +141,7 @@ public class TaskUtils {
         LocalDateTime endTime = null;
         if (!elements[8].isBlank()) {
             try {
-                endTime = LocalDateTime.parse(elements[8], DATE_TIME_FORMATTER);
+                endTime = parseDateTime(elements[8]);
             } catch (DateTimeParseException e) {
                 throw new IllegalArgumentException("Не удалось прочитать дату конца объекта");
             }
@@ -114,4 +167,59 @@ public class TaskUtils {
 
         return parsedObject;
     }
+
+    /*Режем строку по запятым одним проходом indexOf, без регулярных выражений и промежуточных списков.
+    * Пустые поля, в том числе в конце строки, сохраняются, как у split(",", -1)*/
+    private static String[] splitFields(String value) {
+        String[] elements = new String[TEXT_FIELDS_COUNT];
+        int count = 0;
+        int start = 0;
+        int end;
+        while ((end = value.indexOf(TEXT_FIELDS_SEPARATOR, start)) >= 0) {
+            if (count == TEXT_FIELDS_COUNT - 1) {
+                throw new IllegalArgumentException("Количество элементов в строке не соответствует модели данных");
+            }
+            elements[count++] = value.substring(start, end);
+            start = end + 1;
+        }
+        if (count != TEXT_FIELDS_COUNT - 1) {
+            throw new IllegalArgumentException("Количество элементов в строке не соответствует модели данных");
+        }
+        elements[count] = value.substring(start);
+        return elements;
+    }
+
+    /*Дата всегда пишется как dd-MM-yyyy HH:mm, поэтому разбираем ее по позициям.
+    * Все, что не похоже на этот вид или не прошло проверку LocalDateTime, отдаем форматтеру,
+    * чтобы сохранить его поведение и сообщения об ошибках*/
+    private static LocalDateTime parseDateTime(String value) throws DateTimeParseException {
+        if (value.length() == 16 && value.charAt(2) == '-' && value.charAt(5) == '-'
+                && value.charAt(10) == ' ' && value.charAt(13) == ':') {
+            int day = parseDigits(value, 0, 2);
+            int month = parseDigits(value, 3, 5);
+            int year = parseDigits(value, 6, 10);
+            int hour = parseDigits(value, 11, 13);
+            int minute = parseDigits(value, 14, 16);
+            if (day >= 0 && month >= 0 && year > 0 && hour >= 0 && minute >= 0) {
+                try {
+                    return LocalDateTime.of(year, month, day, hour, minute);
+                } catch (DateTimeException e) {
+                    //например, 31 февраля - пусть решает форматтер
+                }
+            }
+        }
+        return LocalDateTime.parse(value, DATE_TIME_FORMATTER);
+    }
+
+    private static int parseDigits(String value, int from, int to) {
+        int result = 0;
+        for (int i = from; i < to; i++) {
+            char digit = value.charAt(i);
+            if (digit < '0' || digit > '9') {
+                return -1;
+            }
+            result = result * 10 + (digit - '0');
+        }
+        return result;
+    }
 }
@@ -0,0 +1,173 @@
+package ru.terralink.kanban.http;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.terralink.kanban.http.handler.BatchHttpHandler;
+import ru.terralink.kanban.http.json.adapter.TaskGson;
+import ru.terralink.kanban.model.Epic;
+import ru.terralink.kanban.model.Subtask;
+import ru.terralink.kanban.model.Task;
+import ru.terralink.kanban.model.TaskStatus;
+import ru.terralink.kanban.model.TaskType;
+import ru.terralink.kanban.service.InMemoryTaskManager;
+import ru.terralink.kanban.service.TaskManager;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class HttpTaskServerBatchTest {
+    HttpTaskServer taskServer;
+    TaskManager manager;
+
+    @BeforeEach
+    public void setUp() {
+        manager = new InMemoryTaskManager();
+        taskServer = new HttpTaskServer();
+        taskServer.start(manager);
+    }
+
+    @AfterEach
+    public void shutDown() {
+        taskServer.stop();
+    }
+
+    private static JsonObject operation(String operation, TaskType type, Integer id, Task task) {
+        JsonObject json = new JsonObject();
+        json.addProperty("operation", operation);
+        if (type != null) {
+            json.addProperty("type", type.name());
+        }
+        if (id != null) {
+            json.addProperty("id", id);
+        }
+        if (task != null) {
+            json.add("task", TaskGson.getGson().toJsonTree(task));
+        }
+        return json;
+    }
+
+    private HttpResponse<String> sendBatch(JsonArray operations) throws IOException, InterruptedException {
+        return sendBatch(operations.toString());
+    }
+
+    private HttpResponse<String> sendBatch(String body) throws IOException, InterruptedException {
+        HttpClient client = HttpClient.newHttpClient();
+        URI url = URI.create("http://localhost:8080/batch");
+        HttpRequest request = HttpRequest.newBuilder().uri(url).POST(HttpRequest.BodyPublishers.ofString(body)).build();
+        return client.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    @Test
+    public void httpTaskServerAppliesBatchInOrder() throws IOException, InterruptedException {
+        int epicId = manager.createTask(new Epic("Эпик", "Эпик"));
+        Task oldTask = new Task("Старая задача", "Старая задача");
+        oldTask.setStartTime(LocalDateTime.of(2023, 1, 1, 10, 0));
+        oldTask.setDuration(Duration.ofMinutes(60));
+        int oldTaskId = manager.createTask(oldTask);
+
+        Subtask subtask = new Subtask(0, "Подзадача", "Подзадача", epicId);
+        subtask.setStartTime(LocalDateTime.of(2024, 1, 1, 10, 0));
+        subtask.setDuration(Duration.ofMinutes(60));
+        Task overlapping = new Task("Пересечение", "Пересечение");
+        overlapping.setStartTime(LocalDateTime.of(2024, 1, 1, 10, 30));
+        overlapping.setDuration(Duration.ofMinutes(60));
+        Subtask done = new Subtask(0, "Подзадача", "Подзадача", epicId);
+        done.setStartTime(subtask.getStartTime());
+        done.setDuration(subtask.getDuration());
+        done.setStatus(TaskStatus.DONE);
+
+        JsonArray operations = new JsonArray();
+        operations.add(operation("CREATE", TaskType.SUBTASK, null, subtask));
+        operations.add(operation("CREATE", TaskType.TASK, null, overlapping));
+        operations.add(operation("UPDATE", TaskType.SUBTASK, 3, done));
+        operations.add(operation("DELETE", null, oldTaskId, null));
+        operations.add(operation("DELETE", null, 100, null));
+
+        HttpResponse<String> response = sendBatch(operations);
+        assertEquals(200, response.statusCode());
+        assertArrayEquals(new int[]{3, -2, 0, 0, -1}, TaskGson.getGson().fromJson(response.body(), int[].class),
+                "Сервер вернул неверные коды операций пакета");
+
+        assertEquals(1, manager.getTasksByType(TaskType.SUBTASK).size(), "Сервер не создал подзадачу пакетом");
+        assertEquals(0, manager.getTasksByType(TaskType.TASK).size(), "Сервер не применил удаления пакета");
+        assertEquals(TaskStatus.DONE, manager.getTaskById(epicId).getStatus(), "Сервер не пересчитал статус эпика после пакета");
+    }
+
+    @Test
+    public void httpTaskServerRejectsBrokenBatch() throws IOException, InterruptedException {
+        JsonArray operations = new JsonArray();
+        operations.add(operation("MOVE", TaskType.TASK, 1, null));
+
+        assertEquals(400, sendBatch(operations).statusCode(), "Сервер принял неизвестную операцию пакета");
+        assertEquals(400, sendBatch("[{\"operation\":\"CREATE\",\"type\":\"TASK\",\"task\":{").statusCode(),
+                "Сервер принял обрезанный пакет");
+        assertEquals(400, sendBatch("[{\"operation\":\"DELETE\",\"id\":\"один\"}]").statusCode(),
+                "Сервер принял пакет с неверным id");
+    }
+
+    @Test
+    public void httpTaskServerRejectsTooLargeBatchWithoutChanges() throws IOException, InterruptedException {
+        int taskId = manager.createTask(new Task("Задача", "Задача"));
+        JsonArray operations = new JsonArray();
+        for (int i = 0; i <= BatchHttpHandler.MAX_BATCH_SIZE; i++) {
+            operations.add(operation("DELETE", null, taskId, null));
+        }
+
+        HttpResponse<String> response = sendBatch(operations);
+        assertEquals(400, response.statusCode(), "Сервер принял пакет больше допустимого");
+        assertNotNull(manager.getTaskById(taskId), "Сервер применил часть слишком большого пакета");
+    }
+
+    @Test
+    public void httpTaskServerAppliesLargeMixedBatch() throws IOException, InterruptedException {
+        int epicId = manager.createTask(new Epic("Эпик", "Эпик"));
+        JsonArray operations = new JsonArray();
+        for (int i = 0; i < 2500; i++) {
+            Subtask subtask = new Subtask(0, "Подзадача " + i, "Подзадача " + i, epicId);
+            subtask.setStartTime(LocalDateTime.of(2024, 1, 1, 0, 0).plusHours(i));
+            subtask.setDuration(Duration.ofMinutes(30));
+            operations.add(operation("CREATE", TaskType.SUBTASK, null, subtask));
+        }
+        for (int i = 0; i < 1200; i++) {
+            operations.add(operation("DELETE", null, 2 + 2 * i, null));
+        }
+
+        HttpResponse<String> response = sendBatch(operations);
+        assertEquals(200, response.statusCode());
+        int[] results = TaskGson.getGson().fromJson(response.body(), int[].class);
+        assertEquals(3700, results.length, "Сервер вернул не все коды операций пакета");
+        assertEquals(2501, results[2499], "Сервер неверно выдал id задачам пакета");
+        assertEquals(0, results[3699], "Сервер не применил удаления пакета");
+        assertEquals(1300, manager.getSubtasksByEpic(epicId).size(), "Сервер неверно применил большой смешанный пакет");
+    }
+
+    @Test
+    public void httpTaskServerRejectsBatchBrokenInTheMiddleWithoutPartialState() throws IOException, InterruptedException {
+        int epicId = manager.createTask(new Epic("Эпик", "Эпик"));
+        JsonArray operations = new JsonArray();
+        for (int i = 0; i < 1500; i++) {
+            operations.add(operation("CREATE", TaskType.SUBTASK, null, new Subtask(0, "Подзадача " + i, "Подзадача " + i, epicId)));
+        }
+        operations.add(operation("CREATE", null, null, null));
+        for (int i = 0; i < 10; i++) {
+            operations.add(operation("CREATE", TaskType.SUBTASK, null, new Subtask(0, "Еще подзадача " + i, "Еще подзадача " + i, epicId)));
+        }
+
+        HttpResponse<String> response = sendBatch(operations);
+        assertEquals(400, response.statusCode());
+        assertTrue(manager.getSubtasksByEpic(epicId).isEmpty(), "Сервер применил часть сломанного пакета");
+    }
+}
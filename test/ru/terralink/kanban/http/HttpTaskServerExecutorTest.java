@@ -0,0 +1,69 @@
+package ru.terralink.kanban.http;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import ru.terralink.kanban.http.json.adapter.TaskGson;
+import ru.terralink.kanban.model.Task;
+import ru.terralink.kanban.model.TaskType;
+import ru.terralink.kanban.service.Managers;
+import ru.terralink.kanban.service.TaskManager;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class HttpTaskServerExecutorTest {
+    private static final int REQUESTS = 50;
+
+    @AfterEach
+    public void shutDown() {
+        HttpTaskServer.stop();
+    }
+
+    @ParameterizedTest
+    @EnumSource(ExecutorType.class)
+    public void httpTaskServerHandlesParallelRequestsWithEveryExecutor(ExecutorType executorType) {
+        TaskManager manager = Managers.getConcurrentTaskManager();
+        HttpTaskServerConfig config = new HttpTaskServerConfig();
+        config.setExecutorType(executorType);
+        config.setThreads(4);
+        HttpTaskServer.start(manager, config);
+
+        HttpClient client = HttpClient.newHttpClient();
+        URI url = URI.create("http://localhost:8080/tasks");
+        List<CompletableFuture<HttpResponse<String>>> responses = new ArrayList<>();
+        for (int i = 0; i < REQUESTS; i++) {
+            String taskJson = TaskGson.getGson().toJson(new Task("Задача " + i, "Описание задачи " + i));
+            HttpRequest request = HttpRequest.newBuilder().uri(url).POST(HttpRequest.BodyPublishers.ofString(taskJson)).build();
+            responses.add(client.sendAsync(request, HttpResponse.BodyHandlers.ofString()));
+        }
+
+        responses.forEach(response -> assertEquals(201, response.join().statusCode(), "Сервер не создал задачу при параллельных запросах"));
+        assertEquals(REQUESTS, manager.getTasksByType(TaskType.TASK).size(), "Сервер потерял задачи при параллельных запросах");
+    }
+
+    @Test
+    public void httpTaskServerConfigReadsArguments() throws IOException {
+        HttpTaskServerConfig config = HttpTaskServerConfig.fromArgs(new String[]{"--port=9090", "--backlog=256", "--executor=virtual",
+                "--historyStaleness=100"});
+
+        assertEquals(9090, config.getPort(), "Неверно прочитан порт сервера");
+        assertEquals(256, config.getBacklog(), "Неверно прочитан размер очереди соединений");
+        assertEquals(ExecutorType.VIRTUAL, config.getExecutorType(), "Неверно прочитан тип исполнителя");
+        assertEquals(100, config.getHistoryStalenessMillis(), "Неверно прочитано допустимое отставание истории");
+        Assertions.assertThrows(IllegalArgumentException.class, () -> HttpTaskServerConfig.fromArgs(new String[]{"--executor=magic"}),
+                "Конфигурация приняла неизвестный тип исполнителя");
+        Assertions.assertThrows(IllegalArgumentException.class, () -> HttpTaskServerConfig.fromArgs(new String[]{"--historyStaleness=100"}),
+                "Конфигурация приняла асинхронную историю для одного потока-диспетчера");
+    }
+}
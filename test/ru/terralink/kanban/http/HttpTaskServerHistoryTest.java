@@ -79,4 +79,32 @@ public class HttpTaskServerHistoryTest {
         HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
         assertEquals(405, response.statusCode(), "Сервер не сообщил о неподдерживаемом методе");
     }
+
+    @Test
+    public void httpTaskServerGetsHistoryPage() throws IOException, InterruptedException {
+        for (int i = 0; i < 5; i++) {
+            manager.createTask(new Task("Задача " + i, "Задача " + i));
+        }
+        for (int id = 5; id >= 1; id--) {
+            manager.getTaskById(id);
+        }
+
+        HttpClient client = HttpClient.newHttpClient();
+        URI url = URI.create("http://localhost:8080/history?offset=1&limit=2");
+        HttpResponse<String> response = client.send(HttpRequest.newBuilder().uri(url).GET().build(), HttpResponse.BodyHandlers.ofString());
+        assertEquals(200, response.statusCode());
+
+        Type listType = new TypeToken<List<Task>>() {}.getType();
+        List<Task> requestedTasks = TaskGson.getGson().fromJson(response.body(), listType);
+        assertEquals(List.of(4, 3), requestedTasks.stream().map(Task::getId).toList(), "Сервер отправил неверную страницу истории");
+
+        url = URI.create("http://localhost:8080/history?offset=10");
+        response = client.send(HttpRequest.newBuilder().uri(url).GET().build(), HttpResponse.BodyHandlers.ofString());
+        assertEquals(200, response.statusCode());
+        assertEquals("[]", response.body(), "Сервер отправил непустую страницу за концом истории");
+
+        url = URI.create("http://localhost:8080/history?limit=0");
+        response = client.send(HttpRequest.newBuilder().uri(url).GET().build(), HttpResponse.BodyHandlers.ofString());
+        assertEquals(400, response.statusCode(), "Сервер принял нулевой размер страницы истории");
+    }
 }
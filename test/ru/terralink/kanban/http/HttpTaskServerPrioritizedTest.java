@@ -16,9 +16,11 @@ import ru.terralink.kanban.service.TaskManager;
 import java.io.IOException;
 import java.lang.reflect.Type;
 import java.net.URI;
+import java.net.URLEncoder;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
 import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.List;
@@ -96,4 +98,29 @@ public class HttpTaskServerPrioritizedTest {
         HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
         assertEquals(405, response.statusCode(), "Сервер не сообщил о неподдерживаемом методе");
     }
+
+    @Test
+    public void httpTaskServerGetsPrioritizedWindow() throws IOException, InterruptedException {
+        for (int i = 0; i < 5; i++) {
+            Task task = new Task("Задача " + i, "Задача " + i);
+            task.setStartTime(LocalDateTime.of(2024, 1, 1 + i, 0, 0));
+            task.setDuration(Duration.ofMinutes(120));
+            manager.createTask(task);
+        }
+
+        HttpClient client = HttpClient.newHttpClient();
+        String from = URLEncoder.encode("02-01-2024 00:00", StandardCharsets.UTF_8);
+        String to = URLEncoder.encode("05-01-2024 00:00", StandardCharsets.UTF_8);
+        URI url = URI.create("http://localhost:8080/prioritized?from=" + from + "&to=" + to + "&limit=2");
+        HttpResponse<String> response = client.send(HttpRequest.newBuilder().uri(url).GET().build(), HttpResponse.BodyHandlers.ofString());
+        assertEquals(200, response.statusCode());
+
+        Type listType = new TypeToken<List<Task>>() {}.getType();
+        List<Task> requestedTasks = TaskGson.getGson().fromJson(response.body(), listType);
+        assertEquals(List.of(2, 3), requestedTasks.stream().map(Task::getId).toList(), "Сервер отправил неверное окно приоритетного списка");
+
+        URI brokenUrl = URI.create("http://localhost:8080/prioritized?from=yesterday");
+        response = client.send(HttpRequest.newBuilder().uri(brokenUrl).GET().build(), HttpResponse.BodyHandlers.ofString());
+        assertEquals(400, response.statusCode(), "Сервер принял неверную дату окна");
+    }
 }
@@ -0,0 +1,70 @@
+package ru.terralink.kanban.http;
+
+import com.google.gson.reflect.TypeToken;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.terralink.kanban.http.json.adapter.TaskGson;
+import ru.terralink.kanban.model.Task;
+import ru.terralink.kanban.service.InMemoryTaskManager;
+import ru.terralink.kanban.service.TaskManager;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class HttpTaskServerSlotsTest {
+    HttpTaskServer taskServer;
+    TaskManager manager;
+
+    @BeforeEach
+    public void setUp() {
+        manager = new InMemoryTaskManager();
+        taskServer = new HttpTaskServer();
+        taskServer.start(manager);
+    }
+
+    @AfterEach
+    public void shutDown() {
+        taskServer.stop();
+    }
+
+    private HttpResponse<String> get(String query) throws IOException, InterruptedException {
+        HttpClient client = HttpClient.newHttpClient();
+        URI url = URI.create("http://localhost:8080/slots" + query);
+        return client.send(HttpRequest.newBuilder().uri(url).GET().build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    @Test
+    public void httpTaskServerFindsFreeSlots() throws IOException, InterruptedException {
+        Task task1 = new Task("Задача 1", "Задача 1");
+        task1.setStartTime(LocalDateTime.of(2024, 1, 1, 9, 0));
+        task1.setDuration(Duration.ofMinutes(60));
+        manager.createTask(task1);
+        Task task2 = new Task("Задача 2", "Задача 2");
+        task2.setStartTime(LocalDateTime.of(2024, 1, 1, 11, 0));
+        task2.setDuration(Duration.ofMinutes(60));
+        manager.createTask(task2);
+
+        String notBefore = URLEncoder.encode("01-01-2024 09:00", StandardCharsets.UTF_8);
+        HttpResponse<String> response = get("?duration=60&count=3&notBefore=" + notBefore);
+        assertEquals(200, response.statusCode());
+
+        Type listType = new TypeToken<List<LocalDateTime>>() {}.getType();
+        List<LocalDateTime> slots = TaskGson.getGson().fromJson(response.body(), listType);
+        assertEquals(List.of(LocalDateTime.of(2024, 1, 1, 10, 0), LocalDateTime.of(2024, 1, 1, 12, 0)), slots,
+                "Сервер вернул неверные свободные окна");
+
+        assertEquals(400, get("?notBefore=" + notBefore).statusCode(), "Сервер принял запрос окна без длительности");
+    }
+}
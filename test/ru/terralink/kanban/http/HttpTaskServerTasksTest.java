@@ -1,11 +1,15 @@
 package ru.terralink.kanban.http;
 
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
 import com.google.gson.reflect.TypeToken;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import ru.terralink.kanban.http.json.adapter.TaskGson;
 import ru.terralink.kanban.model.Task;
+import ru.terralink.kanban.model.TaskStatus;
 import ru.terralink.kanban.model.TaskType;
 import ru.terralink.kanban.service.InMemoryTaskManager;
 import ru.terralink.kanban.service.TaskManager;
@@ -227,6 +231,11 @@ public class HttpTaskServerTasksTest {
         request = HttpRequest.newBuilder().uri(url).POST(HttpRequest.BodyPublishers.ofString(taskJson)).build();
         response = client.send(request, HttpResponse.BodyHandlers.ofString());
         assertEquals(406, response.statusCode(), "Сервер не сообщил о пересечении задач по срокам");
+
+        JsonObject error = JsonParser.parseString(response.body()).getAsJsonObject();
+        JsonArray conflicts = error.getAsJsonArray("conflicts");
+        assertEquals(1, conflicts.size(), "Сервер не перечислил задачи, с которыми пересеклась новая");
+        assertEquals(1, conflicts.get(0).getAsJsonObject().get("id").getAsInt(), "Сервер указал не ту задачу в пересечении");
     }
 
     @Test
@@ -248,4 +257,26 @@ public class HttpTaskServerTasksTest {
         HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
         assertEquals(405, response.statusCode(), "Сервер не сообщил о неподдерживаемом методе");
     }
+
+    @Test
+    public void httpTaskServerGetsTaskPageByCursor() throws IOException, InterruptedException {
+        for (int i = 0; i < 5; i++) {
+            Task task = new Task("Задача " + i, "Описание задачи " + i);
+            task.setStatus(i < 3 ? TaskStatus.NEW : TaskStatus.DONE);
+            manager.createTask(task);
+        }
+
+        HttpClient client = HttpClient.newHttpClient();
+        URI url = URI.create("http://localhost:8080/tasks?after=1&limit=2&status=NEW");
+        HttpResponse<String> response = client.send(HttpRequest.newBuilder().uri(url).GET().build(), HttpResponse.BodyHandlers.ofString());
+        assertEquals(200, response.statusCode());
+
+        Type listType = new TypeToken<List<Task>>() {}.getType();
+        List<Task> requestedTasks = TaskGson.getGson().fromJson(response.body(), listType);
+        assertEquals(List.of(2, 3), requestedTasks.stream().map(Task::getId).toList(), "Сервер отправил неверную страницу задач");
+
+        url = URI.create("http://localhost:8080/tasks?limit=0");
+        response = client.send(HttpRequest.newBuilder().uri(url).GET().build(), HttpResponse.BodyHandlers.ofString());
+        assertEquals(400, response.statusCode(), "Сервер принял нулевой размер страницы");
+    }
 }
@@ -116,6 +116,34 @@ public class EpicTest {
 
     }
 
+    @Test
+    void EpicRecalculatesDatesOnSubtaskUpdateAndRemoval() {
+        Epic epic = new Epic(1, "Эпик 1", "Эпик 1");
+        Subtask subtask1 = new Subtask(2, "Подзадача 1", "Подзадача 1", epic);
+        Subtask subtask2 = new Subtask(3, "Подзадача 2", "Подзадача 2", epic);
+        subtask1.setStartTime(LocalDateTime.of(2024, 1, 1,0,0));
+        subtask1.setDuration(Duration.ofMinutes(60));
+        subtask2.setStartTime(LocalDateTime.of(2024, 1, 1,0,0));
+        subtask2.setDuration(Duration.ofMinutes(30));
+        epic.addSubtask(subtask1);
+        epic.addSubtask(subtask2);
+
+        subtask1.setStartTime(LocalDateTime.of(2024, 1, 3,0,0));
+        epic.addSubtask(subtask1);
+        Assertions.assertEquals(LocalDateTime.of(2024, 1, 1,0,0), epic.getStartTime(), "Эпик потерял время начала второй подзадачи с тем же началом");
+        Assertions.assertEquals(LocalDateTime.of(2024, 1, 3,1,0), epic.getEndTime(), "Эпик не пересчитал время конца после изменения подзадачи");
+        Assertions.assertEquals(Duration.ofMinutes(90), epic.getDuration(), "Эпик дважды учел продолжительность передобавленной подзадачи");
+
+        epic.removeSubtask(3);
+        Assertions.assertEquals(LocalDateTime.of(2024, 1, 3,0,0), epic.getStartTime(), "Эпик не пересчитал время начала после удаления подзадачи");
+        Assertions.assertEquals(Duration.ofMinutes(60), epic.getDuration(), "Эпик не пересчитал продолжительность после удаления подзадачи");
+
+        epic.removeSubtask(2);
+        Assertions.assertNull(epic.getStartTime(), "Эпик без подзадач имеет время начала");
+        Assertions.assertNull(epic.getEndTime(), "Эпик без подзадач имеет время конца");
+        Assertions.assertNull(epic.getDuration(), "Эпик без подзадач имеет продолжительность");
+    }
+
     @Test
     void EpicChecksIntersectionsCorrectly(){
         Epic epic1 = new Epic(1,"Эпик 1", "Эпик 1");
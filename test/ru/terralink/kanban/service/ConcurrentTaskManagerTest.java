@@ -0,0 +1,211 @@
+package ru.terralink.kanban.service;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.terralink.kanban.http.json.adapter.TaskGson;
+import ru.terralink.kanban.model.*;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.*;
+
+public class ConcurrentTaskManagerTest extends TaskManagerTest {
+    private static final int THREADS = 8;
+    private static final int SUBTASKS_PER_THREAD = 250;
+
+    @BeforeEach
+    void initTaskManager() {
+        taskManager = Managers.getConcurrentTaskManager();
+        Assertions.assertNotNull(taskManager, "Managers не отдает потокобезопасный менеджер задач");
+    }
+
+    @Test
+    void concurrentTaskManagerKeepsIdsAndEpicsConsistentUnderLoad() throws InterruptedException, ExecutionException {
+        Epic epic = new Epic("Эпик", "Эпик");
+        int epicId = taskManager.createTask(epic);
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS * 2);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<List<Integer>>> writers = new ArrayList<>();
+        List<Future<?>> readers = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            writers.add(executor.submit(() -> {
+                start.await();
+                List<Integer> ids = new ArrayList<>();
+                for (int j = 0; j < SUBTASKS_PER_THREAD; j++) {
+                    Subtask subtask = new Subtask(0, "Подзадача", "Подзадача", epicId);
+                    int id = taskManager.createTaskByType(subtask, TaskType.SUBTASK);
+                    ids.add(id);
+
+                    Subtask done = new Subtask(id, "Подзадача", "Подзадача", epicId);
+                    done.setStatus(TaskStatus.DONE);
+                    taskManager.updateTaskByIdAndType(done, id, TaskType.SUBTASK);
+                }
+                return ids;
+            }));
+            readers.add(executor.submit(() -> {
+                start.await();
+                for (int j = 0; j < SUBTASKS_PER_THREAD; j++) {
+                    List<Subtask> subtasks = taskManager.getSubtasksByEpic(epicId);
+                    if (!subtasks.isEmpty()) {
+                        Task subtask = taskManager.getTaskById(subtasks.get(j % subtasks.size()).getId());
+                        Assertions.assertNotNull(subtask, "Читатель не увидел подзадачу эпика");
+                    }
+                    taskManager.getHistory();
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+
+        Set<Integer> ids = new HashSet<>();
+        for (Future<List<Integer>> writer : writers) {
+            ids.addAll(writer.get());
+        }
+        for (Future<?> reader : readers) {
+            reader.get();
+        }
+        executor.shutdown();
+
+        int total = THREADS * SUBTASKS_PER_THREAD;
+        Assertions.assertEquals(total, ids.size(), "Менеджер выдал одинаковые id разным подзадачам");
+        Assertions.assertEquals(total, taskManager.getTasksByType(TaskType.SUBTASK).size(), "Менеджер потерял подзадачи");
+
+        Epic returnEpic = (Epic) taskManager.getTaskByIdAndType(epicId, TaskType.EPIC);
+        Assertions.assertEquals(total, returnEpic.getSubtasks().size(), "Эпик потерял ссылки на подзадачи");
+        Assertions.assertEquals(TaskStatus.DONE, returnEpic.getStatus(), "Эпик не пересчитал статус после параллельных обновлений");
+    }
+
+    private static Set<Thread> drainerThreads() {
+        Set<Thread> drainers = new HashSet<>(Thread.getAllStackTraces().keySet());
+        drainers.removeIf(thread -> !thread.getName().equals("async-history-manager-drainer"));
+        return drainers;
+    }
+
+    @Test
+    void concurrentTaskManagerRecordsHistoryAsynchronously() throws InterruptedException, ExecutionException {
+        Set<Thread> existingDrainers = drainerThreads();
+        TaskManager asyncManager = Managers.getConcurrentTaskManager(Duration.ofMillis(20));
+        Set<Thread> drainers = drainerThreads();
+        drainers.removeAll(existingDrainers);
+        int tasks = 100;
+        for (int i = 0; i < tasks; i++) {
+            asyncManager.createTask(new Task("Задача", "Задача"));
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<?>> readers = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            int shift = i;
+            readers.add(executor.submit(() -> {
+                for (int j = 0; j < 1000; j++) {
+                    Assertions.assertNotNull(asyncManager.getTaskById(1 + (j + shift) % tasks), "Читатель не увидел задачу");
+                }
+                return null;
+            }));
+        }
+        for (Future<?> reader : readers) {
+            reader.get();
+        }
+        executor.shutdown();
+        asyncManager.deleteTaskById(1);
+        Thread.sleep(50);
+
+        List<Task> history = asyncManager.getHistory();
+        Assertions.assertEquals(tasks - 1, history.size(), "Асинхронная история потеряла просмотры или удаление");
+        Assertions.assertEquals(tasks - 1, new HashSet<>(history).size(), "Асинхронная история хранит дубликаты");
+
+        ((ConcurrentTaskManager) asyncManager).close();
+        for (Thread drainer : drainers) {
+            drainer.join(1000);
+            Assertions.assertFalse(drainer.isAlive(), "Менеджер не остановил поток асинхронной истории при закрытии");
+        }
+    }
+
+    @Test
+    void concurrentTaskManagerReturnsCopiesSafeToSerializeWhileEpicChanges() throws InterruptedException, ExecutionException {
+        int epicId = taskManager.createTask(new Epic("Эпик", "Эпик"));
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> workers = new ArrayList<>();
+        for (int i = 0; i < THREADS / 2; i++) {
+            workers.add(executor.submit(() -> {
+                start.await();
+                for (int j = 0; j < SUBTASKS_PER_THREAD; j++) {
+                    int id = taskManager.createTaskByType(new Subtask(0, "Подзадача", "Подзадача", epicId), TaskType.SUBTASK);
+                    if (j % 2 == 0) {
+                        taskManager.deleteTaskById(id);
+                    }
+                }
+                return null;
+            }));
+            workers.add(executor.submit(() -> {
+                start.await();
+                for (int j = 0; j < SUBTASKS_PER_THREAD; j++) {
+                    for (Task epic : taskManager.getTasksByType(TaskType.EPIC)) {
+                        String json = TaskGson.getGson().toJson(epic);
+                        Epic parsed = TaskGson.getGson().fromJson(json, Epic.class);
+                        Assertions.assertEquals(((Epic) epic).getSubtasks().size(), parsed.getSubtasks().size(),
+                                "Эпик изменился посреди сериализации");
+                    }
+                    TaskGson.getGson().toJson(taskManager.getSubtasksByEpic(epicId));
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> worker : workers) {
+            worker.get();
+        }
+        executor.shutdown();
+
+        Task copy = taskManager.getTasksByType(TaskType.EPIC).get(0);
+        copy.setName("Изменено снаружи");
+        Assertions.assertEquals("Эпик", taskManager.getTaskById(epicId).getName(), "Менеджер отдал в списке хранимую задачу");
+        Assertions.assertEquals(THREADS / 2 * SUBTASKS_PER_THREAD / 2, taskManager.getSubtasksByEpic(epicId).size(),
+                "Эпик потерял подзадачи");
+    }
+
+    @Test
+    void concurrentTaskManagerReturnsCachedSnapshotsSafeToSerializeWhileEpicChanges() throws InterruptedException, ExecutionException {
+        int epicId = taskManager.createTask(new Epic("Эпик", "Эпик"));
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> workers = new ArrayList<>();
+        for (int i = 0; i < THREADS / 2; i++) {
+            workers.add(executor.submit(() -> {
+                start.await();
+                for (int j = 0; j < SUBTASKS_PER_THREAD; j++) {
+                    taskManager.createTaskByType(new Subtask(0, "Подзадача", "Подзадача", epicId), TaskType.SUBTASK);
+                }
+                return null;
+            }));
+            workers.add(executor.submit(() -> {
+                start.await();
+                for (int j = 0; j < SUBTASKS_PER_THREAD; j++) {
+                    for (TaskSnapshot epic : taskManager.getTaskSnapshotsByType(TaskType.EPIC)) {
+                        Epic parsed = TaskGson.getGson().fromJson(TaskGson.getGson().toJson(epic), Epic.class);
+                        Assertions.assertEquals(((EpicSnapshot) epic).subtasks().size(), parsed.getSubtasks().size(),
+                                "Снимок эпика изменился посреди сериализации");
+                    }
+                    TaskGson.getGson().toJson(taskManager.getSubtaskSnapshotsByEpic(epicId));
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> worker : workers) {
+            worker.get();
+        }
+        executor.shutdown();
+
+        Assertions.assertSame(taskManager.getTaskSnapshotsByType(TaskType.EPIC).get(0),
+                taskManager.getTaskSnapshotsByType(TaskType.EPIC).get(0), "Список снимков скопировал неизмененный эпик");
+        Assertions.assertEquals(THREADS / 2 * SUBTASKS_PER_THREAD, taskManager.getSubtaskSnapshotsByEpic(epicId).size(),
+                "Снимок эпика потерял подзадачи");
+    }
+}
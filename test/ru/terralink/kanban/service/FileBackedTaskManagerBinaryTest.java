@@ -0,0 +1,113 @@
+package ru.terralink.kanban.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.terralink.kanban.model.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class FileBackedTaskManagerBinaryTest {
+    List<File> files;
+
+    @BeforeEach
+    void initFiles() {
+        files = new ArrayList<>();
+    }
+
+    @AfterEach
+    void deleteFiles() {
+        files.forEach(File::delete);
+    }
+
+    private File tempFile(String suffix) throws IOException {
+        File file = Files.createTempFile("fileBackedBinaryTest", suffix).toFile();
+        files.add(file);
+        return file;
+    }
+
+    private void fillBoard(TaskManager manager) {
+        Task task = new Task("Задача, с запятой", "Описание\nв две строки");
+        task.setStartTime(LocalDateTime.of(2024, 1, 1, 10, 0));
+        task.setDuration(Duration.ofMinutes(45));
+        manager.createTask(task);
+
+        Epic epic = new Epic("Эпик", "Эпик");
+        manager.createTask(epic);
+        Subtask subtask1 = new Subtask("Подзадача 1", "Подзадача 1", epic);
+        subtask1.setStartTime(LocalDateTime.of(2024, 1, 2, 10, 0));
+        subtask1.setDuration(Duration.ofMinutes(60));
+        subtask1.setStatus(TaskStatus.DONE);
+        manager.createTask(subtask1);
+        manager.createTask(new Subtask("Подзадача 2", "Подзадача 2", epic));
+    }
+
+    @Test
+    void managersLoadBinarySnapshot() throws IOException {
+        File saveFile = tempFile(".bin");
+        TaskManager binaryManager = Managers.getFileBackedTaskManager(saveFile, SnapshotFormat.BINARY);
+        fillBoard(binaryManager);
+        Assertions.assertEquals(SnapshotFormat.BINARY, SnapshotFormat.detect(saveFile), "Менеджер записал снимок не в двоичном формате");
+
+        FileBackedTaskManager loadedManager = (FileBackedTaskManager) Managers.loadFromFile(saveFile);
+        files.add(loadedManager.getSaveFile());
+        Assertions.assertEquals(SnapshotFormat.BINARY, loadedManager.getSnapshotFormat(), "Менеджер сменил формат снимка после загрузки");
+
+        Task task = loadedManager.getTaskById(1);
+        Assertions.assertEquals("Задача, с запятой", task.getName(), "Менеджер неверно прочитал имя с запятой");
+        Assertions.assertEquals("Описание\nв две строки", task.getDescription(), "Менеджер неверно прочитал многострочное описание");
+        Assertions.assertEquals(LocalDateTime.of(2024, 1, 1, 10, 0), task.getStartTime(), "Менеджер неверно прочитал дату начала");
+        Assertions.assertEquals(Duration.ofMinutes(45), task.getDuration(), "Менеджер неверно прочитал продолжительность");
+
+        Epic epic = (Epic) loadedManager.getTaskById(2);
+        Assertions.assertEquals(2, epic.getSubtasks().size(), "Менеджер не связал подзадачи с эпиком");
+        Assertions.assertEquals(TaskStatus.IN_PROGRESS, epic.getStatus(), "Менеджер неверно пересчитал статус эпика");
+        Assertions.assertEquals(LocalDateTime.of(2024, 1, 2, 11, 0), epic.getEndTime(), "Менеджер неверно пересчитал конец эпика");
+        Assertions.assertEquals(TaskStatus.DONE, loadedManager.getTaskById(3).getStatus(), "Менеджер неверно прочитал статус подзадачи");
+    }
+
+    @Test
+    void snapshotConverterKeepsCsvContent() throws IOException {
+        File csvFile = tempFile(".csv");
+        TaskManager csvManager = Managers.getFileBackedTaskManager(csvFile);
+        csvManager.createTask(new Task("Задача", "Задача"));
+        fillBoard(csvManager);
+        csvManager.deleteTaskById(2);
+
+        File binaryFile = tempFile(".bin");
+        File restoredFile = tempFile(".csv");
+        SnapshotConverter.convert(csvFile, binaryFile, SnapshotFormat.BINARY);
+        SnapshotConverter.convert(binaryFile, restoredFile, SnapshotFormat.CSV);
+
+        Assertions.assertEquals(SnapshotFormat.BINARY, SnapshotFormat.detect(binaryFile), "Конвертер записал снимок не в двоичном формате");
+        Assertions.assertTrue(binaryFile.length() < csvFile.length(), "Двоичный снимок получился больше текстового");
+        Assertions.assertEquals(Files.readString(csvFile.toPath()), Files.readString(restoredFile.toPath()),
+                "Снимок изменился после конвертации туда и обратно");
+    }
+
+    @Test
+    void managersRejectDamagedBinarySnapshot() throws IOException {
+        File saveFile = tempFile(".bin");
+        fillBoard(Managers.getFileBackedTaskManager(saveFile, SnapshotFormat.BINARY));
+        byte[] content = Files.readAllBytes(saveFile.toPath());
+
+        File truncatedFile = tempFile(".bin");
+        Files.write(truncatedFile.toPath(), Arrays.copyOf(content, content.length / 2));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> SnapshotFormat.BINARY.read(truncatedFile, task -> { }),
+                "Менеджер принял обрезанный двоичный снимок");
+
+        content[5] = 99;
+        File futureFile = tempFile(".bin");
+        Files.write(futureFile.toPath(), content);
+        Assertions.assertThrows(IllegalArgumentException.class, () -> SnapshotFormat.BINARY.read(futureFile, task -> { }),
+                "Менеджер принял двоичный снимок неизвестной версии");
+    }
+}
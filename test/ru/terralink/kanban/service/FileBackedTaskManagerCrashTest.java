@@ -0,0 +1,172 @@
+package ru.terralink.kanban.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import ru.terralink.kanban.exception.ManagerSaveException;
+import ru.terralink.kanban.model.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+public class FileBackedTaskManagerCrashTest {
+    private static final int CRASHES = 30;
+
+    List<File> files;
+
+    @BeforeEach
+    void initFiles() {
+        files = new ArrayList<>();
+    }
+
+    @AfterEach
+    void deleteFiles() {
+        files.forEach(File::delete);
+    }
+
+    private File tempFile(String suffix) throws IOException {
+        File file = Files.createTempFile("fileBackedCrashTest", suffix).toFile();
+        files.add(file);
+        files.add(new File(file.getPath() + ".tmp"));
+        return file;
+    }
+
+    /*Менеджер, который "падает" после записи crashOffset байт снимка: канал бросает исключение,
+    * как если бы процесс убили посреди записи*/
+    private static class CrashingTaskManager extends FileBackedTaskManager {
+        private long crashOffset = Long.MAX_VALUE;
+
+        CrashingTaskManager(File saveFile, SnapshotFormat snapshotFormat) {
+            super(saveFile, snapshotFormat);
+        }
+
+        @Override
+        protected WritableByteChannel openSnapshotChannel(FileChannel channel) {
+            return new WritableByteChannel() {
+                private long written;
+
+                @Override
+                public int write(ByteBuffer source) throws IOException {
+                    if (written + source.remaining() > crashOffset) {
+                        source.limit(source.position() + (int) (crashOffset - written));
+                        channel.write(source);
+                        throw new IOException("Запись оборвана на байте " + crashOffset);
+                    }
+                    int count = channel.write(source);
+                    written += count;
+                    return count;
+                }
+
+                @Override
+                public boolean isOpen() {
+                    return channel.isOpen();
+                }
+
+                @Override
+                public void close() throws IOException {
+                    channel.close();
+                }
+            };
+        }
+    }
+
+    private void fillBoard(TaskManager manager, int tasks) {
+        Epic epic = new Epic("Эпик", "Эпик");
+        manager.createTask(epic);
+        for (int i = 0; i < tasks; i++) {
+            Subtask subtask = new Subtask("Подзадача " + i, "Описание подзадачи " + i, epic);
+            subtask.setStartTime(LocalDateTime.of(2024, 1, 1, 0, 0).plusHours(i));
+            subtask.setDuration(Duration.ofMinutes(30));
+            manager.createTask(subtask);
+        }
+    }
+
+    @ParameterizedTest
+    @EnumSource(SnapshotFormat.class)
+    void fileBackedTaskManagerKeepsPreviousSnapshotWhenWriterCrashes(SnapshotFormat snapshotFormat) throws IOException {
+        File saveFile = tempFile(snapshotFormat.getFileExtension());
+        CrashingTaskManager manager = new CrashingTaskManager(saveFile, snapshotFormat);
+        fillBoard(manager, 50);
+        byte[] savedContent = Files.readAllBytes(saveFile.toPath());
+
+        Random random = new Random(42);
+        for (int i = 0; i < CRASHES; i++) {
+            manager.crashOffset = random.nextInt(savedContent.length);
+            Task task = new Task("Задача " + i, "Задача " + i);
+            Assertions.assertThrows(ManagerSaveException.class, () -> manager.createTask(task),
+                    "Менеджер не сообщил об оборванной записи на байте " + manager.crashOffset);
+            Assertions.assertArrayEquals(savedContent, Files.readAllBytes(saveFile.toPath()),
+                    "Оборванная запись испортила файл сохранения на байте " + manager.crashOffset);
+            Assertions.assertFalse(new File(saveFile.getPath() + ".tmp").exists(), "Менеджер не убрал временный файл");
+        }
+
+        FileBackedTaskManager loadedManager = (FileBackedTaskManager) Managers.loadFromFile(saveFile);
+        files.add(loadedManager.getSaveFile());
+        Assertions.assertEquals(50, loadedManager.getTasksByType(TaskType.SUBTASK).size(),
+                "Менеджер не загрузил последний целый снимок");
+    }
+
+    @ParameterizedTest
+    @EnumSource(SnapshotFormat.class)
+    void managersRejectSnapshotWithWrongChecksum(SnapshotFormat snapshotFormat) throws IOException {
+        File saveFile = tempFile(snapshotFormat.getFileExtension());
+        fillBoard(new FileBackedTaskManager(saveFile, snapshotFormat), 5);
+        byte[] content = Files.readAllBytes(saveFile.toPath());
+
+        //портим цифру в дате начала: строка остается разборчивой, но сумма не сходится
+        byte[] damaged = content.clone();
+        int position = snapshotFormat == SnapshotFormat.CSV ? new String(content, StandardCharsets.ISO_8859_1).indexOf("-2024") - 1 : content.length / 2;
+        damaged[position] = (byte) (damaged[position] == '1' ? '2' : damaged[position] ^ 1);
+        File damagedFile = tempFile(snapshotFormat.getFileExtension());
+        Files.write(damagedFile.toPath(), damaged);
+        Assertions.assertThrows(IllegalArgumentException.class, () -> snapshotFormat.read(damagedFile, task -> { }),
+                "Менеджер принял снимок с неверной контрольной суммой");
+
+        File truncatedFile = tempFile(snapshotFormat.getFileExtension());
+        Files.write(truncatedFile.toPath(), Arrays.copyOf(content, content.length - 3));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> snapshotFormat.read(truncatedFile, task -> { }),
+                "Менеджер принял снимок с обрезанной контрольной суммой");
+    }
+
+    @ParameterizedTest
+    @EnumSource(SnapshotFormat.class)
+    void managersRejectSnapshotCutAtRecordBoundary(SnapshotFormat snapshotFormat) throws IOException {
+        File saveFile = tempFile(snapshotFormat.getFileExtension());
+        fillBoard(new FileBackedTaskManager(saveFile, snapshotFormat), 5);
+        byte[] content = Files.readAllBytes(saveFile.toPath());
+
+        //CSV режем по началу строки с суммой и по началу последней задачи, двоичный - сразу после байта конца
+        List<Integer> cuts = new ArrayList<>();
+        if (snapshotFormat == SnapshotFormat.CSV) {
+            String text = new String(content, StandardCharsets.ISO_8859_1);
+            int checksumLine = text.lastIndexOf('\n', text.lastIndexOf("checksum,")) + 1;
+            cuts.add(checksumLine);
+            cuts.add(text.lastIndexOf('\n', checksumLine - 2) + 1);
+        } else {
+            cuts.add(content.length - Integer.BYTES);
+        }
+        for (int cut : cuts) {
+            File truncatedFile = tempFile(snapshotFormat.getFileExtension());
+            Files.write(truncatedFile.toPath(), Arrays.copyOf(content, cut));
+            Assertions.assertThrows(IllegalArgumentException.class, () -> snapshotFormat.read(truncatedFile, task -> { }),
+                    "Менеджер принял снимок, обрезанный по границе записи на байте " + cut);
+            if (snapshotFormat == SnapshotFormat.CSV) {
+                Assertions.assertThrows(IllegalArgumentException.class, () -> TaskCsvReader.readParallel(truncatedFile),
+                        "Параллельное чтение приняло снимок, обрезанный по границе строки на байте " + cut);
+            }
+        }
+    }
+}
@@ -0,0 +1,249 @@
+package ru.terralink.kanban.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.terralink.kanban.model.*;
+import ru.terralink.kanban.util.TaskError;
+import ru.terralink.kanban.util.TaskUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
+
+public class FileBackedTaskManagerJournalTest {
+    File saveFile;
+    File journalFile;
+    FileBackedTaskManager taskManager;
+
+    @BeforeEach
+    void initTaskManager() throws IOException {
+        saveFile = Files.createTempFile("fileBackedJournalTest", ".csv").toFile();
+        journalFile = TaskJournal.journalFileFor(saveFile);
+        taskManager = (FileBackedTaskManager) Managers.getJournaledTaskManager(saveFile, 100);
+    }
+
+    @AfterEach
+    void closeTaskManager() {
+        taskManager.close();
+        journalFile.delete();
+    }
+
+    private void fillBoard(TaskManager manager) {
+        Task task = new Task("Задача", "Задача");
+        manager.createTask(task);
+
+        Epic epic = new Epic("Эпик", "Эпик");
+        manager.createTask(epic);
+        Subtask subtask1 = new Subtask("Подзадача 1", "Подзадача 1", epic);
+        manager.createTask(subtask1);
+        Subtask subtask2 = new Subtask("Подзадача 2", "Подзадача 2", epic);
+        manager.createTask(subtask2);
+
+        subtask1.setStatus(TaskStatus.DONE);
+        manager.updateTaskById(subtask1, subtask1.getId());
+        epic.setName("Эпик обновленный");
+        manager.updateTaskById(epic, epic.getId());
+        manager.deleteTaskById(subtask2.getId());
+    }
+
+    //строки снимка без завершающей контрольной суммы
+    private List<String> readSnapshotLines() throws IOException {
+        return Files.readAllLines(saveFile.toPath(), StandardCharsets.UTF_8).stream()
+                .filter(line -> !line.startsWith(TaskUtils.TEXT_FILE_CHECKSUM_PREFIX))
+                .toList();
+    }
+
+    @Test
+    void journaledTaskManagerAppendsMutationsWithoutRewritingSnapshot() throws IOException {
+        fillBoard(taskManager);
+
+        List<String> snapshot = readSnapshotLines();
+        Assertions.assertEquals(List.of(TaskUtils.TEXT_FILE_HEADER), snapshot, "Менеджер переписал снимок до компактирования");
+
+        List<String> journal = Files.readAllLines(journalFile.toPath(), StandardCharsets.UTF_8);
+        Assertions.assertEquals(7, journal.size(), "Менеджер записал в журнал не все мутации");
+        Assertions.assertEquals("D,SUBTASK,4", journal.get(6), "Менеджер неверно записал удаление в журнал");
+    }
+
+    @Test
+    void journaledTaskManagerCompactsJournalIntoSnapshot() throws IOException {
+        taskManager.close();
+        taskManager = (FileBackedTaskManager) Managers.getJournaledTaskManager(saveFile, 3);
+        fillBoard(taskManager);
+
+        List<String> snapshot = readSnapshotLines();
+        Assertions.assertEquals(5, snapshot.size(), "Менеджер не свернул журнал в снимок");
+        Assertions.assertEquals(1, Files.readAllLines(journalFile.toPath(), StandardCharsets.UTF_8).size(),
+                "Менеджер не обнулил журнал после компактирования");
+    }
+
+    @Test
+    void managersReplaySnapshotAndJournal() throws IOException {
+        fillBoard(taskManager);
+        taskManager.close();
+
+        TaskManager loadedManager = Managers.loadFromFile(saveFile);
+        File loadedSaveFile = ((FileBackedTaskManager) loadedManager).getSaveFile();
+        try {
+            Assertions.assertEquals(1, loadedManager.getTasksByType(TaskType.TASK).size(), "Журнал не восстановил задачи");
+            Assertions.assertEquals(1, loadedManager.getTasksByType(TaskType.SUBTASK).size(), "Журнал не восстановил удаление подзадачи");
+
+            Epic epic = (Epic) loadedManager.getTaskById(2);
+            Assertions.assertEquals("Эпик обновленный", epic.getName(), "Журнал не восстановил обновление эпика");
+            Assertions.assertEquals(TaskStatus.DONE, epic.getStatus(), "Журнал не пересчитал статус эпика");
+            Assertions.assertEquals(1, epic.getSubtasks().size(), "Журнал не связал подзадачи с эпиком");
+        } finally {
+            loadedSaveFile.delete();
+        }
+    }
+
+    @Test
+    void journaledTaskManagerReopensBoardInJournalMode() throws IOException {
+        fillBoard(taskManager);
+        taskManager.close();
+
+        taskManager = (FileBackedTaskManager) Managers.getJournaledTaskManager(saveFile, 100);
+        Assertions.assertTrue(taskManager.isJournaling(), "Менеджер открыл доску не в режиме журнала");
+        Assertions.assertEquals(3, taskManager.getTasksByType(TaskType.TASK).size() + taskManager.getTasksByType(TaskType.EPIC).size()
+                + taskManager.getTasksByType(TaskType.SUBTASK).size(), "Менеджер затер доску при повторном открытии");
+        Assertions.assertEquals(4, readSnapshotLines().size(), "Менеджер не свернул доигранный журнал в снимок");
+
+        List<String> snapshot = readSnapshotLines();
+        taskManager.createTask(new Task("Еще задача", "Еще задача"));
+        Assertions.assertEquals(snapshot, readSnapshotLines(), "Открытая заново доска переписала снимок вместо журнала");
+        Assertions.assertEquals(1, Files.readAllLines(journalFile.toPath(), StandardCharsets.UTF_8).size(),
+                "Открытая заново доска не пишет мутации в журнал");
+    }
+
+    @Test
+    void journaledTaskManagerReplaysJournalWithoutSnapshot() throws IOException {
+        fillBoard(taskManager);
+        taskManager.close();
+        Files.write(saveFile.toPath(), new byte[0]);
+
+        taskManager = (FileBackedTaskManager) Managers.getJournaledTaskManager(saveFile, 100);
+        Assertions.assertEquals(1, taskManager.getTasksByType(TaskType.SUBTASK).size(), "Менеджер потерял журнал без снимка");
+    }
+
+    @Test
+    void managersLoadBoardInJournalMode() throws IOException {
+        fillBoard(taskManager);
+        taskManager.close();
+
+        taskManager = (FileBackedTaskManager) Managers.loadFromFile(saveFile, LoadMode.IN_PLACE, 100);
+        Assertions.assertTrue(taskManager.isJournaling(), "Загрузка не включила режим журнала");
+        Assertions.assertEquals("Эпик обновленный", taskManager.getTaskById(2).getName(), "Загрузка не доиграла журнал");
+        Assertions.assertEquals(0, Files.readAllLines(journalFile.toPath(), StandardCharsets.UTF_8).size(),
+                "Загрузка не свернула доигранный журнал");
+    }
+
+    @Test
+    void journaledTaskManagerJournalsMixedBatchOnceAndReplaysIt() throws IOException {
+        fillBoard(taskManager);
+        Task renamed = new Task(1, "Задача обновленная", "Задача");
+        int[] results = taskManager.applyBatch(List.of(
+                TaskOperation.create(new Subtask(0, "Подзадача 3", "Подзадача 3", 2)),
+                TaskOperation.update(renamed),
+                TaskOperation.delete(5),
+                TaskOperation.create(new Task("Еще задача", "Еще задача")),
+                TaskOperation.delete(100)));
+        Assertions.assertArrayEquals(new int[]{5, 0, 0, 6, TaskUtils.ERROR_CODES.get(TaskError.UNKNOWN)}, results,
+                "Менеджер неверно применил смешанную пачку");
+
+        List<String> journal = Files.readAllLines(journalFile.toPath(), StandardCharsets.UTF_8);
+        Assertions.assertEquals(10, journal.size(), "Менеджер записал в журнал лишние или не все операции пачки");
+        Assertions.assertEquals("D,SUBTASK,5", journal.get(8), "Менеджер неверно записал удаление созданной в пачке задачи");
+        taskManager.close();
+
+        taskManager = (FileBackedTaskManager) Managers.loadFromFile(saveFile, LoadMode.IN_PLACE, 100);
+        Assertions.assertEquals("Задача обновленная", taskManager.getTaskById(1).getName(), "Журнал не восстановил обновление из пачки");
+        Assertions.assertEquals(2, taskManager.getTasksByType(TaskType.TASK).size(), "Журнал не восстановил создание из пачки");
+        Assertions.assertEquals(1, taskManager.getTasksByType(TaskType.SUBTASK).size(), "Журнал воскресил удаленную в пачке подзадачу");
+    }
+
+    @Test
+    void journaledTaskManagerPagesLoadedTasksWithNegativeIds() {
+        for (int id : new int[]{7, -2, 3, -5}) {
+            taskManager.addParsedTask(new Task(id, "Задача " + id, "Задача " + id));
+        }
+        taskManager.addParsedTask(new Epic(5, "Эпик", "Эпик"));
+
+        Assertions.assertEquals(List.of(-5, -2), taskManager.getTasksByType(TaskType.TASK, null, Integer.MIN_VALUE, 2).stream()
+                .map(Task::getId).toList(), "Менеджер не отдал задачи с отрицательными id");
+        Assertions.assertEquals(List.of(3, 7), taskManager.getTasksByType(TaskType.TASK, null, -2, 10).stream()
+                .map(Task::getId).toList(), "Менеджер неверно продолжил страницу с курсора");
+        taskManager.deleteTaskById(3);
+        Assertions.assertEquals(List.of(7), taskManager.getTasksByType(TaskType.TASK, null, -2, 10).stream()
+                .map(Task::getId).toList(), "Менеджер отдал удаленную задачу на странице");
+
+        Assertions.assertEquals("Задача -5", taskManager.getTaskById(-5).getName(), "Менеджер не нашел задачу с отрицательным id");
+        Assertions.assertEquals(0, taskManager.deleteTaskById(-5), "Менеджер не удалил задачу с отрицательным id");
+        Assertions.assertNull(taskManager.getTaskById(-5), "Менеджер нашел удаленную задачу с отрицательным id");
+    }
+
+    @Test
+    void journaledTaskManagerLoadsHugeIdsWithoutDenseIndex() {
+        int hugeId = 2_000_000_000;
+        taskManager.addParsedTasks(List.of(new Task(1, "Задача 1", "Задача 1"), new Task(hugeId, "Огромный id", "Огромный id")));
+        taskManager.addParsedTask(new Task(hugeId - 1, "Почти огромный id", "Почти огромный id"));
+
+        Assertions.assertEquals("Огромный id", taskManager.getTaskById(hugeId).getName(), "Менеджер не нашел задачу с огромным id");
+        Assertions.assertEquals("Почти огромный id", taskManager.getTaskById(hugeId - 1).getName(), "Менеджер не нашел задачу с огромным id");
+        Assertions.assertEquals(hugeId + 1, taskManager.createTask(new Task("Следующая", "Следующая")), "Менеджер неверно выдал id после огромного");
+        Assertions.assertEquals(0, taskManager.deleteTaskById(hugeId), "Менеджер не удалил задачу с огромным id");
+        Assertions.assertNull(taskManager.getTaskById(hugeId), "Менеджер нашел удаленную задачу с огромным id");
+        Assertions.assertEquals("Задача 1", taskManager.getTaskById(1).getName(), "Менеджер потерял задачу из плотной части индекса");
+    }
+
+    @Test
+    void managersSkipJournalRecordCutByCrash() throws IOException {
+        for (int i = 1; i <= 3; i++) {
+            taskManager.createTask(new Task("Задача " + i, "Задача " + i));
+        }
+        taskManager.close();
+        byte[] journal = Files.readAllBytes(journalFile.toPath());
+        Files.write(journalFile.toPath(), Arrays.copyOf(journal, journal.length - 5));
+
+        taskManager = (FileBackedTaskManager) Managers.loadFromFile(saveFile, LoadMode.IN_PLACE, 1000);
+        Assertions.assertEquals(List.of(1, 2), taskManager.getTasksByType(TaskType.TASK).stream().map(Task::getId).sorted().toList(),
+                "Загрузка не доиграла целые записи журнала до оборванной");
+        Assertions.assertEquals(0, journalFile.length(), "Загрузка оставила в журнале оборванную запись");
+
+        int id = taskManager.createTask(new Task("Задача после сбоя", "Задача после сбоя"));
+        taskManager.close();
+        taskManager = (FileBackedTaskManager) Managers.loadFromFile(saveFile, LoadMode.IN_PLACE, 1000);
+        Assertions.assertEquals("Задача после сбоя", taskManager.getTaskById(id).getName(), "Запись после сбоя склеилась с обрывком");
+    }
+
+    @Test
+    void managersRejectBrokenJournalRecordBeforeTheEnd() throws IOException {
+        taskManager.createTask(new Task("Задача", "Задача"));
+        taskManager.close();
+        byte[] journal = Files.readAllBytes(journalFile.toPath());
+        byte[] broken = "P,2,TASK\n".getBytes(StandardCharsets.UTF_8);
+        byte[] content = Arrays.copyOf(broken, broken.length + journal.length);
+        System.arraycopy(journal, 0, content, broken.length, journal.length);
+        Files.write(journalFile.toPath(), content);
+
+        Assertions.assertThrows(IllegalArgumentException.class, () -> Managers.loadFromFile(saveFile, LoadMode.IN_PLACE, 1000),
+                "Загрузка пропустила испорченную запись посреди журнала");
+    }
+
+    @Test
+    void managersReopenCompactedBoardWithoutRewritingSnapshot() throws IOException {
+        fillBoard(taskManager);
+        taskManager.close();
+        taskManager = (FileBackedTaskManager) Managers.loadFromFile(saveFile, LoadMode.IN_PLACE, 100);
+        taskManager.close();
+        long modified = saveFile.lastModified();
+        Assertions.assertTrue(saveFile.setLastModified(modified - 60_000), "Не удалось сдвинуть время изменения снимка");
+
+        taskManager = (FileBackedTaskManager) Managers.loadFromFile(saveFile, LoadMode.IN_PLACE, 100);
+        Assertions.assertEquals(modified - 60_000, saveFile.lastModified(), "Повторное открытие с пустым журналом переписало снимок");
+    }
+}
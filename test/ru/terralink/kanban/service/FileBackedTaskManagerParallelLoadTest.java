@@ -0,0 +1,112 @@
+package ru.terralink.kanban.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.terralink.kanban.model.*;
+import ru.terralink.kanban.util.TaskUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+public class FileBackedTaskManagerParallelLoadTest {
+    List<File> files;
+    File saveFile;
+
+    @BeforeEach
+    void initBoard() throws IOException {
+        files = new ArrayList<>();
+        saveFile = tempFile(".csv");
+        FileBackedTaskManager manager = new FileBackedTaskManager(saveFile);
+
+        Random random = new Random(42);
+        for (int i = 0; i < 30; i++) {
+            Epic epic = new Epic("Эпик " + i, "Эпик " + i);
+            manager.createTask(epic);
+            for (int j = 0; j < 5; j++) {
+                Subtask subtask = new Subtask("Подзадача " + j, "Подзадача эпика " + i, epic);
+                if (random.nextBoolean()) {
+                    subtask.setStartTime(LocalDateTime.of(2024, 1, 1, 0, 0).plusHours(i * 10L + j));
+                    subtask.setDuration(Duration.ofMinutes(30));
+                }
+                subtask.setStatus(TaskStatus.values()[random.nextInt(TaskStatus.values().length)]);
+                manager.createTask(subtask);
+            }
+            manager.createTask(new Task("Задача " + i, "Задача без даты"));
+        }
+    }
+
+    @AfterEach
+    void deleteFiles() {
+        files.forEach(File::delete);
+    }
+
+    private File tempFile(String suffix) throws IOException {
+        File file = Files.createTempFile("parallelLoadTest", suffix).toFile();
+        files.add(file);
+        return file;
+    }
+
+    private List<String> readSequentially(File file) throws IOException {
+        List<String> lines = new ArrayList<>();
+        TaskCsvReader.read(file, task -> lines.add(TaskUtils.toString(task)));
+        return lines;
+    }
+
+    @Test
+    void taskCsvReaderParsesChunksLikeSequentialReader() throws IOException {
+        List<String> expected = readSequentially(saveFile);
+        for (int chunkSize : new int[]{1, 7, 64, 1000, 1 << 20}) {
+            Assertions.assertEquals(expected, TaskCsvReader.readParallel(saveFile, chunkSize).stream().map(TaskUtils::toString).toList(),
+                    "Параллельное чтение расходится с последовательным при куске " + chunkSize);
+        }
+
+        File foreignFile = tempFile(".csv");
+        String content = Files.readString(saveFile.toPath(), StandardCharsets.UTF_8);
+        Files.writeString(foreignFile.toPath(), String.join("\r\n", content.lines().toList()) + "\r\n", StandardCharsets.UTF_8);
+        Assertions.assertEquals(expected, TaskCsvReader.readParallel(foreignFile, 100).stream().map(TaskUtils::toString).toList(),
+                "Параллельное чтение не поняло чужие переводы строк");
+
+        File damagedFile = tempFile(".csv");
+        Files.writeString(damagedFile.toPath(), content.replace("Подзадача эпика 7", "Подзадача эпика 8"), StandardCharsets.UTF_8);
+        Assertions.assertThrows(IllegalArgumentException.class, () -> TaskCsvReader.readParallel(damagedFile, 100),
+                "Параллельное чтение приняло файл с неверной контрольной суммой");
+
+        File brokenFile = tempFile(".csv");
+        Files.writeString(brokenFile.toPath(), content.replace(",NEW,", ",OLD,"), StandardCharsets.UTF_8);
+        IllegalArgumentException exception = Assertions.assertThrows(IllegalArgumentException.class,
+                () -> TaskCsvReader.readParallel(brokenFile, 100), "Параллельное чтение приняло строку с неверным статусом");
+        Assertions.assertTrue(exception.getMessage().startsWith("Ошибка в строке"), "Параллельное чтение не указало строку с ошибкой");
+    }
+
+    @Test
+    void managersLoadFileInParallelLikeSequentially() throws IOException {
+        FileBackedTaskManager sequential = (FileBackedTaskManager) Managers.loadFromFile(saveFile, LoadMode.IN_PLACE);
+        FileBackedTaskManager parallel = (FileBackedTaskManager) Managers.loadFromFileInParallel(saveFile, LoadMode.IN_PLACE);
+
+        for (TaskType type : TaskType.values()) {
+            Assertions.assertEquals(sequential.getTasksByType(type).stream().map(TaskUtils::toString).toList(),
+                    parallel.getTasksByType(type).stream().map(TaskUtils::toString).toList(),
+                    "Параллельная загрузка расходится с последовательной для типа " + type);
+        }
+        Epic epic = (Epic) parallel.getTaskById(1);
+        Assertions.assertEquals(5, epic.getSubtasks().size(), "Параллельная загрузка не связала подзадачи с эпиком");
+
+        Task task = new Task("Новая задача", "Новая задача");
+        task.setStartTime(LocalDateTime.of(2025, 1, 1, 0, 0));
+        Assertions.assertEquals(sequential.createTask(new Task("Новая задача", "Новая задача")), parallel.createTask(task),
+                "Параллельная загрузка неверно восстановила счетчик id");
+        for (Subtask subtask : sequential.getSubtasksByEpic(1)) {
+            Assertions.assertEquals(sequential.validateTaskDeadlines(subtask), parallel.validateTaskDeadlines(subtask),
+                    "Параллельная загрузка неверно построила индекс сроков");
+        }
+    }
+}
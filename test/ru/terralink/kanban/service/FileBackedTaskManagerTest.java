@@ -9,9 +9,11 @@ import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
 import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.stream.Stream;
 
 public class FileBackedTaskManagerTest extends TaskManagerTest {
     File saveFile;
@@ -71,6 +73,55 @@ public class FileBackedTaskManagerTest extends TaskManagerTest {
         saveFileContentCheck = "managersLoadFileBackedTaskManagerCorrectly";
     }
 
+    @Test
+    void managersLoadFileWithForeignLineSeparators() throws IOException {
+        File foreignFile = Files.createTempFile("fileBackedForeignTest", ".csv").toFile();
+        try {
+            String content = Files.readString(loadFile.toPath(), StandardCharsets.UTF_8);
+            Files.writeString(foreignFile.toPath(), String.join("\r\n", content.lines().toList()) + "\r\n", StandardCharsets.UTF_8);
+
+            taskManager = Managers.loadFromFile(foreignFile);
+            Assertions.assertEquals(3, taskManager.getTasksByType(TaskType.TASK).size() + taskManager.getTasksByType(TaskType.EPIC).size()
+                    + taskManager.getTasksByType(TaskType.SUBTASK).size(), "Менеджер задач не загрузил файл с чужими переводами строк");
+        } finally {
+            foreignFile.delete();
+        }
+
+        saveFile = ((FileBackedTaskManager) taskManager).getSaveFile();
+        saveFileContentCheck = "managersLoadFileBackedTaskManagerCorrectly";
+    }
+
+    @Test
+    void managersLoadFileInPlaceWithoutRewriting() throws IOException {
+        Files.copy(loadFile.toPath(), saveFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        long savedFilesBefore = countSaveFilesInWorkingDirectory();
+
+        taskManager = Managers.loadFromFile(saveFile, LoadMode.IN_PLACE);
+        Assertions.assertEquals(saveFile, ((FileBackedTaskManager) taskManager).getSaveFile(),
+                "Менеджер задач не сделал загруженный файл рабочим");
+        Assertions.assertEquals(savedFilesBefore, countSaveFilesInWorkingDirectory(), "Менеджер задач создал новый файл сохранения");
+        Assertions.assertEquals(3, taskManager.getTasksByType(TaskType.TASK).size() + taskManager.getTasksByType(TaskType.EPIC).size()
+                + taskManager.getTasksByType(TaskType.SUBTASK).size(), "Менеджер задач не загрузил файл");
+
+        File brokenFile = Files.createTempFile("fileBackedBrokenTest", ".csv").toFile();
+        try {
+            Files.writeString(brokenFile.toPath(), "id,type\n1,TASK,Задача,NEW,Задача,,,,\n", StandardCharsets.UTF_8);
+            Assertions.assertThrows(IllegalArgumentException.class, () -> Managers.loadFromFile(brokenFile, LoadMode.IN_PLACE),
+                    "Менеджер задач принял файл с неверным заголовком");
+        } finally {
+            brokenFile.delete();
+        }
+
+        //файл не переписан после загрузки
+        saveFileContentCheck = "createFileForLoadingCheck";
+    }
+
+    private long countSaveFilesInWorkingDirectory() throws IOException {
+        try (Stream<Path> files = Files.list(Path.of(""))) {
+            return files.filter(path -> path.getFileName().toString().startsWith("saveFile")).count();
+        }
+    }
+
     @Override
     @Test
     void taskManagerCreatesTasksAndAssignsIncrementalIds() {
@@ -0,0 +1,78 @@
+package ru.terralink.kanban.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.terralink.kanban.model.Task;
+import ru.terralink.kanban.util.TaskUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.Duration;
+
+public class FileBackedTaskManagerWriteBehindTest {
+    File saveFile;
+    FileBackedTaskManager taskManager;
+
+    @BeforeEach
+    void createSaveFile() throws IOException {
+        saveFile = Files.createTempFile("fileBackedWriteBehindTest", ".csv").toFile();
+    }
+
+    @AfterEach
+    void closeTaskManager() {
+        if (taskManager != null) {
+            taskManager.close();
+        }
+        saveFile.delete();
+    }
+
+    private long countSavedLines() throws IOException {
+        return Files.readAllLines(saveFile.toPath(), StandardCharsets.UTF_8).stream()
+                .filter(line -> !line.startsWith(TaskUtils.TEXT_FILE_CHECKSUM_PREFIX))
+                .count();
+    }
+
+    @Test
+    void writeBehindTaskManagerWritesOnlyOnExplicitFlush() throws IOException {
+        taskManager = (FileBackedTaskManager) Managers.getWriteBehindTaskManager(saveFile, DurabilityPolicy.NONE, null, 0);
+        taskManager.createTask(new Task("Задача 1", "Задача 1"));
+        taskManager.createTask(new Task("Задача 2", "Задача 2"));
+
+        Assertions.assertEquals(0, countSavedLines(), "Менеджер записал файл до явного сброса");
+        Assertions.assertEquals(2, taskManager.getPendingChanges(), "Менеджер не учел отложенные изменения");
+
+        taskManager.flush();
+        Assertions.assertEquals(3, countSavedLines(), "Менеджер не сбросил изменения по явному запросу");
+        Assertions.assertEquals(0, taskManager.getPendingChanges(), "Менеджер не обнулил отложенные изменения после сброса");
+    }
+
+    @Test
+    void writeBehindTaskManagerFlushesOnClose() throws IOException {
+        taskManager = (FileBackedTaskManager) Managers.getWriteBehindTaskManager(saveFile, DurabilityPolicy.FSYNC_PER_BATCH,
+                Duration.ofHours(1), 1000);
+        taskManager.createTask(new Task("Задача", "Задача"));
+        taskManager.close();
+        taskManager = null;
+
+        Assertions.assertEquals(2, countSavedLines(), "Менеджер не сбросил изменения при закрытии");
+    }
+
+    @Test
+    void writeBehindTaskManagerCoalescesChangesInBackground() throws IOException, InterruptedException {
+        taskManager = (FileBackedTaskManager) Managers.getWriteBehindTaskManager(saveFile, DurabilityPolicy.INTERVAL,
+                Duration.ofHours(1), 5);
+        for (int i = 0; i < 5; i++) {
+            taskManager.createTask(new Task("Задача " + i, "Задача " + i));
+        }
+
+        long deadline = System.currentTimeMillis() + 5000;
+        while (taskManager.getPendingChanges() > 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        Assertions.assertEquals(6, countSavedLines(), "Фоновый поток не сбросил накопленные изменения одним снимком");
+    }
+}
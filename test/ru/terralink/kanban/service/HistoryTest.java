@@ -5,7 +5,10 @@ import ru.terralink.kanban.model.Epic;
 import ru.terralink.kanban.model.Subtask;
 import ru.terralink.kanban.model.Task;
 
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Random;
 
 public class HistoryTest {
 
@@ -152,4 +155,135 @@ public class HistoryTest {
         Assertions.assertEquals(1,(tasks.get(0)).getId(), "Менеджер задач хранит задачи не в том порядке");
         Assertions.assertEquals(3,(tasks.get(1)).getId(), "Менеджер задач хранит задачи не в том порядке");
     }
+
+    @Test
+    void boundedHistoryManagerEvictsLeastRecentlyViewed(){
+        HistoryManager historyManager = Managers.getBoundedHistory(3);
+
+        for (int id = 1; id <= 3; id++) {
+            historyManager.add(new Task(id, "Задача", "Задача"));
+        }
+        historyManager.add(new Task(1, "Задача", "Задача"));
+        historyManager.add(new Task(4, "Задача", "Задача"));
+
+        List<Task> tasks = historyManager.getHistory();
+
+        Assertions.assertEquals(3, tasks.size(), "Менеджер истории превысил емкость");
+        Assertions.assertEquals(3,(tasks.get(0)).getId(), "Менеджер истории вытеснил не самый давний просмотр");
+        Assertions.assertEquals(1,(tasks.get(1)).getId(), "Менеджер истории вытеснил не самый давний просмотр");
+        Assertions.assertEquals(4,(tasks.get(2)).getId(), "Менеджер истории вытеснил не самый давний просмотр");
+    }
+
+    @Test
+    void boundedHistoryManagerReturnsCachedHistoryUntilChanged(){
+        HistoryManager historyManager = Managers.getBoundedHistory(10);
+        historyManager.add(new Task(1, "Задача", "Задача"));
+
+        List<Task> tasks = historyManager.getHistory();
+        Assertions.assertSame(tasks, historyManager.getHistory(), "Менеджер истории пересобрал неизменившуюся историю");
+        Assertions.assertThrows(UnsupportedOperationException.class, () -> tasks.add(new Task(2, "Задача", "Задача")),
+                "Менеджер истории отдал изменяемый снимок");
+
+        historyManager.add(new Task(2, "Задача", "Задача"));
+        Assertions.assertEquals(1, tasks.size(), "Менеджер истории изменил уже отданный снимок");
+        Assertions.assertEquals(2, historyManager.getHistory().size(), "Менеджер истории не обновил снимок после просмотра");
+    }
+
+    @Test
+    void boundedHistoryManagerMatchesDefaultHistory(){
+        Random random = new Random(42);
+        HistoryManager expected = Managers.getDefaultHistory();
+        HistoryManager unbounded = Managers.getBoundedHistory(200);
+        HistoryManager bounded = Managers.getBoundedHistory(50);
+        List<Integer> viewed = new ArrayList<>();
+
+        for (int i = 0; i < 20000; i++) {
+            int id = random.nextInt(200) - 20;
+            if (random.nextInt(4) == 0) {
+                expected.remove(id);
+                unbounded.remove(id);
+            } else {
+                Task task = new Task(id, "Задача", "Задача");
+                expected.add(task);
+                unbounded.add(task);
+                bounded.add(task);
+                viewed.remove(Integer.valueOf(id));
+                viewed.add(id);
+            }
+        }
+
+        Assertions.assertEquals(expected.getHistory(), unbounded.getHistory(), "История фиксированной емкости расходится с историей по умолчанию");
+        List<Task> tail = bounded.getHistory();
+        Assertions.assertEquals(50, tail.size(), "Менеджер истории превысил емкость");
+        for (int i = 0; i < tail.size(); i++) {
+            Assertions.assertEquals(viewed.get(viewed.size() - 50 + i), tail.get(i).getId(),
+                    "Менеджер истории хранит не последние просмотры");
+        }
+    }
+
+    @Test
+    void historyManagersReturnHistoryRangeLikeWholeHistory(){
+        Random random = new Random(7);
+        List<HistoryManager> managers = List.of(Managers.getDefaultHistory(), Managers.getBoundedHistory(100),
+                new SynchronizedHistoryManager(Managers.getDefaultHistory()));
+
+        for (int i = 0; i < 2000; i++) {
+            int id = random.nextInt(120);
+            Task task = new Task(id, "Задача", "Задача");
+            boolean removed = random.nextInt(5) == 0;
+            managers.forEach(manager -> {
+                if (removed) {
+                    manager.remove(id);
+                } else {
+                    manager.add(task);
+                }
+            });
+        }
+
+        for (HistoryManager manager : managers) {
+            List<Task> history = manager.getHistory();
+            for (int offset = 0; offset <= history.size() + 1; offset += 7) {
+                for (int limit : new int[]{1, 5, history.size(), Integer.MAX_VALUE}) {
+                    int from = Math.min(offset, history.size());
+                    Assertions.assertEquals(history.subList(from, from + Math.min(limit, history.size() - from)),
+                            manager.getHistory(offset, limit), "Отрезок истории расходится с целой историей");
+                }
+            }
+        }
+    }
+
+    @Test
+    void asyncHistoryManagerAppliesAccessesInOrder(){
+        Random random = new Random(7);
+        HistoryManager expected = Managers.getDefaultHistory();
+        try (AsyncHistoryManager historyManager = new AsyncHistoryManager(Managers.getDefaultHistory(), Duration.ofMinutes(1))) {
+            for (int i = 0; i < 5000; i++) {
+                int id = random.nextInt(100);
+                if (random.nextInt(4) == 0) {
+                    expected.remove(id);
+                    historyManager.remove(id);
+                } else {
+                    Task task = new Task(id, "Задача", "Задача");
+                    expected.add(task);
+                    historyManager.add(task);
+                }
+            }
+
+            Assertions.assertTrue(historyManager.getHistory().isEmpty(), "Асинхронная история разобрала очередь раньше срока");
+            historyManager.flush();
+            Assertions.assertEquals(expected.getHistory(), historyManager.getHistory(), "Асинхронная история расходится с синхронной");
+        }
+    }
+
+    @Test
+    void asyncHistoryManagerBoundsStaleness() throws InterruptedException {
+        try (AsyncHistoryManager historyManager = new AsyncHistoryManager(Managers.getDefaultHistory(), Duration.ofMillis(20))) {
+            historyManager.add(new Task(1, "Задача", "Задача"));
+            Thread.sleep(50);
+
+            List<Task> tasks = historyManager.getHistory();
+            Assertions.assertEquals(1, tasks.size(), "Асинхронная история отстала больше допустимого");
+            Assertions.assertEquals(1,(tasks.get(0)).getId(), "Асинхронная история потеряла просмотр");
+        }
+    }
 }
@@ -1,4 +1,265 @@
 package ru.terralink.kanban.service;
 
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import ru.terralink.kanban.model.*;
+import ru.terralink.kanban.util.TaskError;
+import ru.terralink.kanban.util.TaskUtils;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Random;
+
 public class InMemoryTaskManagerTest extends TaskManagerTest {
+
+    @Test
+    void taskManagerSharesSnapshotsUntilTaskChanges() {
+        int epicId = taskManager.createTask(new Epic("Эпик", "Эпик"));
+        int subtaskId = taskManager.createTask(new Subtask(0, "Подзадача", "Подзадача", epicId));
+
+        TaskSnapshot first = taskManager.getTaskSnapshotById(epicId);
+        TaskSnapshot second = taskManager.getTaskSnapshotByIdAndType(epicId, TaskType.EPIC);
+        Assertions.assertSame(first, second, "Менеджер задач заново построил снимок неизмененного эпика");
+        Assertions.assertEquals(1, ((EpicSnapshot) first).subtasks().size(), "Снимок эпика не содержит подзадачу");
+
+        Subtask update = new Subtask(subtaskId, "Подзадача", "Подзадача", epicId);
+        update.setStatus(TaskStatus.DONE);
+        taskManager.updateTaskById(update, subtaskId);
+
+        EpicSnapshot updated = (EpicSnapshot) taskManager.getTaskSnapshotById(epicId);
+        Assertions.assertNotSame(first, updated, "Менеджер задач отдал устаревший снимок эпика");
+        Assertions.assertEquals(TaskStatus.DONE, updated.status(), "Снимок эпика не отражает статус подзадачи");
+        Assertions.assertEquals(TaskStatus.DONE, updated.subtasks().get(subtaskId).status(), "Снимок эпика не отражает изменение подзадачи");
+        Assertions.assertThrows(UnsupportedOperationException.class, () -> updated.subtasks().clear(),
+                "Снимок эпика позволяет изменить список подзадач");
+        Assertions.assertNull(taskManager.getTaskSnapshotById(100), "Менеджер задач отдал снимок несуществующей задачи");
+    }
+
+    @Test
+    void taskManagerListsCopiesOrSharedSnapshotsButNeverStoredTasks() {
+        Task task = new Task("Задача", "Задача");
+        task.setStartTime(LocalDateTime.of(2025, 1, 1, 10, 0));
+        task.setDuration(Duration.ofMinutes(30));
+        int taskId = taskManager.createTask(task);
+        int epicId = taskManager.createTask(new Epic("Эпик", "Эпик"));
+        taskManager.createTask(new Subtask(0, "Подзадача", "Подзадача", epicId));
+        taskManager.getTaskById(taskId);
+
+        taskManager.getTasksByType(TaskType.TASK).get(0).setName("Изменено снаружи");
+        taskManager.getTasksByType(TaskType.TASK, null, Integer.MIN_VALUE, 1).get(0).setName("Изменено снаружи");
+        taskManager.getPrioritizedTasks().get(0).setName("Изменено снаружи");
+        taskManager.getHistory().get(0).setName("Изменено снаружи");
+        taskManager.getSubtasksByEpic(epicId).get(0).setStatus(TaskStatus.DONE);
+
+        Assertions.assertEquals("Задача", taskManager.getTaskSnapshotById(taskId).name(), "Менеджер задач отдал в списке хранимую задачу");
+        Assertions.assertEquals(TaskStatus.NEW, taskManager.getTaskSnapshotById(epicId).status(), "Менеджер задач отдал в списке хранимую подзадачу");
+        Assertions.assertSame(taskManager.getTaskSnapshotById(taskId), taskManager.getTaskSnapshotsByType(TaskType.TASK).get(0),
+                "Список снимков не использует закэшированный снимок задачи");
+        Assertions.assertSame(taskManager.getTaskSnapshotById(taskId), taskManager.getPrioritizedTaskSnapshots(null, null, null, 1).get(0),
+                "Приоритетный список снимков не использует закэшированный снимок задачи");
+    }
+
+    @Test
+    void taskManagerFindsAndDeletesTasksByIdWithoutType() {
+        int epicId = taskManager.createTask(new Epic("Эпик", "Эпик"));
+        int lastId = 0;
+        for (int i = 0; i < 40; i++) {
+            lastId = taskManager.createTask(new Subtask(0, "Подзадача " + i, "Подзадача " + i, epicId));
+        }
+        int taskId = taskManager.createTask(new Task("Задача", "Задача"));
+
+        Assertions.assertEquals(TaskType.SUBTASK, taskManager.getTaskById(lastId).getType(), "Менеджер задач не нашел подзадачу по id");
+        Assertions.assertEquals(TaskType.TASK, taskManager.getTaskById(taskId).getType(), "Менеджер задач не нашел задачу по id");
+
+        Assertions.assertEquals(0, taskManager.deleteTaskById(lastId), "Менеджер задач не удалил подзадачу по id");
+        Assertions.assertNull(taskManager.getTaskById(lastId), "Менеджер задач нашел удаленную подзадачу");
+        Assertions.assertEquals(39, taskManager.getTasksByType(TaskType.SUBTASK).size(), "Менеджер задач не убрал подзадачу из списка по типу");
+        Assertions.assertNotEquals(0, taskManager.deleteTaskById(lastId), "Менеджер задач повторно удалил подзадачу");
+
+        Assertions.assertEquals(0, taskManager.deleteTaskById(epicId), "Менеджер задач не удалил эпик по id");
+        Assertions.assertNull(taskManager.getTaskById(epicId + 1), "Менеджер задач нашел подзадачу удаленного эпика");
+        Assertions.assertNotNull(taskManager.getTaskById(taskId), "Менеджер задач удалил задачу вместе с чужим эпиком");
+        Assertions.assertNull(taskManager.getTaskById(-1), "Менеджер задач нашел задачу с отрицательным id");
+    }
+
+    @Test
+    void taskManagerAppliesBatchesWithOnePassValidation() {
+        int epicId = taskManager.createTask(new Epic("Эпик", "Эпик"));
+        Task busy = new Task("Занято", "Занято");
+        busy.setStartTime(LocalDateTime.of(2024, 1, 1, 10, 0));
+        busy.setDuration(Duration.ofMinutes(60));
+        taskManager.createTask(busy);
+
+        Subtask first = new Subtask(0, "Подзадача 1", "Подзадача 1", epicId);
+        first.setStartTime(LocalDateTime.of(2024, 1, 2, 10, 0));
+        first.setDuration(Duration.ofMinutes(60));
+        first.setStatus(TaskStatus.DONE);
+        Subtask overlapsFirst = new Subtask(0, "Подзадача 2", "Подзадача 2", epicId);
+        overlapsFirst.setStartTime(LocalDateTime.of(2024, 1, 2, 10, 30));
+        overlapsFirst.setDuration(Duration.ofMinutes(60));
+        Task overlapsBoard = new Task("Задача", "Задача");
+        overlapsBoard.setStartTime(LocalDateTime.of(2024, 1, 1, 10, 30));
+        overlapsBoard.setDuration(Duration.ofMinutes(10));
+        Subtask second = new Subtask(0, "Подзадача 3", "Подзадача 3", epicId);
+        second.setStartTime(LocalDateTime.of(2024, 1, 3, 10, 0));
+        second.setDuration(Duration.ofMinutes(30));
+
+        int[] created = taskManager.createTasks(List.of(first, overlapsFirst, overlapsBoard, second,
+                new Subtask(0, "Сирота", "Сирота", 100)));
+        int intersect = TaskUtils.ERROR_CODES.get(TaskError.INTERSECT);
+        Assertions.assertTrue(created[0] > 0 && created[3] > 0, "Менеджер задач не создал задачи пачки");
+        Assertions.assertEquals(intersect, created[1], "Менеджер задач не нашел пересечение внутри пачки");
+        Assertions.assertEquals(intersect, created[2], "Менеджер задач не нашел пересечение пачки с доской");
+        Assertions.assertEquals(TaskUtils.ERROR_CODES.get(TaskError.ABSENT_EPIC), created[4], "Менеджер задач привязал подзадачу к несуществующему эпику");
+
+        Epic epic = (Epic) taskManager.getTaskById(epicId);
+        Assertions.assertEquals(2, epic.getSubtasks().size(), "Менеджер задач не привязал подзадачи пачки к эпику");
+        Assertions.assertEquals(TaskStatus.IN_PROGRESS, epic.getStatus(), "Менеджер задач не пересчитал статус эпика после пачки");
+        Assertions.assertEquals(LocalDateTime.of(2024, 1, 3, 10, 30), epic.getEndTime(), "Менеджер задач не пересчитал конец эпика после пачки");
+
+        Subtask done = new Subtask(created[3], "Подзадача 3", "Подзадача 3", epicId);
+        done.setStartTime(second.getStartTime());
+        done.setDuration(second.getDuration());
+        done.setStatus(TaskStatus.DONE);
+        Task missing = new Task(100, "Нет такой", "Нет такой");
+        int[] updated = taskManager.updateTasks(List.of(done, missing));
+        Assertions.assertEquals(0, updated[0], "Менеджер задач не обновил подзадачу пачкой");
+        Assertions.assertNotEquals(0, updated[1], "Менеджер задач обновил несуществующую задачу");
+        Assertions.assertEquals(TaskStatus.DONE, taskManager.getTaskById(epicId).getStatus(), "Менеджер задач не пересчитал статус эпика после обновления пачкой");
+
+        //подзадача, созданная в той же пачке, удаляется вместе с эпиком
+        Subtask fourth = new Subtask(0, "Подзадача 4", "Подзадача 4", epicId);
+        fourth.setStartTime(LocalDateTime.of(2024, 1, 4, 10, 0));
+        fourth.setDuration(Duration.ofMinutes(30));
+        int[] mixed = taskManager.createTasks(List.of(fourth));
+        int[] deleted = taskManager.deleteTasks(new int[]{created[0], epicId, mixed[0], 100});
+        Assertions.assertArrayEquals(new int[]{0, 0, TaskUtils.ERROR_CODES.get(TaskError.UNKNOWN), TaskUtils.ERROR_CODES.get(TaskError.UNKNOWN)},
+                deleted, "Менеджер задач неверно удалил пачку");
+        Assertions.assertTrue(taskManager.getTasksByType(TaskType.SUBTASK).isEmpty(), "Менеджер задач оставил подзадачи удаленного эпика");
+        Assertions.assertTrue(taskManager.validateTaskDeadlines(first), "Менеджер задач не освободил сроки удаленной подзадачи");
+    }
+
+    @Test
+    void taskManagerAppliesMixedBatchInOrder() {
+        LocalDateTime start = LocalDateTime.of(2024, 1, 1, 10, 0);
+        Task busy = new Task("Занимает время", "Занимает время");
+        busy.setStartTime(start);
+        busy.setDuration(Duration.ofMinutes(30));
+        int busyId = taskManager.createTask(busy);
+        int epicId = taskManager.createTask(new Epic("Эпик", "Эпик"));
+        int subtaskId = taskManager.createTask(new Subtask(0, "Подзадача", "Подзадача", epicId));
+
+        Task sameTime = new Task("То же время", "То же время");
+        sameTime.setStartTime(start);
+        sameTime.setDuration(Duration.ofMinutes(30));
+        Subtask done = new Subtask(subtaskId, "Подзадача", "Подзадача", epicId);
+        done.setStatus(TaskStatus.DONE);
+        int[] results = taskManager.applyBatch(List.of(
+                TaskOperation.create(sameTime),
+                TaskOperation.delete(busyId),
+                TaskOperation.create(sameTime),
+                TaskOperation.update(done)));
+
+        Assertions.assertEquals(TaskUtils.ERROR_CODES.get(TaskError.INTERSECT), results[0], "Менеджер задач не нашел пересечение до удаления в пачке");
+        Assertions.assertEquals(0, results[1], "Менеджер задач не удалил задачу пачкой");
+        Assertions.assertTrue(results[2] > 0, "Менеджер задач не занял время, освобожденное раньше в пачке");
+        Assertions.assertEquals(0, results[3], "Менеджер задач не обновил подзадачу пачкой");
+        Assertions.assertEquals(TaskStatus.DONE, taskManager.getTaskById(epicId).getStatus(), "Менеджер задач не пересчитал эпик после пачки");
+    }
+
+    @Test
+    void taskManagerReturnsPagesAndWindowsWithoutFullList() {
+        LocalDateTime start = LocalDateTime.of(2024, 1, 1, 0, 0);
+        for (int i = 0; i < 10; i++) {
+            Task task = new Task("Задача " + i, "Задача " + i);
+            task.setStartTime(start.plusDays(9 - i));
+            task.setDuration(Duration.ofMinutes(30));
+            task.setStatus(i % 2 == 0 ? TaskStatus.DONE : TaskStatus.NEW);
+            taskManager.createTask(task);
+            taskManager.createTask(new Epic("Эпик " + i, "Эпик " + i));
+        }
+
+        Assertions.assertEquals(List.of(1, 3, 5), taskManager.getTasksByType(TaskType.TASK, null, 0, 3).stream().map(Task::getId).toList(),
+                "Менеджер задач неверно отдал первую страницу");
+        Assertions.assertEquals(List.of(7, 9, 11), taskManager.getTasksByType(TaskType.TASK, null, 5, 3).stream().map(Task::getId).toList(),
+                "Менеджер задач неверно отдал страницу после курсора");
+        Assertions.assertEquals(List.of(2, 4), taskManager.getTasksByType(TaskType.EPIC, null, 1, 2).stream().map(Task::getId).toList(),
+                "Менеджер задач неверно отдал страницу эпиков");
+        Assertions.assertEquals(List.of(5, 9, 13, 17), taskManager.getTasksByType(TaskType.TASK, TaskStatus.DONE, 1, 100).stream().map(Task::getId).toList(),
+                "Менеджер задач неверно отфильтровал страницу по статусу");
+        Assertions.assertTrue(taskManager.getTasksByType(TaskType.TASK, null, 19, 10).isEmpty(), "Менеджер задач отдал задачи после последней");
+
+        //задача i начинается на 9 - i день, поэтому в окне [3-й, 6-й) день лежат задачи 6, 5, 4
+        Assertions.assertEquals(List.of(13, 11, 9), taskManager.getPrioritizedTasks(start.plusDays(3), start.plusDays(6), null, 10)
+                        .stream().map(Task::getId).toList(), "Менеджер задач неверно отдал окно приоритетного списка");
+        Assertions.assertEquals(List.of(13, 9), taskManager.getPrioritizedTasks(start.plusDays(3), start.plusDays(6), TaskStatus.DONE, 10)
+                        .stream().map(Task::getId).toList(), "Менеджер задач неверно отфильтровал окно по статусу");
+        Assertions.assertEquals(List.of(19, 17), taskManager.getPrioritizedTasks(null, null, null, 2)
+                        .stream().map(Task::getId).toList(), "Менеджер задач неверно ограничил приоритетный список");
+        Assertions.assertEquals(List.of(3, 1), taskManager.getPrioritizedTasks(start.plusDays(8), null, null, 10)
+                        .stream().map(Task::getId).toList(), "Менеджер задач неверно отдал открытое окно");
+    }
+
+    @Test
+    void taskManagerReindexesPrioritizedTasksUnderUpdateChurn() {
+        LocalDateTime start = LocalDateTime.of(2024, 1, 1, 0, 0);
+        int epicId = taskManager.createTask(new Epic("Эпик", "Эпик"));
+        int[] ids = new int[100];
+        for (int i = 0; i < ids.length; i++) {
+            Task task = i % 2 == 0 ? new Task("Задача", "Задача") : new Subtask(0, "Подзадача", "Подзадача", epicId);
+            task.setStartTime(start.plusHours(i));
+            task.setDuration(Duration.ofMinutes(30));
+            ids[i] = taskManager.createTask(task);
+        }
+
+        //каждую задачу двигаем внутри ее часа и меняем ей имя: индекс должен держать ровно по одной версии
+        Random random = new Random(42);
+        for (int round = 0; round < 200_000; round++) {
+            int i = random.nextInt(ids.length);
+            Task task = taskManager.getTaskById(ids[i]);
+            task.setName("Версия " + round);
+            task.setStartTime(start.plusHours(i).plusMinutes(random.nextInt(30)));
+            Assertions.assertEquals(0, taskManager.updateTaskById(task, ids[i]), "Менеджер задач не обновил задачу");
+            if (round % 50_000 == 0) {
+                Assertions.assertEquals(ids.length, ((InMemoryTaskManager) taskManager).intervalIndex.size(),
+                        "Индекс сроков растет при обновлениях");
+            }
+        }
+
+        List<Task> prioritized = taskManager.getPrioritizedTasks();
+        Assertions.assertEquals(ids.length, prioritized.size(), "Приоритетный список растет при обновлениях");
+        for (int i = 0; i < ids.length; i++) {
+            Assertions.assertEquals(ids[i], prioritized.get(i).getId(), "Приоритетный список нарушил порядок после обновлений");
+            Assertions.assertEquals(taskManager.getTaskById(ids[i]).getName(), prioritized.get(i).getName(),
+                    "Приоритетный список хранит устаревшую версию задачи");
+        }
+
+        taskManager.removeTasksByType(TaskType.TASK);
+        Assertions.assertEquals(ids.length / 2, taskManager.getPrioritizedTasks().size(), "Приоритетный список хранит удаленные задачи");
+        taskManager.removeTasksByType(TaskType.EPIC);
+        Assertions.assertTrue(taskManager.getPrioritizedTasks().isEmpty(), "Приоритетный список хранит подзадачи удаленных эпиков");
+    }
+
+    @Test
+    void taskManagerFindsFreeSlotsBetweenTasks() {
+        LocalDateTime start = LocalDateTime.of(2024, 1, 1, 9, 0);
+        for (int[] interval : new int[][]{{0, 60}, {90, 30}, {120, 60}, {240, 60}}) {
+            Task task = new Task("Задача", "Задача");
+            task.setStartTime(start.plusMinutes(interval[0]));
+            task.setDuration(Duration.ofMinutes(interval[1]));
+            taskManager.createTask(task);
+        }
+
+        Assertions.assertEquals(start.plusMinutes(60), taskManager.findFreeSlot(Duration.ofMinutes(30), start, null),
+                "Менеджер задач не нашел окно между задачами");
+        Assertions.assertEquals(List.of(start.plusMinutes(180), start.plusMinutes(300)), taskManager.findFreeSlots(Duration.ofMinutes(45), start, null, 5),
+                "Менеджер задач неверно перечислил свободные промежутки");
+        Assertions.assertNull(taskManager.findFreeSlot(Duration.ofMinutes(45), start, start.plusMinutes(200)),
+                "Менеджер задач нашел окно, которое не успевает закончиться");
+        Assertions.assertEquals(start.plusMinutes(60), taskManager.findFreeSlot(Duration.ofMinutes(10), start.plusMinutes(10), null),
+                "Менеджер задач не сдвинул окно за задачу, которая идет в момент начала поиска");
+        Assertions.assertThrows(IllegalArgumentException.class, () -> taskManager.findFreeSlot(Duration.ofMinutes(-1), start, null),
+                "Менеджер задач принял отрицательную длительность");
+    }
 }
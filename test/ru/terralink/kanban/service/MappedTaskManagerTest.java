@@ -0,0 +1,199 @@
+package ru.terralink.kanban.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.terralink.kanban.model.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+public class MappedTaskManagerTest {
+    List<File> files;
+    FileBackedTaskManager sourceManager;
+
+    @BeforeEach
+    void initBoard() throws IOException {
+        files = new ArrayList<>();
+        sourceManager = new FileBackedTaskManager(tempFile(".bin"), SnapshotFormat.BINARY);
+
+        Task task = new Task("Задача, с запятой", "Описание\nв две строки");
+        task.setStartTime(LocalDateTime.of(2024, 1, 3, 10, 0));
+        task.setDuration(Duration.ofMinutes(45));
+        sourceManager.createTask(task);
+
+        Epic epic = new Epic("Эпик", "Эпик");
+        sourceManager.createTask(epic);
+        Subtask subtask1 = new Subtask("Подзадача 1", "Подзадача 1", epic);
+        subtask1.setStartTime(LocalDateTime.of(2024, 1, 2, 10, 0));
+        subtask1.setDuration(Duration.ofMinutes(60));
+        subtask1.setStatus(TaskStatus.DONE);
+        sourceManager.createTask(subtask1);
+        sourceManager.createTask(new Subtask("Подзадача 2", "Подзадача 2", epic));
+        sourceManager.createTask(new Task("Задача без даты", "Задача без даты"));
+    }
+
+    @AfterEach
+    void deleteFiles() {
+        files.forEach(File::delete);
+    }
+
+    private File tempFile(String suffix) throws IOException {
+        File file = Files.createTempFile("mappedTaskManagerTest", suffix).toFile();
+        files.add(file);
+        return file;
+    }
+
+    @Test
+    void mappedTaskManagerReadsExportedBoard() throws IOException {
+        File mappedFile = tempFile(MappedTaskSnapshot.FILE_EXTENSION);
+        sourceManager.exportMappedSnapshot(mappedFile);
+        TaskManager mappedManager = Managers.getMappedTaskManager(mappedFile);
+
+        Task task = mappedManager.getTaskById(1);
+        Assertions.assertEquals("Задача, с запятой", task.getName(), "Снимок неверно хранит имя с запятой");
+        Assertions.assertEquals("Описание\nв две строки", task.getDescription(), "Снимок неверно хранит многострочное описание");
+        Assertions.assertEquals(Duration.ofMinutes(45), task.getDuration(), "Снимок неверно хранит продолжительность");
+        Assertions.assertNull(mappedManager.getTaskByIdAndType(1, TaskType.EPIC), "Снимок нашел задачу с неверным типом");
+        Assertions.assertNull(mappedManager.getTaskById(42), "Снимок нашел несуществующую задачу");
+
+        Epic epic = (Epic) mappedManager.getTaskById(2);
+        Assertions.assertEquals(TaskStatus.IN_PROGRESS, epic.getStatus(), "Снимок неверно хранит статус эпика");
+        Assertions.assertEquals(LocalDateTime.of(2024, 1, 2, 11, 0), epic.getEndTime(), "Снимок неверно хранит конец эпика");
+        Assertions.assertEquals(2, epic.getSubtasks().size(), "Снимок не связал подзадачи с эпиком");
+        Assertions.assertEquals(List.of(3, 4), mappedManager.getSubtasksByEpic(2).stream().map(Task::getId).toList(),
+                "Снимок неверно хранит подзадачи эпика");
+
+        for (TaskType type : TaskType.values()) {
+            Assertions.assertEquals(sourceManager.getTasksByType(type), mappedManager.getTasksByType(type),
+                    "Снимок неверно хранит задачи типа " + type);
+        }
+        Assertions.assertEquals(List.of(3, 1), mappedManager.getPrioritizedTasks().stream().map(Task::getId).toList(),
+                "Снимок неверно упорядочил задачи по приоритету");
+        Assertions.assertTrue(mappedManager.getHistory().isEmpty(), "Снимок записал аналитические чтения в историю");
+
+        Assertions.assertEquals(sourceManager.getTasksByType(TaskType.TASK, TaskStatus.NEW, 1, 10),
+                mappedManager.getTasksByType(TaskType.TASK, TaskStatus.NEW, 1, 10), "Снимок неверно отдал страницу задач");
+        Assertions.assertEquals(sourceManager.getPrioritizedTasks(LocalDateTime.of(2024, 1, 2, 10, 0), LocalDateTime.of(2024, 1, 3, 10, 0), null, 10),
+                mappedManager.getPrioritizedTasks(LocalDateTime.of(2024, 1, 2, 10, 0), LocalDateTime.of(2024, 1, 3, 10, 0), null, 10),
+                "Снимок неверно отдал окно приоритетного списка");
+        for (int minutes : new int[]{0, 30, 60, 24 * 60}) {
+            LocalDateTime notBefore = LocalDateTime.of(2024, 1, 2, 9, 30);
+            Assertions.assertEquals(sourceManager.findFreeSlots(Duration.ofMinutes(minutes), notBefore, null, 5),
+                    mappedManager.findFreeSlots(Duration.ofMinutes(minutes), notBefore, null, 5), "Снимок нашел другие свободные окна");
+        }
+    }
+
+    @Test
+    void mappedTaskManagerPagesSparseTypeLikeSource() throws IOException {
+        //задачи пишем в файл не по порядку id, а подзадачи занимают большую часть id
+        for (int id = 200; id > 5; id--) {
+            Task task = id % 20 == 0 ? new Task(id, "Задача " + id, "Задача " + id) : new Subtask(id, "Подзадача " + id, "Подзадача " + id, 2);
+            task.setStatus(id % 40 == 0 ? TaskStatus.DONE : TaskStatus.NEW);
+            sourceManager.addParsedTask(task);
+        }
+        File mappedFile = tempFile(MappedTaskSnapshot.FILE_EXTENSION);
+        sourceManager.exportMappedSnapshot(mappedFile);
+        TaskManager mappedManager = Managers.getMappedTaskManager(mappedFile);
+
+        for (int afterId : new int[]{0, 5, 20, 99, 200}) {
+            for (TaskStatus status : new TaskStatus[]{null, TaskStatus.DONE}) {
+                Assertions.assertEquals(sourceManager.getTasksByType(TaskType.TASK, status, afterId, 3),
+                        mappedManager.getTasksByType(TaskType.TASK, status, afterId, 3),
+                        "Снимок неверно отдал страницу задач после id " + afterId);
+            }
+        }
+        Assertions.assertEquals(List.of(20, 40, 60), mappedManager.getTasksByType(TaskType.TASK, null, 5, 3).stream()
+                .map(Task::getId).toList(), "Снимок отдал страницу не по порядку id");
+    }
+
+    @Test
+    void mappedTaskManagerValidatesWithoutChanges() throws IOException {
+        File mappedFile = tempFile(MappedTaskSnapshot.FILE_EXTENSION);
+        MappedTaskSnapshot.fromSaveFile(sourceManager.getSaveFile(), mappedFile);
+        TaskManager mappedManager = Managers.getMappedTaskManager(mappedFile);
+
+        Task overlapping = new Task("Пересечение", "Пересечение");
+        overlapping.setStartTime(LocalDateTime.of(2024, 1, 3, 10, 30));
+        overlapping.setDuration(Duration.ofMinutes(10));
+        Assertions.assertFalse(mappedManager.validateTaskDeadlines(overlapping), "Снимок не нашел пересечение");
+        Assertions.assertEquals(sourceManager.getConflictingTasks(overlapping, 10), mappedManager.getConflictingTasks(overlapping, 10),
+                "Снимок нашел не те пересечения");
+        Assertions.assertEquals(List.of(1), mappedManager.getConflictingTasks(overlapping, 10).stream().map(Task::getId).toList(),
+                "Снимок не перечислил пересечения");
+        overlapping.setStartTime(LocalDateTime.of(2024, 1, 3, 10, 45));
+        Assertions.assertTrue(mappedManager.validateTaskDeadlines(overlapping), "Снимок счел касание концами пересечением");
+
+        Assertions.assertThrows(UnsupportedOperationException.class, () -> mappedManager.createTask(new Task("Задача", "Задача")),
+                "Снимок позволил создать задачу");
+        Assertions.assertThrows(UnsupportedOperationException.class, () -> mappedManager.deleteTaskById(1),
+                "Снимок позволил удалить задачу");
+        Assertions.assertThrows(UnsupportedOperationException.class, () -> mappedManager.removeTasksByType(TaskType.TASK),
+                "Снимок позволил удалить задачи по типу");
+        Assertions.assertEquals(5, mappedManager.getTasksByType(TaskType.TASK).size()
+                + mappedManager.getTasksByType(TaskType.EPIC).size() + mappedManager.getTasksByType(TaskType.SUBTASK).size(),
+                "Снимок потерял задачи при чтении сохраненного файла");
+    }
+
+    @Test
+    void mappedTaskManagerFindsIntersectionsLikeIntervalTree() throws IOException {
+        Random random = new Random(11);
+        FileBackedTaskManager board = new FileBackedTaskManager(tempFile(".bin"), SnapshotFormat.BINARY);
+        LocalDateTime origin = LocalDateTime.of(2024, 1, 1, 0, 0);
+        for (int id = 1; id <= 2000; id++) {
+            Task task = new Task(id, "Задача " + id, "Задача " + id);
+            task.setStartTime(origin.plusMinutes(random.nextInt(100_000)));
+            //редкие длинные задачи перекрывают много блоков индекса
+            task.setDuration(Duration.ofMinutes(id % 500 == 0 ? 20_000 : random.nextInt(60)));
+            board.addParsedTask(task);
+        }
+        File mappedFile = tempFile(MappedTaskSnapshot.FILE_EXTENSION);
+        board.exportMappedSnapshot(mappedFile);
+        TaskManager mappedManager = Managers.getMappedTaskManager(mappedFile);
+
+        int free = 0;
+        for (int i = 0; i < 500; i++) {
+            Task query = new Task(random.nextInt(2100), "Запрос", "Запрос");
+            query.setStartTime(origin.plusMinutes(random.nextInt(110_000) - 5_000));
+            query.setDuration(Duration.ofMinutes(random.nextInt(3) == 0 ? 0 : random.nextInt(120)));
+            Assertions.assertEquals(board.validateTaskDeadlines(query), mappedManager.validateTaskDeadlines(query),
+                    "Снимок и интервальное дерево по-разному проверили пересечение");
+            Assertions.assertEquals(board.getConflictingTasks(query, 1000), mappedManager.getConflictingTasks(query, 1000),
+                    "Снимок и интервальное дерево нашли разные пересечения");
+            free += board.validateTaskDeadlines(query) ? 1 : 0;
+        }
+        Assertions.assertTrue(free > 0 && free < 500, "Запросы проверили только один исход");
+    }
+
+    @Test
+    void mappedTaskManagerFindsFreeSlotsLikeIntervalTree() throws IOException {
+        Random random = new Random(23);
+        FileBackedTaskManager board = new FileBackedTaskManager(tempFile(".bin"), SnapshotFormat.BINARY);
+        LocalDateTime origin = LocalDateTime.of(2024, 1, 1, 0, 0);
+        for (int id = 1; id <= 3000; id++) {
+            Task task = new Task(id, "Задача " + id, "Задача " + id);
+            task.setStartTime(origin.plusMinutes(random.nextInt(200_000)));
+            task.setDuration(Duration.ofMinutes(id % 700 == 0 ? 30_000 : random.nextInt(90)));
+            board.addParsedTask(task);
+        }
+        File mappedFile = tempFile(MappedTaskSnapshot.FILE_EXTENSION);
+        board.exportMappedSnapshot(mappedFile);
+        TaskManager mappedManager = Managers.getMappedTaskManager(mappedFile);
+
+        for (int i = 0; i < 300; i++) {
+            Duration duration = Duration.ofMinutes(random.nextInt(4) == 0 ? 0 : random.nextInt(120));
+            LocalDateTime notBefore = origin.plusMinutes(random.nextInt(210_000) - 5_000);
+            LocalDateTime notAfter = random.nextBoolean() ? null : notBefore.plusMinutes(random.nextInt(2_000));
+            Assertions.assertEquals(board.findFreeSlots(duration, notBefore, notAfter, 5),
+                    mappedManager.findFreeSlots(duration, notBefore, notAfter, 5),
+                    "Снимок и интервальное дерево нашли разные свободные окна");
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package ru.terralink.kanban.util;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.ConcurrentModificationException;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+public class IntHashMapTest {
+
+    @Test
+    void intHashMapBehavesLikeHashMap() {
+        IntHashMap<String> map = new IntHashMap<>();
+        Map<Integer, String> expected = new HashMap<>();
+        Random random = new Random(42);
+        for (int i = 0; i < 20000; i++) {
+            int key = random.nextInt(2000) - 100;
+            if (random.nextInt(3) == 0) {
+                Assertions.assertEquals(expected.remove(key), map.remove(key), "Удаление вернуло не то значение");
+            } else {
+                String value = "Значение " + i;
+                Assertions.assertEquals(expected.put(key, value), map.put(key, value), "Вставка вернула не то старое значение");
+            }
+        }
+
+        Assertions.assertEquals(expected, map, "Содержимое таблицы разошлось с HashMap");
+        Assertions.assertEquals(expected.size(), map.size(), "Размер таблицы разошелся с HashMap");
+        Assertions.assertNull(map.get("1"), "Таблица нашла значение по ключу не того типа");
+        Assertions.assertThrows(NullPointerException.class, () -> map.put(1, null), "Таблица приняла null в качестве значения");
+    }
+
+    @Test
+    void intHashMapIteratesSequentialKeysInOrder() {
+        IntHashMap<String> map = new IntHashMap<>();
+        for (int i = 1; i <= 100; i++) {
+            map.put(i, "Значение " + i);
+        }
+        map.remove(50);
+
+        Assertions.assertEquals(new ArrayList<>(new HashMap<>(map).keySet()), new ArrayList<>(map.keySet()),
+                "Порядок обхода подряд идущих ключей отличается от HashMap");
+
+        Iterator<Map.Entry<Integer, String>> iterator = map.entrySet().iterator();
+        while (iterator.hasNext()) {
+            if (iterator.next().getKey() % 2 == 0) {
+                iterator.remove();
+            }
+        }
+        List<Integer> keys = new ArrayList<>(map.keySet());
+        Assertions.assertEquals(50, keys.size(), "Итератор удалил не все четные ключи");
+        Assertions.assertTrue(keys.stream().allMatch(key -> key % 2 == 1), "Итератор удалил не те ключи");
+
+        map.clear();
+        Assertions.assertTrue(map.isEmpty(), "Таблица не очистилась");
+        map.put(7, "Значение 7");
+        Assertions.assertEquals("Значение 7", map.get(7), "Таблица не работает после очистки");
+    }
+
+    @Test
+    void intHashMapEntryKeepsValueAfterRemoval() {
+        IntHashMap<String> map = new IntHashMap<>();
+        map.put(1, "один");
+        map.put(2, "два");
+        Iterator<Map.Entry<Integer, String>> iterator = map.entrySet().iterator();
+        Map.Entry<Integer, String> entry = iterator.next();
+
+        entry.setValue("ONE");
+        Assertions.assertEquals("ONE", map.get(1), "Запись не изменила значение в таблице");
+
+        map.remove(1);
+        Assertions.assertEquals("ONE", entry.getValue(), "Запись удаленного ключа отдала служебное значение таблицы");
+        entry.setValue("снова");
+        Assertions.assertFalse(map.containsKey(1), "Запись удаленного ключа вернула его в таблицу");
+
+        IntHashMap<String> copy = new IntHashMap<>(map);
+        Assertions.assertEquals(map, copy, "Копия отличается от оригинала");
+        Iterator<Map.Entry<Integer, String>> copyIterator = copy.entrySet().iterator();
+        copy.put(3, "три");
+        Assertions.assertThrows(ConcurrentModificationException.class, copyIterator::next,
+                "Итератор копии не заметил изменения");
+    }
+}
@@ -0,0 +1,64 @@
+package ru.terralink.kanban.util;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+
+public class IntSortedSetTest {
+
+    private static List<Integer> after(IntSortedSet set, int after, int limit) {
+        List<Integer> values = new ArrayList<>();
+        set.forEachAfter(after, value -> {
+            values.add(value);
+            return values.size() < limit;
+        });
+        return values;
+    }
+
+    @Test
+    void intSortedSetBehavesLikeTreeSet() {
+        IntSortedSet set = new IntSortedSet();
+        TreeSet<Integer> expected = new TreeSet<>();
+        Random random = new Random(42);
+        for (int i = 0; i < 20000; i++) {
+            int value = random.nextInt(2000) - 100;
+            if (random.nextInt(3) == 0) {
+                set.remove(value);
+                expected.remove(value);
+            } else if (random.nextInt(50) == 0) {
+                int[] values = random.ints(20, -100, 1900).toArray();
+                set.addAll(values);
+                for (int added : values) {
+                    expected.add(added);
+                }
+            } else {
+                set.add(value);
+                expected.add(value);
+            }
+            if (i % 1000 == 0) {
+                int cursor = random.nextInt(2000) - 100;
+                Assertions.assertEquals(expected.tailSet(cursor, false).stream().limit(10).toList(), after(set, cursor, 10),
+                        "Обход с курсора разошелся с TreeSet");
+            }
+        }
+
+        Assertions.assertEquals(new ArrayList<>(expected), after(set, Integer.MIN_VALUE, Integer.MAX_VALUE),
+                "Содержимое множества разошлось с TreeSet");
+        Assertions.assertEquals(expected.size(), set.size(), "Размер множества разошелся с TreeSet");
+    }
+
+    @Test
+    void intSortedSetStartsPageAfterNegativeCursor() {
+        IntSortedSet set = new IntSortedSet();
+        set.addAll(new int[]{5, -3, 1, -7});
+        set.add(-1);
+
+        Assertions.assertEquals(List.of(-3, -1), after(set, -7, 2), "Множество потеряло отрицательные значения");
+        set.clear();
+        Assertions.assertTrue(after(set, Integer.MIN_VALUE, 10).isEmpty(), "Множество не очистилось");
+    }
+}
@@ -0,0 +1,163 @@
+package ru.terralink.kanban.util;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import ru.terralink.kanban.model.Task;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+public class TaskIntervalTreeTest {
+    private static final LocalDateTime BASE_TIME = LocalDateTime.of(2024, 1, 1, 0, 0);
+
+    private Task timedTask(int id, int startMinute, int durationMinutes) {
+        Task task = new Task(id, "Задача " + id, "Задача " + id);
+        task.setStartTime(BASE_TIME.plusMinutes(startMinute));
+        task.setDuration(Duration.ofMinutes(durationMinutes));
+        return task;
+    }
+
+    @Test
+    void intervalTreeFindsIntersectionsLikeTask() {
+        TaskIntervalTree tree = new TaskIntervalTree();
+        tree.put(timedTask(1, 0, 120));
+        tree.put(timedTask(2, 120, 60));
+
+        Assertions.assertTrue(tree.hasIntersections(BASE_TIME.plusMinutes(60), BASE_TIME.plusMinutes(90), 0), "Дерево не нашло вложенный интервал");
+        Assertions.assertTrue(tree.hasIntersections(BASE_TIME.plusMinutes(120), BASE_TIME.plusMinutes(120), 0), "Дерево не нашло совпадающее начало");
+        Assertions.assertFalse(tree.hasIntersections(BASE_TIME.plusMinutes(180), BASE_TIME.plusMinutes(240), 0), "Дерево считает касание концами пересечением");
+        Assertions.assertFalse(tree.hasIntersections(BASE_TIME.plusMinutes(60), BASE_TIME.plusMinutes(90), 1), "Дерево не исключило задачу с переданным id");
+    }
+
+    @Test
+    void intervalTreeStaysInSyncAfterRemoval() {
+        TaskIntervalTree tree = new TaskIntervalTree();
+        tree.put(timedTask(1, 0, 120));
+        tree.put(timedTask(1, 300, 60));
+
+        Assertions.assertEquals(1, tree.size(), "Дерево хранит устаревшую версию задачи");
+        Assertions.assertFalse(tree.hasIntersections(BASE_TIME, BASE_TIME.plusMinutes(60), 0), "Дерево помнит старые сроки задачи");
+
+        Assertions.assertTrue(tree.remove(1), "Дерево не удалило задачу");
+        Assertions.assertTrue(tree.isEmpty(), "Дерево не пустое после удаления единственной задачи");
+        Assertions.assertFalse(tree.hasIntersections(BASE_TIME.plusMinutes(300), BASE_TIME.plusMinutes(360), 0), "Дерево помнит удаленную задачу");
+    }
+
+    @Test
+    void intervalTreeMatchesLinearScan() {
+        Random random = new Random(42);
+        TaskIntervalTree tree = new TaskIntervalTree();
+        List<Task> tasks = new ArrayList<>();
+        for (int id = 1; id <= 2000; id++) {
+            Task task = timedTask(id, random.nextInt(100_000), random.nextInt(5) == 0 ? 0 : random.nextInt(300));
+            tasks.add(task);
+            tree.put(task);
+            if (random.nextInt(4) == 0) {
+                Task removed = tasks.remove(random.nextInt(tasks.size()));
+                tree.remove(removed.getId());
+            }
+        }
+
+        for (int i = 0; i < 2000; i++) {
+            Task probe = timedTask(random.nextInt(2000), random.nextInt(100_000), random.nextInt(300));
+            boolean expected = tasks.stream()
+                    .filter(task -> task.getId() != probe.getId())
+                    .anyMatch(task -> task.checkTimeIntersections(probe));
+            Assertions.assertEquals(expected, tree.hasIntersections(probe.getStartTime(), probe.getEndTime(), probe.getId()),
+                    "Дерево расходится с полным перебором для " + probe);
+
+            List<Integer> expectedConflicts = tasks.stream()
+                    .filter(task -> task.getId() != probe.getId() && task.checkTimeIntersections(probe))
+                    .sorted(Comparator.comparing(Task::getStartTime).thenComparingInt(Task::getId))
+                    .limit(5)
+                    .map(Task::getId)
+                    .toList();
+            Assertions.assertEquals(expectedConflicts, tree.intersections(probe.getStartTime(), probe.getEndTime(), probe.getId(), 5)
+                    .stream().map(Task::getId).toList(), "Дерево нашло не те пересечения для " + probe);
+        }
+    }
+
+    @Test
+    void intervalTreeBuiltInBulkMatchesLinearScan() {
+        Random random = new Random(7);
+        List<Task> tasks = new ArrayList<>();
+        for (int id = 1; id <= 2000; id++) {
+            tasks.add(timedTask(id, random.nextInt(100_000), random.nextInt(300)));
+        }
+        TaskIntervalTree tree = new TaskIntervalTree();
+        tree.putAll(tasks);
+        tree.remove(tasks.remove(0).getId());
+        tree.put(timedTask(5000, 50_000, 60));
+        tasks.add(timedTask(5000, 50_000, 60));
+
+        Assertions.assertEquals(tasks.size(), tree.size(), "Дерево потеряло задачи при массовой вставке");
+        for (int i = 0; i < 2000; i++) {
+            Task probe = timedTask(random.nextInt(2000), random.nextInt(100_000), random.nextInt(300));
+            boolean expected = tasks.stream()
+                    .filter(task -> task.getId() != probe.getId())
+                    .anyMatch(task -> task.checkTimeIntersections(probe));
+            Assertions.assertEquals(expected, tree.hasIntersections(probe.getStartTime(), probe.getEndTime(), probe.getId()),
+                    "Дерево после массовой вставки расходится с полным перебором для " + probe);
+        }
+    }
+
+    @Test
+    void intervalTreeKeepsPriorityOrderWithEqualStarts() {
+        TaskIntervalTree tree = new TaskIntervalTree();
+        tree.put(timedTask(3, 60, 30));
+        tree.put(timedTask(2, 60, 30));
+        tree.put(timedTask(1, 120, 30));
+        tree.put(timedTask(4, 0, 30));
+        tree.put(new Task(5, "Задача без даты", "Задача без даты"));
+
+        Assertions.assertEquals(List.of(4, 2, 3, 1), tree.toList().stream().map(Task::getId).toList(),
+                "Дерево не упорядочило задачи по началу и id или склеило одинаковое начало");
+        Assertions.assertEquals(List.of(2, 3), tree.window(BASE_TIME.plusMinutes(60), BASE_TIME.plusMinutes(120), task -> true, 10)
+                .stream().map(Task::getId).toList(), "Дерево неверно отдало окно");
+        Assertions.assertEquals(List.of(3), tree.window(BASE_TIME.plusMinutes(1), null, task -> task.getId() != 2, 1)
+                .stream().map(Task::getId).toList(), "Дерево неверно отфильтровало или ограничило окно");
+
+        tree.removeIf(task -> task.getId() % 2 == 0);
+        Assertions.assertEquals(List.of(3, 1), tree.toList().stream().map(Task::getId).toList(), "Дерево неверно удалило задачи массово");
+        Assertions.assertFalse(tree.hasIntersections(BASE_TIME, BASE_TIME.plusMinutes(30), 0), "Дерево помнит массово удаленную задачу");
+        Assertions.assertTrue(tree.hasIntersections(BASE_TIME.plusMinutes(130), BASE_TIME.plusMinutes(140), 0), "Дерево потеряло оставшуюся задачу");
+    }
+
+    @Test
+    void intervalTreeFindsEarliestFreeSlotLikeMinuteScan() {
+        Random random = new Random(7);
+        TaskIntervalTree tree = new TaskIntervalTree();
+        for (int id = 1; id <= 300; id++) {
+            Task task = timedTask(id, random.nextInt(20_000), random.nextInt(6) == 0 ? 0 : random.nextInt(120));
+            if (!tree.hasIntersections(task.getStartTime(), task.getEndTime(), 0)) {
+                tree.put(task);
+            }
+        }
+
+        for (int query = 0; query < 200; query++) {
+            LocalDateTime notBefore = BASE_TIME.plusMinutes(random.nextInt(20_000));
+            Duration duration = Duration.ofMinutes(random.nextInt(90));
+            LocalDateTime notAfter = notBefore.plusMinutes(random.nextInt(3_000));
+
+            LocalDateTime expected = null;
+            for (LocalDateTime candidate = notBefore; !candidate.plus(duration).isAfter(notAfter); candidate = candidate.plusMinutes(1)) {
+                if (!tree.hasIntersections(candidate, candidate.plus(duration), 0)) {
+                    expected = candidate;
+                    break;
+                }
+            }
+            List<LocalDateTime> slots = tree.freeSlots(duration, notBefore, notAfter, 3);
+            Assertions.assertEquals(expected, slots.isEmpty() ? null : slots.get(0), "Дерево нашло не самое раннее свободное окно");
+            for (int i = 0; i < slots.size(); i++) {
+                LocalDateTime slot = slots.get(i);
+                Assertions.assertFalse(tree.hasIntersections(slot, slot.plus(duration), 0), "Дерево предложило занятое окно");
+                Assertions.assertFalse(slot.plus(duration).isAfter(notAfter), "Дерево предложило окно после notAfter");
+                Assertions.assertTrue(i == 0 || slot.isAfter(slots.get(i - 1)), "Дерево предложило окна не по порядку");
+            }
+        }
+    }
+}
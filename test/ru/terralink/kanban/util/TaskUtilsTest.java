@@ -5,6 +5,8 @@ import ru.terralink.kanban.model.*;
 
 import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Random;
 
 public class TaskUtilsTest {
     String stringifyCheck;
@@ -29,6 +31,36 @@ public class TaskUtilsTest {
         Assertions.assertEquals(taskStringify, "1,SUBTASK,Подзадача 1,NEW,Подзадача 1,2,,,", "TaskUtils некорректно преобразует подзадачу в строку");
     }
 
+    @Test
+    void taskUtilsStringifiesLikeStringFormat() {
+        Random random = new Random(7);
+        LocalDateTime base = LocalDateTime.of(2024, 1, 1, 0, 0);
+        for (int i = 0; i < 1000; i++) {
+            Task task = switch (i % 3) {
+                case 0 -> new Task(i, "Задача " + i, "Описание, " + i);
+                case 1 -> new Subtask(i, "Подзадача " + i, "", random.nextInt(100));
+                default -> new Epic(i, "Эпик " + i, null);
+            };
+            if (random.nextBoolean()) {
+                task.setStartTime(base.plusMinutes(random.nextInt(10_000_000)).plusSeconds(random.nextInt(60)));
+            }
+            if (random.nextBoolean()) {
+                task.setDuration(Duration.ofSeconds(random.nextInt(100_000)));
+            }
+            if (task instanceof Epic epic && random.nextBoolean()) {
+                epic.setEndTime(LocalDateTime.of(random.nextBoolean() ? 12345 : 5, 3, 7, 8, 9));
+            }
+            task.setStatus(TaskStatus.values()[random.nextInt(TaskStatus.values().length)]);
+
+            String expected = String.format("%s,%s,%s,%s,%s,%s,%s,%s,%s", task.getId(), task.getType(), task.getName(), task.getStatus(),
+                    task.getDescription(), task.getType() == TaskType.SUBTASK ? ((Subtask) task).getEpicId() : "",
+                    task.getStartTime() != null ? task.getStartTime().format(TaskUtils.DATE_TIME_FORMATTER) : "",
+                    task.getDuration() != null ? task.getDuration().getSeconds() / TaskUtils.SECONDS_IN_MINUTE : "",
+                    task.getType() == TaskType.EPIC && task.getEndTime() != null ? task.getEndTime().format(TaskUtils.DATE_TIME_FORMATTER) : "");
+            Assertions.assertEquals(expected, TaskUtils.toString(task), "TaskUtils изменил формат строки задачи");
+        }
+    }
+
     @Test
     void taskUtilsParseCorrectTask() {
         Task task = TaskUtils.fromString("1,TASK,Задача 1,NEW,Описание 1,,01-01-2024 00:00,120,");
@@ -67,6 +99,29 @@ public class TaskUtilsTest {
         Assertions.assertEquals(subtask.getDuration(), Duration.ofMinutes(120), "TaskUtils неверно парсит продолжительность подзадачи из строки");
     }
 
+    @Test
+    void taskUtilsParsesDatesLikeFormatter() {
+        for (String date : List.of("01-01-2024 00:00", "29-02-2024 23:59", "31-02-2023 10:15", "05-11-0001 07:30")) {
+            Task task = TaskUtils.fromString("1,TASK,Задача 1,NEW,Описание 1,," + date + ",,");
+            Assertions.assertEquals(LocalDateTime.parse(date, TaskUtils.DATE_TIME_FORMATTER), task.getStartTime(),
+                    "TaskUtils разбирает дату " + date + " не так, как форматтер");
+        }
+        Assertions.assertThrows(IllegalArgumentException.class, () -> TaskUtils.fromString("1,TASK,Задача 1,NEW,Описание 1,,01-13-2024 00:00,,"),
+                "TaskUtils не выбрасывает исключение при парсинге некорректной даты");
+        Assertions.assertThrows(IllegalArgumentException.class, () -> TaskUtils.fromString("1,TASK,Задача 1,NEW,Описание 1,,1-1-2024 0:00,,"),
+                "TaskUtils не выбрасывает исключение при парсинге даты в другом формате");
+    }
+
+    @Test
+    void taskUtilsChecksFieldsCount() {
+        Assertions.assertThrows(IllegalArgumentException.class, () -> TaskUtils.fromString("1,TASK,Задача 1,NEW,Описание 1,,,"),
+                "TaskUtils принял строку с недостающим полем");
+        Assertions.assertThrows(IllegalArgumentException.class, () -> TaskUtils.fromString("1,TASK,Задача 1,NEW,Описание 1,,,,,"),
+                "TaskUtils принял строку с лишним полем");
+        Assertions.assertEquals("", TaskUtils.fromString("1,TASK,Задача 1,NEW,,,,,").getDescription(),
+                "TaskUtils потерял пустое поле в середине строки");
+    }
+
     @Test
     void taskUtilsThrowExceptionsForMalformedTaskData() {
         Assertions.assertThrows(IllegalArgumentException.class, () -> TaskUtils.fromString("asdfg"), "TaskUtils не выбрасывает исключение при парсинге некорректной строки");